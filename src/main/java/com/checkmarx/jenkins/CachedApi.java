@@ -0,0 +1,99 @@
+package com.checkmarx.jenkins;
+
+import hudson.model.Api;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Remote API answering with a strong ETag derived from the version of the exported object, so that clients polling
+ * an unchanged object get {@code 304 Not Modified} before anything is read or rendered.
+ */
+public class CachedApi extends Api {
+
+    static final String REVALIDATE_CACHE_CONTROL = "private, no-cache";
+
+    private final String version;
+
+    /**
+     * @param version identifies the content of the exported object, or null when it is still changing
+     */
+    public CachedApi(final Object bean, final String version) {
+        super(bean);
+        this.version = version;
+    }
+
+    @Override
+    public void doXml(final StaplerRequest req, final StaplerResponse rsp, @QueryParameter final String xpath,
+                      @QueryParameter final String wrapper, @QueryParameter final String tree,
+                      @QueryParameter final int depth) throws IOException, ServletException {
+        if (!notModified(req, rsp)) {
+            super.doXml(req, rsp, xpath, wrapper, tree, depth);
+        }
+    }
+
+    @Override
+    public void doJson(final StaplerRequest req, final StaplerResponse rsp) throws IOException, ServletException {
+        if (!notModified(req, rsp)) {
+            super.doJson(req, rsp);
+        }
+    }
+
+    @Override
+    public void doPython(final StaplerRequest req, final StaplerResponse rsp) throws IOException, ServletException {
+        if (!notModified(req, rsp)) {
+            super.doPython(req, rsp);
+        }
+    }
+
+    /**
+     * Sets the caching headers and answers 304 when the client already has this version.
+     */
+    boolean notModified(final StaplerRequest req, final StaplerResponse rsp) {
+        if (version == null) {
+            rsp.setHeader("Cache-Control", "no-store");
+            return false;
+        }
+        final String etag = etag(version, req.getRequestURI(), req.getQueryString());
+        rsp.setHeader("ETag", etag);
+        rsp.setHeader("Cache-Control", REVALIDATE_CACHE_CONTROL);
+        if (matches(req.getHeader("If-None-Match"), etag)) {
+            rsp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The flavor and the tree, depth and other query parameters change the response, so they are part of the tag.
+     */
+    static String etag(final String version, final String uri, final String query) {
+        final String variant = uri + '?' + (query == null ? "" : query);
+        return '"' + version + '-' + Integer.toHexString(variant.hashCode()) + '"';
+    }
+
+    /**
+     * Tags the representation sent with a content encoding apart from the identity one, as a strong tag stands for
+     * the exact bytes of the response.
+     */
+    static String encodedEtag(final String etag, final String encoding) {
+        return etag.substring(0, etag.length() - 1) + '-' + encoding + '"';
+    }
+
+    static boolean matches(final String ifNoneMatch, final String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            final String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,118 @@
+package com.checkmarx.jenkins;
+
+import com.checkmarx.jenkins.dashboard.DashboardEntry;
+import com.checkmarx.jenkins.dashboard.SecurityDashboard;
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Job;
+import hudson.model.RootAction;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Instance-wide view of the latest Checkmarx scan of every job the user can see, filtered by folder, branch and risk.
+ */
+@Extension
+public class CheckmarxDashboardAction implements RootAction {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String[] QUERY_PARAMETERS = {"folder", "branch", "risk", "q", "sort", "limit"};
+
+    @Override
+    public String getIconFileName() {
+        return Jenkins.get().hasPermission(Jenkins.READ) ? "/plugin/checkmarx-ast-scanner/images/CxIcon24x24.png" : null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Checkmarx Dashboard";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "checkmarx-dashboard";
+    }
+
+    public SecurityDashboard.Page getPage(final StaplerRequest request) {
+        Jenkins.get().checkPermission(Jenkins.READ);
+        SecurityDashboard.Sort sort = SecurityDashboard.Sort.RISK;
+        final String sortParameter = Util.fixEmptyAndTrim(request.getParameter("sort"));
+        if (sortParameter != null) {
+            try {
+                sort = SecurityDashboard.Sort.valueOf(sortParameter.toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                // keep the default order
+            }
+        }
+        final int offset = Math.max(0, intParameter(request, "offset", 0));
+        final int limit = Math.min(MAX_PAGE_SIZE, Math.max(1, intParameter(request, "limit", DEFAULT_PAGE_SIZE)));
+        return SecurityDashboard.get().query(request.getParameter("folder"), Util.fixEmptyAndTrim(request.getParameter("branch")),
+                request.getParameter("risk"), Util.fixEmptyAndTrim(request.getParameter("q")), sort,
+                visibleToUser(), offset, limit);
+    }
+
+    /**
+     * Keeps the entries of the jobs the user can see.
+     */
+    private static Predicate<DashboardEntry> visibleToUser() {
+        final Jenkins jenkins = Jenkins.get();
+        return entry -> jenkins.getItemByFullName(entry.getJobFullName(), Job.class) != null;
+    }
+
+    /**
+     * Returns the filter, sort and limit parameters of the request as a query string prefix for the paging links.
+     */
+    public String getQuery(final StaplerRequest request) throws UnsupportedEncodingException {
+        final StringBuilder query = new StringBuilder();
+        for (String parameter : QUERY_PARAMETERS) {
+            final String value = Util.fixEmptyAndTrim(request.getParameter(parameter));
+            if (value != null) {
+                query.append(parameter).append('=').append(URLEncoder.encode(value, "UTF-8")).append('&');
+            }
+        }
+        return query.toString();
+    }
+
+    public List<String> getFolders() {
+        Jenkins.get().checkPermission(Jenkins.READ);
+        return SecurityDashboard.get().getFolders(visibleToUser());
+    }
+
+    public List<String> getRisks() {
+        return Arrays.asList(DashboardEntry.RISKS);
+    }
+
+    public List<SecurityDashboard.Sort> getSorts() {
+        return Arrays.asList(SecurityDashboard.Sort.values());
+    }
+
+    public boolean isRebuilding() {
+        return SecurityDashboard.get().isRebuilding();
+    }
+
+    @RequirePOST
+    public HttpResponse doRebuild() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        SecurityDashboard.get().rebuildInBackground();
+        return HttpResponses.redirectToDot();
+    }
+
+    private static int intParameter(final StaplerRequest request, final String name, final int defaultValue) {
+        try {
+            return Integer.parseInt(request.getParameter(name));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
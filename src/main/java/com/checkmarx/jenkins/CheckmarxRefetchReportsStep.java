@@ -0,0 +1,110 @@
+package com.checkmarx.jenkins;
+
+import com.checkmarx.jenkins.exception.CheckmarxException;
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.jenkinsci.plugins.workflow.steps.SynchronousNonBlockingStepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Pipeline step fetching the reports of the Checkmarx scan of a completed build again, without scanning again.
+ * The build is given by its job, relative to the running job and defaulting to it, and by its number.
+ */
+public class CheckmarxRefetchReportsStep extends Step {
+
+    private final int build;
+    private String job;
+
+    @DataBoundConstructor
+    public CheckmarxRefetchReportsStep(final int build) {
+        this.build = build;
+    }
+
+    public int getBuild() {
+        return build;
+    }
+
+    public String getJob() {
+        return job;
+    }
+
+    @DataBoundSetter
+    public void setJob(final String job) {
+        this.job = Util.fixEmptyAndTrim(job);
+    }
+
+    @Override
+    public StepExecution start(final StepContext context) {
+        return new Execution(this, context);
+    }
+
+    private static class Execution extends SynchronousNonBlockingStepExecution<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient CheckmarxRefetchReportsStep step;
+
+        Execution(final CheckmarxRefetchReportsStep step, final StepContext context) {
+            super(context);
+            this.step = step;
+        }
+
+        @Override
+        protected Void run() throws Exception {
+            final Run<?, ?> current = getContext().get(Run.class);
+            final Job<?, ?> job = step.job == null ? current.getParent()
+                    : Jenkins.get().getItem(step.job, current.getParent(), Job.class);
+            if (job == null) {
+                throw new AbortException("No job named " + step.job + " was found.");
+            }
+            final Run<?, ?> run = job.getBuildByNumber(step.build);
+            if (run == null) {
+                throw new AbortException(job.getFullDisplayName() + " has no build #" + step.build + ".");
+            }
+            job.checkPermission(Item.BUILD);
+            try {
+                ReportRefetch.refetch(run, getContext().get(TaskListener.class));
+            } catch (CheckmarxException e) {
+                throw new AbortException(e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    @Extension
+    public static class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(Run.class, TaskListener.class)));
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "checkmarxRefetchReports";
+        }
+
+        @Nonnull
+        @Override
+        public String getDisplayName() {
+            return "Fetch the Checkmarx reports of a build again";
+        }
+    }
+}
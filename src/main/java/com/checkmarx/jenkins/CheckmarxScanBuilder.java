@@ -1,11 +1,30 @@
 package com.checkmarx.jenkins;
 
-import com.checkmarx.ast.scan.Scan;
+import com.checkmarx.ast.results.ResultsSummary;
 import com.checkmarx.ast.wrapper.CxConfig;
 import com.checkmarx.ast.wrapper.CxException;
+import com.checkmarx.jenkins.cache.ScanCache;
 import com.checkmarx.jenkins.credentials.CheckmarxApiToken;
+import com.checkmarx.jenkins.credentials.CheckmarxApiTokenPool;
+import com.checkmarx.jenkins.exception.CheckmarxException;
+import com.checkmarx.jenkins.exception.ScanFailedException;
 import com.checkmarx.jenkins.model.ScanConfig;
+import com.checkmarx.jenkins.model.ScanHandle;
+import com.checkmarx.jenkins.results.FindingFingerprints;
+import com.checkmarx.jenkins.results.FindingsDiff;
+import com.checkmarx.jenkins.results.QualityGate;
+import com.checkmarx.jenkins.results.ResultsIndexWriter;
+import com.checkmarx.jenkins.scan.CliCall;
+import com.checkmarx.jenkins.scan.ScanTarget;
+import com.checkmarx.jenkins.scan.ScanTargetPool;
+import com.checkmarx.jenkins.scan.SupersededScans;
 import com.checkmarx.jenkins.tools.CheckmarxInstallation;
+import com.checkmarx.jenkins.tracing.Span;
+import com.checkmarx.jenkins.tracing.SpanExporter;
+import com.checkmarx.jenkins.tracing.Tracing;
+import com.checkmarx.jenkins.workspace.DeltaSourceCollector;
+import com.checkmarx.jenkins.workspace.WorkspaceFingerprint;
+import com.checkmarx.jenkins.workspace.WorkspaceFingerprinter;
 import com.cloudbees.plugins.credentials.CredentialsMatchers;
 import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.common.StandardListBoxModel;
@@ -13,17 +32,22 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.*;
 import hudson.model.*;
 import hudson.security.ACL;
+import hudson.console.HyperlinkNote;
 import hudson.slaves.EnvironmentVariablesNodeProperty;
+import hudson.slaves.WorkspaceList;
 import hudson.tasks.ArtifactArchiver;
 import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.Builder;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
+import hudson.util.Secret;
 import jenkins.model.Jenkins;
 import jenkins.tasks.SimpleBuildStep;
+import jenkins.util.BuildListenerAdapter;
 import lombok.NonNull;
 import lombok.SneakyThrows;
 import net.sf.json.JSONObject;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.*;
@@ -36,10 +60,16 @@ import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
 
 import static com.cloudbees.plugins.credentials.CredentialsMatchers.anyOf;
 import static com.cloudbees.plugins.credentials.CredentialsMatchers.withId;
@@ -58,9 +88,16 @@ public class CheckmarxScanBuilder extends Builder implements SimpleBuildStep {
     public static final String CVS_BRANCH_VAR = "${CVS_BRANCH}";
     public static final String SVN_REVISION = "SVN_REVISION";
     public static final String SVN_REVISION_VAR = "${SVN_REVISION}";
+    public static final String CHANGE_TARGET = "CHANGE_TARGET";
+    public static final String SAST_INCREMENTAL = "--sast-incremental";
+    public static final String SCAN_TYPES = "--scan-types";
+    private static final String DELTA_STAGING_DIRECTORY = "checkmarx-delta";
+    // successful builds searched for the findings to compare with
+    private static final int MAX_BASELINE_LOOKBACK = 20;
 
 
-    CxLoggerAdapter log;
+    private transient boolean submitOnly;
+    private transient ScanHandle startedScan;
     @Nullable
     private String serverUrl;
     private boolean useAuthenticationUrl;
@@ -73,6 +110,13 @@ public class CheckmarxScanBuilder extends Builder implements SimpleBuildStep {
     private String additionalOptions;
     private boolean useOwnAdditionalOptions;
     private boolean useOwnServerCredentials;
+    private boolean useDeltaScan;
+    private boolean useAutoScanTypes;
+    private boolean cancelSupersededScans;
+    private String logLevel;
+    private Integer maxHighFindings;
+    private Integer maxMediumFindings;
+    private Integer maxNewFindings;
 
     @DataBoundConstructor
     public CheckmarxScanBuilder(boolean useOwnServerCredentials,
@@ -203,11 +247,170 @@ public class CheckmarxScanBuilder extends Builder implements SimpleBuildStep {
     }
 
 
+    public boolean getUseDeltaScan() {
+        return useDeltaScan;
+    }
+
+    @DataBoundSetter
+    public void setUseDeltaScan(boolean useDeltaScan) {
+        this.useDeltaScan = useDeltaScan;
+    }
+
+    public boolean getUseAutoScanTypes() {
+        return useAutoScanTypes;
+    }
+
+    @DataBoundSetter
+    public void setUseAutoScanTypes(boolean useAutoScanTypes) {
+        this.useAutoScanTypes = useAutoScanTypes;
+    }
+
+    public boolean getCancelSupersededScans() {
+        return cancelSupersededScans;
+    }
+
+    @DataBoundSetter
+    public void setCancelSupersededScans(boolean cancelSupersededScans) {
+        this.cancelSupersededScans = cancelSupersededScans;
+    }
+
+    public String getLogLevel() {
+        return logLevel;
+    }
+
+    @DataBoundSetter
+    public void setLogLevel(String logLevel) {
+        this.logLevel = fixEmptyAndTrim(logLevel);
+    }
+
+    @Nullable
+    public Integer getMaxHighFindings() {
+        return maxHighFindings;
+    }
+
+    @DataBoundSetter
+    public void setMaxHighFindings(@Nullable Integer maxHighFindings) {
+        this.maxHighFindings = maxHighFindings;
+    }
+
+    @Nullable
+    public Integer getMaxMediumFindings() {
+        return maxMediumFindings;
+    }
+
+    @DataBoundSetter
+    public void setMaxMediumFindings(@Nullable Integer maxMediumFindings) {
+        this.maxMediumFindings = maxMediumFindings;
+    }
+
+    @Nullable
+    public Integer getMaxNewFindings() {
+        return maxNewFindings;
+    }
+
+    @DataBoundSetter
+    public void setMaxNewFindings(@Nullable Integer maxNewFindings) {
+        this.maxNewFindings = maxNewFindings;
+    }
+
+    private boolean hasQualityGate() {
+        return maxHighFindings != null || maxMediumFindings != null || maxNewFindings != null;
+    }
+
     @SneakyThrows
     @Override
     public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace, EnvVars envVars, @Nonnull Launcher launcher, @Nonnull TaskListener listener) {
+        runStep(run, workspace, launcher, listener, "checkmarx.build_step",
+                (descriptor, log, progress) -> performScan(run, workspace, envVars, launcher, listener, descriptor, log, progress));
+    }
+
+    /**
+     * Submits the scan without waiting for it, for the <code>checkmarxScanStart</code> step.
+     *
+     * @return the submitted scan, or null when the scan could not be submitted
+     */
+    ScanHandle startScan(Run<?, ?> run, FilePath workspace, EnvVars envVars, Launcher launcher, TaskListener listener) throws IOException, InterruptedException {
+        submitOnly = true;
+        startedScan = null;
+        runStep(run, workspace, launcher, listener, "checkmarx.start_step",
+                (descriptor, log, progress) -> performScan(run, workspace, envVars, launcher, listener, descriptor, log, progress));
+        return startedScan;
+    }
+
+    /**
+     * Waits for a scan submitted by the <code>checkmarxScanStart</code> step, then fetches, checks and archives its
+     * reports like the build step, for the <code>checkmarxScanWait</code> step.
+     */
+    void finishScan(Run<?, ?> run, FilePath workspace, EnvVars envVars, Launcher launcher, TaskListener listener, ScanHandle handle) throws IOException, InterruptedException {
+        runStep(run, workspace, launcher, listener, "checkmarx.wait_step",
+                (descriptor, log, progress) -> awaitStartedScan(run, workspace, envVars, launcher, listener, descriptor, handle, log, progress));
+    }
+
+    @FunctionalInterface
+    private interface StepBody {
+        void run(CheckmarxScanBuilderDescriptor descriptor, CxLoggerAdapter log, CheckmarxScanProgressAction progress) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Sets up the build log, the progress of the build and the trace around the body of a step. The log and the
+     * progress are passed down to the body rather than kept on the builder, which concurrent builds of a job share.
+     */
+    private void runStep(Run<?, ?> run, FilePath workspace, Launcher launcher, TaskListener listener, String traceName, StepBody body) throws IOException, InterruptedException {
         final CheckmarxScanBuilderDescriptor descriptor = getDescriptor();
-        log = new CxLoggerAdapter(listener.getLogger());
+        final CxLoggerAdapter.Level globalLevel = CxLoggerAdapter.Level.parse(descriptor.getLogLevel(), CxLoggerAdapter.Level.INFO);
+        final CxLoggerAdapter log = new CxLoggerAdapter(listener.getLogger(), CxLoggerAdapter.Level.parse(getLogLevel(), globalLevel), true);
+        // the transcript is kept out of the workspace, which is uploaded for scanning
+        final FilePath tempDirectory = descriptor.getUseConsoleCap() ? WorkspaceList.tempDir(workspace) : null;
+        final FilePath transcript = tempDirectory == null ? null : tempDirectory.child(workspace.getName() + "_" + PluginUtils.CHECKMARX_AST_CLI_OUTPUT);
+        if (transcript != null) {
+            tempDirectory.mkdirs();
+            final String transcriptUrl = "/" + run.getUrl() + "artifact/" + transcript.getName();
+            log.capConsole(descriptor.getConsoleHeadLines(), descriptor.getConsoleTailLines(),
+                    new GZIPOutputStream(transcript.write(), true),
+                    HyperlinkNote.encodeTo(transcriptUrl, transcript.getName()));
+        }
+        CheckmarxScanProgressAction progress = run.getAction(CheckmarxScanProgressAction.class);
+        if (progress == null) {
+            progress = new CheckmarxScanProgressAction();
+            run.addAction(progress);
+        } else {
+            progress.restart();
+        }
+        final SpanExporter exporter = Tracing.exporter(descriptor.getTracingEndpoint(), descriptor.getTracingFile());
+        try (Span span = Tracing.startTrace(traceName, exporter)) {
+            span.setAttribute("jenkins.job", run.getParent().getFullName())
+                    .setAttribute("jenkins.build", run.getNumber());
+            try {
+                body.run(descriptor, log, progress);
+            } finally {
+                progress.finish();
+                log.close();
+                if (transcript != null) {
+                    archiveTranscript(run, launcher, listener, transcript);
+                }
+                span.setAttribute("jenkins.result", String.valueOf(run.getResult()));
+            }
+        }
+    }
+
+    /**
+     * Archives the full CLI output written on the build node, then removes it from the node.
+     *
+     * @param run
+     * @param launcher
+     * @param listener
+     * @param transcript
+     */
+    private void archiveTranscript(Run<?, ?> run, Launcher launcher, TaskListener listener, FilePath transcript) throws IOException, InterruptedException {
+        try {
+            run.pickArtifactManager().archive(transcript.getParent(), launcher, BuildListenerAdapter.wrap(listener),
+                    Collections.singletonMap(transcript.getName(), transcript.getName()));
+        } finally {
+            transcript.delete();
+        }
+    }
+
+    private void performScan(Run<?, ?> run, FilePath workspace, EnvVars envVars, Launcher launcher, TaskListener listener, CheckmarxScanBuilderDescriptor descriptor, CxLoggerAdapter log, CheckmarxScanProgressAction progress) throws IOException, InterruptedException {
 
         ScanConfig scanConfig;
         try {
@@ -219,14 +422,49 @@ public class CheckmarxScanBuilder extends Builder implements SimpleBuildStep {
         }
 
         printConfiguration(envVars, descriptor, log);
+        Tracing.current()
+                .setAttribute("checkmarx.project", scanConfig.getProjectName())
+                .setAttribute("checkmarx.branch", scanConfig.getBranchName());
+        log.trackProgress(progress, TimeUnit.SECONDS.toMillis(descriptor.getProgressIntervalSeconds()));
 
         if (!getUseOwnServerCredentials()) checkmarxInstallation = descriptor.getCheckmarxInstallation();
+        final String checkmarxCliExecutable = resolveExecutable(run, workspace, envVars, launcher, listener, descriptor, log, progress);
+        if (checkmarxCliExecutable == null) {
+            return;
+        }
+
+        final ScanTargetPool.Lease lease;
+        try {
+            lease = acquireScanTarget(run, scanConfig, descriptor, log);
+        } catch (InterruptedException e) {
+            run.setResult(Result.ABORTED);
+            throw e;
+        } catch (CheckmarxException e) {
+            log.error(e.getMessage());
+            run.setResult(Result.FAILURE);
+            return;
+        }
+        try {
+            scan(run, workspace, envVars, launcher, listener, descriptor, scanConfig, checkmarxCliExecutable, lease, log, progress);
+        } finally {
+            if (lease != null) {
+                lease.close();
+            }
+        }
+    }
+
+    /**
+     * Installs the CLI of the Checkmarx installation of the step on the build node if necessary.
+     *
+     * @return the CLI executable, or null when it is not available and the build has failed
+     */
+    private String resolveExecutable(Run<?, ?> run, FilePath workspace, EnvVars envVars, Launcher launcher, TaskListener listener, CheckmarxScanBuilderDescriptor descriptor, CxLoggerAdapter log, CheckmarxScanProgressAction progress) throws InterruptedException {
         //// Check for required version of CLI
         CheckmarxInstallation installation = PluginUtils.findCheckmarxInstallation(checkmarxInstallation);
         if (installation == null) {
             log.info("Checkmarx installation named '" + checkmarxInstallation + "' was not found. Please configure the build properly and retry.");
             run.setResult(Result.FAILURE);
-            return;
+            return null;
         }
 
         // install if necessary
@@ -235,23 +473,69 @@ public class CheckmarxScanBuilder extends Builder implements SimpleBuildStep {
         if (node == null) {
             log.info("Not running on a build node.");
             run.setResult(Result.FAILURE);
-            return;
+            return null;
         }
+        Tracing.current().setAttribute("jenkins.node", node.getDisplayName());
 
-        String checkmarxCliExecutable;
-
-        installation = installation.forNode(node, listener);
-        installation = installation.forEnvironment(envVars);
-        checkmarxCliExecutable = Optional.of(installation.getCheckmarxExecutable(launcher)).orElseThrow(() -> new Exception("Cannot use node"));
+        enterPhase("install", log, progress);
+        final CheckmarxInstallation configuredInstallation = installation;
+        final String checkmarxCliExecutable;
+        try {
+            checkmarxCliExecutable = new CliCall(CliCall.Phase.INSTALL, descriptor.getInstallTimeoutMinutes(), null, log).run(() -> {
+                final CheckmarxInstallation nodeInstallation = configuredInstallation.forNode(node, listener).forEnvironment(envVars);
+                try (Span span = Tracing.start("checkmarx.resolve_executable")) {
+                    return nodeInstallation.getCheckmarxExecutable(launcher);
+                }
+            });
+        } catch (InterruptedException e) {
+            run.setResult(Result.ABORTED);
+            throw e;
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            run.setResult(Result.FAILURE);
+            return null;
+        }
 
         if (checkmarxCliExecutable == null) {
             log.info("Can't retrieve the Checkmarx executable.");
             run.setResult(Result.FAILURE);
-            return;
+            return null;
         }
         log.info("This is the executable: " + checkmarxCliExecutable);
+        return checkmarxCliExecutable;
+    }
 
+    /**
+     * Chooses the scan target of the build in the global pool and applies it to the scan configuration.
+     *
+     * @return the lease of the target, or null when the job or the global settings name a single server
+     */
+    private ScanTargetPool.Lease acquireScanTarget(Run<?, ?> run, ScanConfig scanConfig, CheckmarxScanBuilderDescriptor descriptor, CxLoggerAdapter log) throws InterruptedException, CheckmarxException {
+        if (getUseOwnServerCredentials() || descriptor.getScanTargets().isEmpty()) {
+            return null;
+        }
+        final ScanTargetPool.Lease lease = ScanTargetPool.get().acquire(descriptor.getScanTargets(), scanConfig.getProjectName(), log);
+        final ScanTarget target = lease.getTarget();
+        scanConfig.setServerUrl(target.getServerUrl());
+        scanConfig.setTenantName(fixEmptyAndTrim(target.getTenantName()));
+        scanConfig.setBaseAuthUrl(fixEmptyAndTrim(target.getBaseAuthUrl()));
+        scanConfig.setCheckmarxToken(getCheckmarxTokenCredential(run, target.getCredentialsId()));
+        scanConfig.setCredentialsId(target.getCredentialsId());
+        if (scanConfig.getCheckmarxToken() == null) {
+            lease.close();
+            throw new CheckmarxException("Checkmarx credentials with ID '" + target.getCredentialsId() + "' of scan target "
+                    + target.getName() + " were not found. Please configure the scan targets properly and retry.");
+        }
+        log.info("Scan target: " + target.getName() + " (" + target.getServerUrl() + ")");
+        Tracing.current().setAttribute("checkmarx.target", target.getName());
+        return lease;
+    }
 
+    /**
+     * @param lease the scan target of the build, told whether the scan succeeded, or null
+     */
+    private void scan(Run<?, ?> run, FilePath workspace, EnvVars envVars, Launcher launcher, TaskListener listener, CheckmarxScanBuilderDescriptor descriptor,
+                      ScanConfig scanConfig, String checkmarxCliExecutable, ScanTargetPool.Lease lease, CxLoggerAdapter log, CheckmarxScanProgressAction progress) throws IOException, InterruptedException {
         // Check if the configured token is valid.
         CheckmarxApiToken checkmarxToken = scanConfig.getCheckmarxToken();
         if (checkmarxToken == null) {
@@ -259,32 +543,445 @@ public class CheckmarxScanBuilder extends Builder implements SimpleBuildStep {
             run.setResult(Result.FAILURE);
             return;
         }
-
+        final CheckmarxApiTokenPool.Lease client;
         try {
-            final Scan scan = PluginUtils.submitScanDetailsToWrapper(scanConfig, checkmarxCliExecutable, this.log);
-            PluginUtils.generateHTMLReport(workspace, UUID.fromString(scan.getID()), scanConfig, checkmarxCliExecutable, log);
-            PluginUtils.generateJsonReport(workspace, UUID.fromString(scan.getID()), scanConfig, checkmarxCliExecutable, log);
+            client = acquireClient(checkmarxToken, scanConfig, log);
+        } catch (InterruptedException e) {
+            run.setResult(Result.ABORTED);
+            throw e;
+        }
+
+        final FilePath deltaDirectory = getUseDeltaScan() ? prepareDeltaScan(workspace, envVars, scanConfig, log) : null;
+        if (getUseAutoScanTypes()) {
+            selectScanTypes(workspace, scanConfig, log);
+        }
 
-            ArtifactArchiver artifactArchiverHtml = new ArtifactArchiver(workspace.getName() + "_" + PluginUtils.CHECKMARX_AST_RESULTS_HTML);
-            artifactArchiverHtml.perform(run, workspace, envVars, launcher, listener);
+        // a started scan is joined by a later step, so it is neither shared nor canceled by newer builds
+        final SupersededScans.Ticket ticket = getCancelSupersededScans() && !submitOnly ? SupersededScans.register(scanConfig, run, log) : null;
 
-            ArtifactArchiver artifactArchiverJson = new ArtifactArchiver(workspace.getName() + "_" + PluginUtils.CHECKMARX_AST_RESULTS_JSON);
-            artifactArchiverJson.perform(run, workspace, envVars, launcher, listener);
+        try {
+            final boolean cacheable = descriptor.getUseScanCache() && deltaDirectory == null && !submitOnly;
+            final ScanCache.Key cacheKey = cacheable ? ScanCache.Key.of(scanConfig, envVars) : null;
+            final ScanCache.ScanSubmitter submitter = () -> {
+                enterPhase("scan", log, progress);
+                final CliCall scanCall = new CliCall(CliCall.Phase.SCAN, descriptor.getScanTimeoutMinutes(), checkmarxCliExecutable, log);
+                scanCall.track(scanConfig.getSourceDirectory());
+                return scanCall.run(() -> runScan(scanConfig, checkmarxCliExecutable, ticket, scanCall, log, progress));
+            };
+            final String scanId;
+            if (cacheKey == null) {
+                scanId = submitter.submit();
+            } else {
+                scanId = ScanCache.get().resolve(cacheKey,
+                        TimeUnit.HOURS.toMillis(descriptor.getScanCacheMaxAgeHours()),
+                        descriptor.getScanCacheMaxEntries(),
+                        submitter,
+                        log);
+            }
+            progress.setScanId(scanId);
+
+            // recorded before the reports are fetched, so that they can be fetched again if this fails
+            final CheckmarxScanResultsAction resultsAction = recordScan(run, scanConfig, scanId);
+            if (submitOnly) {
+                startedScan = new ScanHandle(scanId, scanConfig, checkmarxInstallation);
+                startedScan.setLogLevel(getLogLevel());
+                startedScan.setQualityGate(maxHighFindings, maxMediumFindings, maxNewFindings);
+                if (lease != null) {
+                    // the scan keeps its place on the target until checkmarxScanWait collects its results
+                    ScanTargetPool.get().hold(scanId, lease);
+                }
+                log.info("Scan " + scanId + " submitted, its results are collected by checkmarxScanWait.");
+            } else {
+                collectResults(run, workspace, envVars, launcher, listener, descriptor, scanConfig, checkmarxCliExecutable, scanId, resultsAction, log, progress);
+            }
+            if (lease != null) {
+                lease.succeeded();
+            }
+            if (client != null) {
+                client.succeeded();
+            }
+        } catch (InterruptedException e) {
+            run.setResult(Result.ABORTED);
+            throw e;
+        } catch (IOException | URISyntaxException | CxConfig.InvalidCLIConfigException | CxException | CheckmarxException e) {
+            scanFailed(run, e, lease, client, log);
+        } finally {
+            if (ticket != null) {
+                SupersededScans.release(ticket);
+            }
+            if (deltaDirectory != null) {
+                deltaDirectory.deleteRecursive();
+            }
+        }
+    }
 
-            if (run.getActions(CheckmarxScanResultsAction.class).isEmpty()) {
-                run.addAction(new CheckmarxScanResultsAction());
+    /**
+     * Waits for the scan of the handle on the server it was submitted to, then collects its results. The scan target
+     * lease held since the scan was started is released once the results are collected.
+     */
+    private void awaitStartedScan(Run<?, ?> run, FilePath workspace, EnvVars envVars, Launcher launcher, TaskListener listener, CheckmarxScanBuilderDescriptor descriptor,
+                                  ScanHandle handle, CxLoggerAdapter log, CheckmarxScanProgressAction progress) throws IOException, InterruptedException {
+        final ScanTargetPool.Lease lease = ScanTargetPool.get().resume(handle.getScanId());
+        try {
+            awaitStartedScan(run, workspace, envVars, launcher, listener, descriptor, handle, lease, log, progress);
+        } finally {
+            if (lease != null) {
+                lease.close();
             }
-            run.setResult(Result.SUCCESS);
-        } catch (IOException | InterruptedException | URISyntaxException e) {
+        }
+    }
+
+    private void awaitStartedScan(Run<?, ?> run, FilePath workspace, EnvVars envVars, Launcher launcher, TaskListener listener, CheckmarxScanBuilderDescriptor descriptor,
+                                  ScanHandle handle, ScanTargetPool.Lease lease, CxLoggerAdapter log, CheckmarxScanProgressAction progress) throws IOException, InterruptedException {
+        final String scanId = handle.getScanId();
+        final ScanConfig scanConfig = handle.toScanConfig();
+        Tracing.current()
+                .setAttribute("checkmarx.project", scanConfig.getProjectName())
+                .setAttribute("checkmarx.branch", scanConfig.getBranchName())
+                .setAttribute("checkmarx.scan_id", scanId);
+        log.trackProgress(progress, TimeUnit.SECONDS.toMillis(descriptor.getProgressIntervalSeconds()));
+        progress.setScanId(scanId);
+        log.info("Waiting for scan " + scanId + " of project " + scanConfig.getProjectName() + ".");
+
+        final CheckmarxApiToken checkmarxToken = getCheckmarxTokenCredential(run, handle.getCredentialsId());
+        if (checkmarxToken == null) {
+            log.error("Checkmarx credentials with ID '" + handle.getCredentialsId() + "' was not found. Please configure the build properly and retry.");
             run.setResult(Result.FAILURE);
-        } catch (CxConfig.InvalidCLIConfigException e) {
+            return;
+        }
+        scanConfig.setCheckmarxToken(checkmarxToken);
+        checkmarxInstallation = handle.getInstallationName();
+        final String checkmarxCliExecutable = resolveExecutable(run, workspace, envVars, launcher, listener, descriptor, log, progress);
+        if (checkmarxCliExecutable == null) {
+            return;
+        }
+
+        final CheckmarxApiTokenPool.Lease client;
+        try {
+            client = acquireClient(checkmarxToken, scanConfig, log);
+        } catch (InterruptedException e) {
+            run.setResult(Result.ABORTED);
+            throw e;
+        }
+        try {
+            enterPhase("scan", log, progress);
+            final CliCall scanCall = new CliCall(CliCall.Phase.SCAN, descriptor.getScanTimeoutMinutes(), checkmarxCliExecutable, log);
+            scanCall.track(scanId);
+            scanCall.run(() -> awaitScan(scanCall, scanConfig, checkmarxCliExecutable, scanId, log));
+
+            final CheckmarxScanResultsAction resultsAction = recordScan(run, scanConfig, scanId);
+            collectResults(run, workspace, envVars, launcher, listener, descriptor, scanConfig, checkmarxCliExecutable, scanId, resultsAction, log, progress);
+            if (lease != null) {
+                lease.succeeded();
+            }
+            if (client != null) {
+                client.succeeded();
+            }
+        } catch (InterruptedException e) {
+            run.setResult(Result.ABORTED);
+            throw e;
+        } catch (IOException | URISyntaxException | CxConfig.InvalidCLIConfigException | CxException | CheckmarxException e) {
+            scanFailed(run, e, lease, client, log);
+        }
+    }
+
+    private CheckmarxScanResultsAction recordScan(Run<?, ?> run, ScanConfig scanConfig, String scanId) {
+        CheckmarxScanResultsAction resultsAction = run.getAction(CheckmarxScanResultsAction.class);
+        if (resultsAction == null) {
+            resultsAction = new CheckmarxScanResultsAction();
+            resultsAction.setBranchName(scanConfig.getBranchName());
+            run.addAction(resultsAction);
+        }
+        resultsAction.setScan(scanId, scanConfig, checkmarxInstallation);
+        return resultsAction;
+    }
+
+    /**
+     * Fetches the reports of the finished scan, applies the quality gate and archives the reports.
+     */
+    private void collectResults(Run<?, ?> run, FilePath workspace, EnvVars envVars, Launcher launcher, TaskListener listener, CheckmarxScanBuilderDescriptor descriptor,
+                                ScanConfig scanConfig, String checkmarxCliExecutable, String scanId, CheckmarxScanResultsAction resultsAction, CxLoggerAdapter log, CheckmarxScanProgressAction progress)
+            throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
+        enterPhase("report", log, progress);
+        final CliCall reportCall = new CliCall(CliCall.Phase.REPORT, descriptor.getReportTimeoutMinutes(), checkmarxCliExecutable, log);
+        reportCall.track(scanId);
+        final AtomicReference<ResultsSummary> resultsSummary = new AtomicReference<>();
+        final FindingsDiff findingsDiff = reportCall.run(() -> {
+            PluginUtils.generateHTMLReport(workspace, UUID.fromString(scanId), scanConfig, checkmarxCliExecutable, log);
+            resultsSummary.set(PluginUtils.generateJsonReport(workspace, UUID.fromString(scanId), scanConfig, checkmarxCliExecutable, log));
+            Tracing.current().setAttribute("report.bytes",
+                    workspace.child(workspace.getName() + "_" + PluginUtils.CHECKMARX_AST_RESULTS_HTML + PluginUtils.GZIP_EXTENSION).length()
+                            + workspace.child(workspace.getName() + "_" + PluginUtils.CHECKMARX_AST_RESULTS_JSON + PluginUtils.GZIP_EXTENSION).length());
+            return indexResults(run, scanConfig, checkmarxCliExecutable, scanId, log);
+        });
+
+        // decided from the counts of the summary and the comparison, without reading the reports again
+        final QualityGate qualityGate = hasQualityGate() && resultsSummary.get() != null
+                ? QualityGate.evaluate(maxHighFindings, maxMediumFindings, maxNewFindings,
+                resultsSummary.get().getHighIssues(), resultsSummary.get().getMediumIssues(), findingsDiff)
+                : null;
+        if (qualityGate != null) {
+            if (qualityGate.isPassed()) {
+                log.info("Checkmarx quality gate passed.");
+            } else {
+                log.error("Checkmarx quality gate failed: " + String.join("; ", qualityGate.getViolations()) + ".");
+            }
+        }
+
+        // the archiver writes to the build log directly
+        log.flush();
+        ArtifactArchiver artifactArchiverHtml = new ArtifactArchiver(workspace.getName() + "_" + PluginUtils.CHECKMARX_AST_RESULTS_HTML + PluginUtils.GZIP_EXTENSION);
+        artifactArchiverHtml.perform(run, workspace, envVars, launcher, listener);
+
+        ArtifactArchiver artifactArchiverJson = new ArtifactArchiver(workspace.getName() + "_" + PluginUtils.CHECKMARX_AST_RESULTS_JSON + PluginUtils.GZIP_EXTENSION);
+        artifactArchiverJson.perform(run, workspace, envVars, launcher, listener);
+
+        resultsAction.setFindingsDiff(findingsDiff);
+        resultsAction.setQualityGate(qualityGate);
+        resultsAction.reportsArchived();
+        run.setResult(qualityGate == null || qualityGate.isPassed() ? Result.SUCCESS : Result.FAILURE);
+    }
+
+    /**
+     * Fails the build and tells the scan target why the scan failed. A throttled client of the credentials pool was
+     * already left aside by the retry policy, and does not count against the scan target.
+     */
+    private void scanFailed(Run<?, ?> run, Exception e, ScanTargetPool.Lease lease, CheckmarxApiTokenPool.Lease client, CxLoggerAdapter log) {
+        run.setResult(Result.FAILURE);
+        if (e instanceof CxConfig.InvalidCLIConfigException) {
             log.error(e.getMessage());
-            run.setResult(Result.FAILURE);
-        } catch (CxException e) {
-            log.error(String.format("Exit code from AST-CLI: %s", e.getExitCode()));
+            return;
+        }
+        if (e instanceof CxException) {
+            log.error(String.format("Exit code from AST-CLI: %s", ((CxException) e).getExitCode()));
             log.error(e.getMessage());
-            run.setResult(Result.FAILURE);
+            if (client != null && CheckmarxApiTokenPool.isThrottled(e.getMessage())) {
+                log.warn("Client ID " + client.getClientId() + " was throttled by the server, the next scans use other clients of the pool.");
+                return;
+            }
+        } else if (e instanceof CheckmarxException) {
+            log.error(e.getMessage());
+        }
+        if (lease != null) {
+            lease.failed();
+        }
+    }
+
+    /**
+     * Replaces a credentials pool by the client the scan authenticates with.
+     *
+     * @return the client of the pool, or null when the credentials hold a single client
+     */
+    private CheckmarxApiTokenPool.Lease acquireClient(CheckmarxApiToken checkmarxToken, ScanConfig scanConfig, CxLoggerAdapter log) throws InterruptedException {
+        if (!(checkmarxToken instanceof CheckmarxApiTokenPool)) {
+            return null;
+        }
+        final CheckmarxApiTokenPool.Lease client = ((CheckmarxApiTokenPool) checkmarxToken).acquire();
+        scanConfig.setCheckmarxToken(client.getToken());
+        scanConfig.setClient(client);
+        log.info("Using client ID " + client.getClientId() + " of credentials pool " + checkmarxToken.getId());
+        return client;
+    }
+
+    /**
+     * Submits the scan asynchronously and polls it until the server finishes it, so that the scan can be canceled
+     * on the server when the build is aborted, times out or is superseded by a newer build. A started scan is only
+     * submitted.
+     *
+     * @param scanConfig
+     * @param checkmarxCliExecutable
+     * @param ticket
+     * @param scanCall
+     * @return
+     */
+    private String runScan(ScanConfig scanConfig, String checkmarxCliExecutable, SupersededScans.Ticket ticket, CliCall scanCall, CxLoggerAdapter log, CheckmarxScanProgressAction progress) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
+        if (ticket != null && ticket.isSuperseded()) {
+            throw new CheckmarxException("Scan not submitted: superseded by " + ticket.getSupersededBy() + ".");
+        }
+
+        final String scanId;
+        try (Span span = Tracing.start("checkmarx.upload")) {
+            span.setAttribute("source.directory", scanConfig.getSourceDirectory());
+            scanId = PluginUtils.submitAsyncScan(scanConfig, checkmarxCliExecutable, log).getID();
+        }
+        Tracing.current().setAttribute("checkmarx.scan_id", scanId);
+        scanCall.track(scanId);
+        progress.setScanId(scanId);
+        if (submitOnly) {
+            return scanId;
+        }
+        if (ticket != null) {
+            ticket.scanSubmitted(scanId, id -> PluginUtils.cancelScan(scanConfig, checkmarxCliExecutable, id, log));
+        }
+        return awaitScan(scanCall, scanConfig, checkmarxCliExecutable, scanId, log);
+    }
+
+    /**
+     * Polls the scan until the server finishes it, canceling it on the server when the build is aborted or the phase
+     * times out. A scan the status of which cannot be read is left running, as other builds may share it.
+     */
+    private String awaitScan(CliCall scanCall, ScanConfig scanConfig, String checkmarxCliExecutable, String scanId, CxLoggerAdapter log) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
+        try {
+            PluginUtils.waitForScanCompletion(scanConfig, checkmarxCliExecutable, scanId, log);
+        } catch (ScanFailedException e) {
+            // the server already finished the scan
+            throw e;
+        } catch (InterruptedException e) {
+            cancelAbandonedScan(scanConfig, checkmarxCliExecutable, scanId, log);
+            throw e;
+        } catch (IOException | URISyntaxException | CxConfig.InvalidCLIConfigException | CxException | CheckmarxException e) {
+            // the status request failed because its CLI process was killed
+            if (scanCall.isAborted()) {
+                cancelAbandonedScan(scanConfig, checkmarxCliExecutable, scanId, log);
+            }
+            throw e;
+        }
+        return scanId;
+    }
+
+    private void cancelAbandonedScan(ScanConfig scanConfig, String checkmarxCliExecutable, String scanId, CxLoggerAdapter log) throws InterruptedException {
+        // clear the interrupt so that the cancel command can run, then restore it
+        final boolean interrupted = Thread.interrupted();
+        PluginUtils.cancelScan(scanConfig, checkmarxCliExecutable, scanId, log);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Indexes the findings of the scan in the build directory and compares them with the last successful build
+     * of the same scope, as a delta scan only reports the findings of the changed files.
+     *
+     * @return the comparison, or null when the findings could not be indexed or no earlier build of the same scope
+     * has findings
+     */
+    static FindingsDiff indexResults(Run<?, ?> run, ScanConfig scanConfig, String checkmarxCliExecutable, String scanId, CxLoggerAdapter log) throws IOException, InterruptedException {
+        final File downloadDirectory = Files.createTempDirectory("checkmarx-results").toFile();
+        try (Span span = Tracing.start("checkmarx.results_index")) {
+            final File results = PluginUtils.downloadResults(scanConfig, checkmarxCliExecutable, scanId, downloadDirectory, log);
+            span.setAttribute("results.bytes", results.length());
+            final String fingerprintsName = fingerprintsName(scanConfig);
+            final File fingerprints = new File(run.getRootDir(), fingerprintsName);
+            final int findings = ResultsIndexWriter.write(results, new File(run.getRootDir(), PluginUtils.CHECKMARX_AST_RESULTS_INDEX), fingerprints);
+            span.setAttribute("results.findings", findings);
+            log.info("Indexed " + findings + " findings of scan " + scanId + ".");
+
+            final Run<?, ?> baseline = findBaseline(run, fingerprintsName);
+            if (baseline == null) {
+                return null;
+            }
+            final FindingsDiff diff = FindingsDiff.compare(baseline.getNumber(),
+                    FindingFingerprints.read(new File(baseline.getRootDir(), fingerprintsName)),
+                    FindingFingerprints.read(fingerprints));
+            span.setAttribute("results.new", diff.getNewFindings());
+            span.setAttribute("results.fixed", diff.getFixedFindings());
+            log.info(StringUtils.capitalize(diff.toString()) + ".");
+            return diff;
+        } catch (IOException | CheckmarxException e) {
+            log.warn("Could not index the findings of scan " + scanId + ": " + e.getMessage());
+            return null;
+        } finally {
+            FileUtils.deleteDirectory(downloadDirectory);
+        }
+    }
+
+    /**
+     * Returns the name of the fingerprints file of the scan, which tells full and delta scans apart.
+     */
+    static String fingerprintsName(ScanConfig scanConfig) {
+        return scanConfig.isDeltaScan() ? PluginUtils.CHECKMARX_AST_DELTA_FINDING_FINGERPRINTS : PluginUtils.CHECKMARX_AST_FINDING_FINGERPRINTS;
+    }
+
+    /**
+     * Returns the last successful build whose findings were indexed with the given fingerprints file, among the most
+     * recent successful builds.
+     */
+    static Run<?, ?> findBaseline(Run<?, ?> run, String fingerprintsName) {
+        Run<?, ?> previous = run.getPreviousSuccessfulBuild();
+        for (int i = 0; previous != null && i < MAX_BASELINE_LOOKBACK; i++) {
+            if (new File(previous.getRootDir(), fingerprintsName).isFile()) {
+                return previous;
+            }
+            previous = previous.getPreviousSuccessfulBuild();
         }
+        return null;
+    }
+
+    private void enterPhase(String phase, CxLoggerAdapter log, CheckmarxScanProgressAction progress) {
+        progress.setPhase(phase);
+        log.reportProgress();
+    }
+
+    /**
+     * Stages the files changed by the pull request, plus the dependency manifests, and points the scan at them.
+     * Returns the staging directory, or null when the whole workspace has to be scanned.
+     *
+     * @param workspace
+     * @param envVars
+     * @param scanConfig
+     * @return
+     */
+    private FilePath prepareDeltaScan(FilePath workspace, EnvVars envVars, ScanConfig scanConfig, CxLoggerAdapter log) throws IOException, InterruptedException {
+        String targetBranch = fixEmptyAndTrim(envVars.get(CHANGE_TARGET));
+        if (targetBranch == null) {
+            log.info("Delta scan skipped: this is not a pull request build. Scanning the whole workspace.");
+            return null;
+        }
+
+        FilePath tempDirectory = WorkspaceList.tempDir(workspace);
+        if (tempDirectory == null) {
+            log.info("Delta scan skipped: no temporary directory available for the workspace. Scanning the whole workspace.");
+            return null;
+        }
+
+        FilePath stagingDirectory = tempDirectory.child(DELTA_STAGING_DIRECTORY);
+        DeltaSourceCollector.Result delta = workspace.act(new DeltaSourceCollector(targetBranch, stagingDirectory.getRemote()));
+        if (!delta.isAvailable()) {
+            log.info("Delta scan skipped: " + delta.getUnavailableReason() + ". Scanning the whole workspace.");
+            return null;
+        }
+
+        log.info(String.format("Delta scan of %d changed file(s) and %d dependency manifest(s) from the %s.",
+                delta.getChangedFiles(), delta.getManifests(), delta.getOrigin()));
+        scanConfig.setSourceDirectory(delta.getDirectory());
+        scanConfig.setDeltaScan(true);
+
+        // SAST compares the partial sources with the last full scan of the project instead of reporting them alone
+        String additionalOptions = scanConfig.getAdditionalOptions();
+        if (PluginUtils.getOptionValue(additionalOptions, SAST_INCREMENTAL) == null) {
+            scanConfig.setAdditionalOptions(additionalOptions == null ? SAST_INCREMENTAL : additionalOptions + " " + SAST_INCREMENTAL);
+        }
+        return stagingDirectory;
+    }
+
+    /**
+     * Fingerprints the sources on the agent and enables only the engines that have something to scan.
+     * Scan types set explicitly in the additional options always win.
+     *
+     * @param workspace
+     * @param scanConfig
+     */
+    private void selectScanTypes(FilePath workspace, ScanConfig scanConfig, CxLoggerAdapter log) throws IOException, InterruptedException {
+        String additionalOptions = scanConfig.getAdditionalOptions();
+        if (PluginUtils.getOptionValue(additionalOptions, SCAN_TYPES) != null) {
+            log.info("Automatic scan types skipped: " + SCAN_TYPES + " is set in the additional options.");
+            return;
+        }
+
+        FilePath sources = new FilePath(workspace.getChannel(), scanConfig.getSourceDirectory());
+        WorkspaceFingerprint fingerprint = sources.act(new WorkspaceFingerprinter());
+        for (String reason : fingerprint.describe()) {
+            log.info(reason);
+        }
+
+        List<String> scanTypes = fingerprint.getScanTypes();
+        if (scanTypes.isEmpty()) {
+            log.info("No engine found anything to scan in " + fingerprint.getFiles() + " file(s), keeping the default scan types.");
+            return;
+        }
+
+        String scanTypesOption = SCAN_TYPES + " " + String.join(",", scanTypes);
+        scanConfig.setAdditionalOptions(additionalOptions == null ? scanTypesOption : additionalOptions + " " + scanTypesOption);
     }
 
     /**
@@ -345,6 +1042,10 @@ public class CheckmarxScanBuilder extends Builder implements SimpleBuildStep {
         log.info("Project Name: " + getProjectName());
         log.info("Branch name: " + getBranchToPrint(envVars));
 
+        log.info("Delta scan of pull requests: " + getUseDeltaScan());
+        log.info("Automatic scan types: " + getUseAutoScanTypes());
+        log.info("Cancel superseded scans: " + getCancelSupersededScans());
+        log.info("Log level: " + log.getLevel());
         log.info("Using global additional options: " + !getUseOwnAdditionalOptions());
 
         String additionalOptions = getUseOwnAdditionalOptions() ? getAdditionalOptions() : descriptor.getAdditionalOptions();
@@ -370,11 +1071,13 @@ public class CheckmarxScanBuilder extends Builder implements SimpleBuildStep {
                 scanConfig.setBaseAuthUrl(envVars.expand(this.getBaseAuthUrl()));
             }
             scanConfig.setCheckmarxToken(getCheckmarxTokenCredential(run, getCredentialsId()));
+            scanConfig.setCredentialsId(getCredentialsId());
 
         } else {
             scanConfig.setServerUrl(envVars.expand(descriptor.getServerUrl()));
             scanConfig.setTenantName(envVars.expand(fixEmptyAndTrim(descriptor.getTenantName())));
             scanConfig.setCheckmarxToken(getCheckmarxTokenCredential(run, descriptor.getCredentialsId()));
+            scanConfig.setCredentialsId(descriptor.getCredentialsId());
         }
 
         String branchName = getBranchNameOrDefault(envVars);
@@ -400,9 +1103,10 @@ public class CheckmarxScanBuilder extends Builder implements SimpleBuildStep {
     private void checkMandatoryFields(CheckmarxScanBuilderDescriptor descriptor) throws Exception {
         if (fixEmptyAndTrim(getProjectName()) == null)
             throw new Exception("Please provide a valid project name.");
-        if (!getUseOwnServerCredentials() && fixEmptyAndTrim(descriptor.getServerUrl()) == null)
+        final boolean useGlobalServer = !getUseOwnServerCredentials() && descriptor.getScanTargets().isEmpty();
+        if (useGlobalServer && fixEmptyAndTrim(descriptor.getServerUrl()) == null)
             throw new Exception("Please setup the server url in the global settings.");
-        if (!getUseOwnServerCredentials() && fixEmptyAndTrim(descriptor.getCredentialsId()) == null)
+        if (useGlobalServer && fixEmptyAndTrim(descriptor.getCredentialsId()) == null)
             throw new Exception("Please setup the credential in the global settings");
     }
 
@@ -429,6 +1133,23 @@ public class CheckmarxScanBuilder extends Builder implements SimpleBuildStep {
         private String credentialsId;
         @Nullable
         private String additionalOptions;
+        private boolean useScanCache;
+        private int scanCacheMaxAgeHours = 24;
+        private int scanCacheMaxEntries = 1000;
+        private int installTimeoutMinutes = 30;
+        private int scanTimeoutMinutes;
+        private int reportTimeoutMinutes = 30;
+        private String logLevel = CxLoggerAdapter.Level.INFO.name();
+        private boolean useConsoleCap = true;
+        private int consoleHeadLines = 1000;
+        private int consoleTailLines = 200;
+        private int progressIntervalSeconds = 30;
+        private String tracingEndpoint;
+        private String tracingFile;
+        private Secret webhookSecret;
+        private int reportRetentionDays;
+        private int reportRetentionBuilds;
+        private List<ScanTarget> scanTargets = new ArrayList<>();
 
         @CopyOnWrite
         private volatile CheckmarxInstallation[] installations = new CheckmarxInstallation[0];
@@ -516,6 +1237,146 @@ public class CheckmarxScanBuilder extends Builder implements SimpleBuildStep {
             this.checkmarxInstallation = checkmarxInstallation;
         }
 
+        public boolean getUseScanCache() {
+            return useScanCache;
+        }
+
+        public void setUseScanCache(boolean useScanCache) {
+            this.useScanCache = useScanCache;
+        }
+
+        public int getScanCacheMaxAgeHours() {
+            return scanCacheMaxAgeHours;
+        }
+
+        public void setScanCacheMaxAgeHours(int scanCacheMaxAgeHours) {
+            this.scanCacheMaxAgeHours = scanCacheMaxAgeHours;
+        }
+
+        public int getScanCacheMaxEntries() {
+            return scanCacheMaxEntries;
+        }
+
+        public void setScanCacheMaxEntries(int scanCacheMaxEntries) {
+            this.scanCacheMaxEntries = scanCacheMaxEntries;
+        }
+
+        public int getInstallTimeoutMinutes() {
+            return installTimeoutMinutes;
+        }
+
+        public void setInstallTimeoutMinutes(int installTimeoutMinutes) {
+            this.installTimeoutMinutes = installTimeoutMinutes;
+        }
+
+        public int getScanTimeoutMinutes() {
+            return scanTimeoutMinutes;
+        }
+
+        public void setScanTimeoutMinutes(int scanTimeoutMinutes) {
+            this.scanTimeoutMinutes = scanTimeoutMinutes;
+        }
+
+        public int getReportTimeoutMinutes() {
+            return reportTimeoutMinutes;
+        }
+
+        public void setReportTimeoutMinutes(int reportTimeoutMinutes) {
+            this.reportTimeoutMinutes = reportTimeoutMinutes;
+        }
+
+        public String getLogLevel() {
+            return logLevel;
+        }
+
+        public void setLogLevel(String logLevel) {
+            this.logLevel = logLevel;
+        }
+
+        public boolean getUseConsoleCap() {
+            return useConsoleCap;
+        }
+
+        public void setUseConsoleCap(boolean useConsoleCap) {
+            this.useConsoleCap = useConsoleCap;
+        }
+
+        public int getConsoleHeadLines() {
+            return consoleHeadLines;
+        }
+
+        public void setConsoleHeadLines(int consoleHeadLines) {
+            this.consoleHeadLines = consoleHeadLines;
+        }
+
+        public int getConsoleTailLines() {
+            return consoleTailLines;
+        }
+
+        public void setConsoleTailLines(int consoleTailLines) {
+            this.consoleTailLines = consoleTailLines;
+        }
+
+        public int getProgressIntervalSeconds() {
+            return progressIntervalSeconds;
+        }
+
+        public void setProgressIntervalSeconds(int progressIntervalSeconds) {
+            this.progressIntervalSeconds = progressIntervalSeconds;
+        }
+
+        public String getTracingEndpoint() {
+            return tracingEndpoint;
+        }
+
+        public void setTracingEndpoint(String tracingEndpoint) {
+            this.tracingEndpoint = tracingEndpoint;
+        }
+
+        public String getTracingFile() {
+            return tracingFile;
+        }
+
+        public void setTracingFile(String tracingFile) {
+            this.tracingFile = tracingFile;
+        }
+
+        public Secret getWebhookSecret() {
+            return webhookSecret;
+        }
+
+        public void setWebhookSecret(Secret webhookSecret) {
+            this.webhookSecret = webhookSecret;
+        }
+
+        public int getReportRetentionDays() {
+            return reportRetentionDays;
+        }
+
+        public void setReportRetentionDays(int reportRetentionDays) {
+            this.reportRetentionDays = reportRetentionDays;
+        }
+
+        public int getReportRetentionBuilds() {
+            return reportRetentionBuilds;
+        }
+
+        public void setReportRetentionBuilds(int reportRetentionBuilds) {
+            this.reportRetentionBuilds = reportRetentionBuilds;
+        }
+
+        /**
+         * Returns the pool of servers and tenants the scans are distributed to, replacing the global server when
+         * not empty.
+         */
+        public List<ScanTarget> getScanTargets() {
+            return scanTargets == null ? Collections.emptyList() : Collections.unmodifiableList(scanTargets);
+        }
+
+        public void setScanTargets(List<ScanTarget> scanTargets) {
+            this.scanTargets = scanTargets == null ? new ArrayList<>() : new ArrayList<>(scanTargets);
+        }
+
         public boolean hasInstallationsAvailable() {
             if (LOG.isTraceEnabled()) {
                 LOG.trace("Available Checkmarx installations: {}",
@@ -527,6 +1388,8 @@ public class CheckmarxScanBuilder extends Builder implements SimpleBuildStep {
 
         public boolean configure(StaplerRequest req, JSONObject formData) {
             JSONObject pluginData = formData.getJSONObject("checkmarx");
+            // an empty list is not submitted at all
+            setScanTargets(null);
             req.bindJSON(this, pluginData);
             save();
             return false;
@@ -629,6 +1492,15 @@ public class CheckmarxScanBuilder extends Builder implements SimpleBuildStep {
 
         }
 
+        public ListBoxModel doFillLogLevelItems() {
+            ListBoxModel items = new ListBoxModel();
+            items.add("Default", "");
+            for (CxLoggerAdapter.Level level : CxLoggerAdapter.Level.values()) {
+                items.add(level.name());
+            }
+            return items;
+        }
+
         public FormValidation doCheckCredentialsId(@AncestorInPath Item item,
                                                    @QueryParameter String value
         ) {
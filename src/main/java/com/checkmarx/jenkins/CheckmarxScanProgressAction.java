@@ -0,0 +1,160 @@
+package com.checkmarx.jenkins;
+
+import hudson.Util;
+import hudson.model.Action;
+import hudson.model.Api;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Live progress of the Checkmarx scan of a build, recognized from the CLI output and from the phases of the build
+ * step. It is not shown in the build page but can be polled at {@code <build>/checkmarxProgress/api/json}.
+ */
+@ExportedBean
+public class CheckmarxScanProgressAction implements Action {
+
+    // the status line of the plugin and the upload progress line of the CLI, any other line goes to the console
+    private static final Pattern STATUS_PATTERN = Pattern.compile("^\\[Cx-Info]: Scan \\S+ status: ([A-Za-z][A-Za-z_-]*)$");
+    private static final Pattern PERCENT_PATTERN = Pattern.compile("^\\[Cx-Info]: (?i:upload(?:ing)?|progress)\\b[^%]*?\\b(\\d{1,3})(?:\\.\\d+)?\\s*%$");
+
+    private volatile long startedAt;
+    private volatile long updatedAt;
+    private volatile String phase;
+    private volatile String status;
+    private volatile Integer percent;
+    private volatile String scanId;
+    private volatile boolean finished;
+
+    public CheckmarxScanProgressAction() {
+        restart();
+    }
+
+    /**
+     * Starts tracking a new scan of the build.
+     */
+    public final synchronized void restart() {
+        startedAt = System.currentTimeMillis();
+        updatedAt = startedAt;
+        phase = null;
+        status = null;
+        percent = null;
+        scanId = null;
+        finished = false;
+    }
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return "checkmarxProgress";
+    }
+
+    public Api getApi() {
+        return new Api(this);
+    }
+
+    @Exported
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    @Exported
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Exported
+    public long getElapsedMillis() {
+        return (finished ? updatedAt : System.currentTimeMillis()) - startedAt;
+    }
+
+    @Exported
+    public String getPhase() {
+        return phase;
+    }
+
+    @Exported
+    public String getStatus() {
+        return status;
+    }
+
+    @Exported
+    public Integer getPercent() {
+        return percent;
+    }
+
+    @Exported
+    public String getScanId() {
+        return scanId;
+    }
+
+    @Exported
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public synchronized void setPhase(final String phase) {
+        this.phase = phase;
+        this.status = null;
+        this.percent = null;
+        this.updatedAt = System.currentTimeMillis();
+    }
+
+    public synchronized void setScanId(final String scanId) {
+        this.scanId = scanId;
+        this.updatedAt = System.currentTimeMillis();
+    }
+
+    public synchronized void finish() {
+        this.finished = true;
+        this.updatedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Records the status of the scan logged by the plugin or the upload percentage printed by the CLI.
+     *
+     * @param line an info line of the build log, with its prefix
+     * @return whether the line reported progress
+     */
+    public synchronized boolean update(final String line) {
+        final Matcher statusMatcher = STATUS_PATTERN.matcher(line);
+        if (statusMatcher.matches()) {
+            status = statusMatcher.group(1);
+        } else {
+            final Matcher percentMatcher = PERCENT_PATTERN.matcher(line);
+            if (!percentMatcher.matches()) {
+                return false;
+            }
+            percent = Math.min(100, Integer.parseInt(percentMatcher.group(1)));
+        }
+        updatedAt = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Describes the progress in one line of the build log.
+     */
+    public synchronized String describe() {
+        final StringBuilder description = new StringBuilder("Scan progress: ");
+        description.append(phase == null ? "starting" : phase);
+        if (status != null) {
+            description.append(", status ").append(status);
+        }
+        if (percent != null) {
+            description.append(", ").append(percent).append('%');
+        }
+        description.append(", elapsed ").append(Util.getTimeSpanString(getElapsedMillis()));
+        return description.toString();
+    }
+}
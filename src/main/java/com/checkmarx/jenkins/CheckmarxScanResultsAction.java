@@ -2,25 +2,279 @@ package com.checkmarx.jenkins;
 
 import com.checkmarx.ast.results.ResultsSummary;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.checkmarx.jenkins.exception.CheckmarxException;
+import com.checkmarx.jenkins.history.ScanHistory;
+import com.checkmarx.jenkins.history.ScanSummary;
+import com.checkmarx.jenkins.results.FindingsDiff;
+import com.checkmarx.jenkins.results.QualityGate;
+import com.checkmarx.jenkins.model.ScanConfig;
+import com.checkmarx.jenkins.model.ScanResult;
+import com.checkmarx.jenkins.results.ResultsIndex;
+import hudson.Util;
+import hudson.model.Api;
+import hudson.model.Item;
 import hudson.model.Run;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.StreamTaskListener;
 import jenkins.model.RunAction2;
+import jenkins.util.Timer;
+import jenkins.util.VirtualFile;
+import org.apache.commons.io.IOUtils;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+import org.kohsuke.stapler.interceptor.RequirePOST;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@ExportedBean
 public class CheckmarxScanResultsAction implements RunAction2 {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String[] QUERY_PARAMETERS = {"engine", "severity", "state", "status", "sort", "limit"};
+
+    // the report is served from the Jenkins domain, so its scripts are not allowed to run
+    private static final String REPORT_CSP = "sandbox; default-src 'none'; img-src 'self' data:; style-src 'self' 'unsafe-inline';";
+
+    private static final String REFETCH_LOG = "checkmarx-refetch.log";
+
+    private static final Logger LOGGER = Logger.getLogger(CheckmarxScanResultsAction.class.getName());
+
     private transient Run<?, ?> run;
+    private FindingsDiff findingsDiff;
+    private QualityGate qualityGate;
+    private ScanSummary scanSummary;
+    private String branchName;
+    private boolean compacted;
+    // when the results last changed, so that clients do not keep results compacted or fetched again since
+    private long modified;
+    private String scanId;
+    private String projectName;
+    private String serverUrl;
+    private String tenantName;
+    private String baseAuthUrl;
+    private String credentialsId;
+    private String installationName;
+    private transient volatile ResultsSummary resultsSummary;
+    private transient volatile boolean refetching;
+    private transient volatile long archivedAt;
 
     public Run getRun() {
         return run;
     }
 
+    /**
+     * Returns the remote API of the results, revalidated by clients against the version of the results.
+     */
+    public Api getApi() {
+        return new CachedApi(this, getVersion());
+    }
+
+    /**
+     * Identifies the results of a completed build, which change when the reports are compacted or fetched again.
+     *
+     * @return the version, or null while the build runs
+     */
+    String getVersion() {
+        if (run == null || run.isBuilding()) {
+            return null;
+        }
+        return Integer.toHexString(run.getParent().getFullName().hashCode()) + '-' + run.getNumber() + '-'
+                + Long.toHexString(run.getTimeInMillis()) + '-' + Long.toHexString(modified);
+    }
+
+    private void modified() {
+        modified = Math.max(modified + 1, System.currentTimeMillis());
+    }
+
+    /**
+     * Returns the severity and engine counts of the scan, or null when the build has no results summary.
+     */
+    @Exported
+    public ScanSummary getScanSummary() {
+        return scanSummary;
+    }
+
+    /**
+     * Returns the branch the scan was submitted for.
+     */
+    @Exported
+    public String getBranchName() {
+        return branchName;
+    }
+
+    public void setBranchName(final String branchName) {
+        this.branchName = branchName;
+    }
+
+    /**
+     * Returns whether the reports and the findings of the build were removed by the report retention policy.
+     */
+    @Exported
+    public boolean isCompacted() {
+        return compacted;
+    }
+
+    public void setCompacted(final boolean compacted) {
+        this.compacted = compacted;
+        modified();
+    }
+
+    /**
+     * Returns the findings of the build compared with the last successful build, or null when there is no such build.
+     */
+    @Exported
+    public FindingsDiff getFindingsDiff() {
+        return findingsDiff;
+    }
+
+    public void setFindingsDiff(final FindingsDiff findingsDiff) {
+        this.findingsDiff = findingsDiff;
+        modified();
+    }
+
+    /**
+     * Returns the verdict of the thresholds of the build, or null when the build has none.
+     */
+    @Exported
+    public QualityGate getQualityGate() {
+        return qualityGate;
+    }
+
+    public void setQualityGate(final QualityGate qualityGate) {
+        this.qualityGate = qualityGate;
+        modified();
+    }
+
+    /**
+     * Returns the ID of the scan of the build on the server.
+     */
+    @Exported
+    public String getScanId() {
+        return scanId;
+    }
+
+    @Exported
+    public String getProjectName() {
+        return projectName;
+    }
+
+    @Exported
+    public String getServerUrl() {
+        return serverUrl;
+    }
+
+    @Exported
+    public String getTenantName() {
+        return tenantName;
+    }
+
+    public String getBaseAuthUrl() {
+        return baseAuthUrl;
+    }
+
+    public String getCredentialsId() {
+        return credentialsId;
+    }
+
+    public String getInstallationName() {
+        return installationName;
+    }
+
+    /**
+     * Records the scan of the build and where it ran, so that its reports can be fetched again later.
+     */
+    public void setScan(final String scanId, final ScanConfig scanConfig, final String installationName) {
+        this.scanId = scanId;
+        this.projectName = scanConfig.getProjectName();
+        this.serverUrl = scanConfig.getServerUrl();
+        this.tenantName = scanConfig.getTenantName();
+        this.baseAuthUrl = scanConfig.getBaseAuthUrl();
+        this.credentialsId = scanConfig.getCredentialsId();
+        this.installationName = installationName;
+    }
+
+    /**
+     * Returns the outcome of the scan for pipelines, from the counts recorded with the build.
+     */
+    public ScanResult toScanResult() {
+        final ScanResult.Builder result = ScanResult.builder()
+                .scan(scanId, projectName, branchName)
+                .reports(getReportArtifact(PluginUtils.CHECKMARX_AST_RESULTS_HTML), getReportArtifact(PluginUtils.CHECKMARX_AST_RESULTS_JSON),
+                        run.getUrl() + getUrlName() + "/");
+        if (scanSummary != null) {
+            final ResultsSummary resultsSummary = getResultsSummary();
+            result.severities(resultsSummary == null ? null : resultsSummary.getRiskMessage(),
+                            scanSummary.getTotal(), scanSummary.getHigh(), scanSummary.getMedium(), scanSummary.getLow())
+                    .engines(scanSummary.getSast(), scanSummary.getSca(), scanSummary.getKics());
+        }
+        if (findingsDiff != null) {
+            result.comparison(findingsDiff.getBaselineBuild(), findingsDiff.getNewFindings(), findingsDiff.getFixedFindings());
+        }
+        if (qualityGate != null) {
+            result.qualityGate(qualityGate.getViolations());
+        }
+        return result.build();
+    }
+
+    /**
+     * Reads the summary of the newly archived reports and records it in the history of the job, unless the reports
+     * were fetched again with the same counts.
+     */
+    public void reportsArchived() {
+        archivedAt = System.nanoTime();
+        resultsSummary = null;
+        compacted = false;
+        modified();
+        recordSummary();
+    }
+
+    /**
+     * Returns when the reports were last archived while the build is loaded, to tell whether a scan step archived them.
+     */
+    long getArchivedAt() {
+        return archivedAt;
+    }
+
     @Override
     public void onAttached(final Run<?, ?> run) {
         this.run = run;
+        recordSummary();
+    }
+
+    private void recordSummary() {
+        final ResultsSummary resultsSummary = getResultsSummary();
+        if (resultsSummary != null) {
+            final ScanSummary summary = ScanSummary.of(run, resultsSummary);
+            if (summary.equals(scanSummary)) {
+                return;
+            }
+            scanSummary = summary;
+            try {
+                ScanHistory.of(run.getParent()).append(scanSummary);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not update the Checkmarx scan history of " + run.getParent().getFullName(), e);
+            }
+        }
     }
 
     @Override
@@ -43,21 +297,269 @@ public class CheckmarxScanResultsAction implements RunAction2 {
         return "scanResults";
     }
 
+    public boolean hasFindings() {
+        return getResultsIndexFile().isFile();
+    }
+
+    /**
+     * Returns whether the current user can browse the findings, which are read from the artifacts of the build.
+     */
+    public boolean canViewFindings() {
+        return hasFindings() && run.hasPermission(Run.ARTIFACTS);
+    }
+
+    /**
+     * Returns the page of findings selected by the request parameters: engine, severity, state and status filters,
+     * sort column, offset and limit.
+     */
+    public ResultsIndex.Page getFindingsPage(final StaplerRequest request) throws IOException {
+        run.checkPermission(Run.ARTIFACTS);
+        final int[] filter = {
+                filterCode(request.getParameter("engine"), ResultsIndex.ENGINES),
+                filterCode(request.getParameter("severity"), ResultsIndex.SEVERITIES),
+                filterCode(request.getParameter("state"), ResultsIndex.STATES),
+                filterCode(request.getParameter("status"), ResultsIndex.STATUSES)
+        };
+        ResultsIndex.Column sort = ResultsIndex.Column.SEVERITY;
+        final String sortParameter = Util.fixEmptyAndTrim(request.getParameter("sort"));
+        if (sortParameter != null) {
+            try {
+                sort = ResultsIndex.Column.valueOf(sortParameter.toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                // keep the default order
+            }
+        }
+        final int offset = Math.max(0, intParameter(request, "offset", 0));
+        final int limit = Math.min(MAX_PAGE_SIZE, Math.max(1, intParameter(request, "limit", DEFAULT_PAGE_SIZE)));
+
+        try (ResultsIndex index = ResultsIndex.open(getResultsIndexFile())) {
+            return index.query(filter, sort, offset, limit);
+        }
+    }
+
+    /**
+     * Returns the filter, sort and limit parameters of the request as a query string prefix for the paging links.
+     */
+    public String getFindingsQuery(final StaplerRequest request) throws UnsupportedEncodingException {
+        final StringBuilder query = new StringBuilder();
+        for (String parameter : QUERY_PARAMETERS) {
+            final String value = Util.fixEmptyAndTrim(request.getParameter(parameter));
+            if (value != null) {
+                query.append(parameter).append('=').append(URLEncoder.encode(value, "UTF-8")).append('&');
+            }
+        }
+        return query.toString();
+    }
+
+    /**
+     * Returns the share of a count in a total as a CSS percentage, for the width of the bars of the results page.
+     */
+    public String percent(final int count, final int total) {
+        return total <= 0 ? "0" : String.format(Locale.ENGLISH, "%.2f", count * 100.0 / total);
+    }
+
+    public List<String> getFilterColumns() {
+        return Arrays.asList("severity", "engine", "state", "status");
+    }
+
+    public List<String> getColumnValues(final String column) {
+        return Arrays.asList(ResultsIndex.Column.valueOf(column.toUpperCase(Locale.ENGLISH)).getValues());
+    }
+
+    private File getResultsIndexFile() {
+        return new File(run.getRootDir(), PluginUtils.CHECKMARX_AST_RESULTS_INDEX);
+    }
+
+    private static int filterCode(final String value, final String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equalsIgnoreCase(Util.fixEmptyAndTrim(value))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int intParameter(final StaplerRequest request, final String name, final int defaultValue) {
+        try {
+            return Integer.parseInt(request.getParameter(name));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns the results summary archived with the build, read once per build while it stays loaded.
+     */
     public ResultsSummary getResultsSummary() {
-        for (Object artifact : run.getArtifacts()) {
-            if (artifact instanceof Run.Artifact && ((Run.Artifact) artifact).getFileName().contains(PluginUtils.CHECKMARX_AST_RESULTS_JSON)) {
-                try {
-                    byte[] encoded = Files.readAllBytes(Paths.get(((Run.Artifact) artifact).getFile().getCanonicalPath()));
-                    String json = new String(encoded, Charset.defaultCharset());
-                    ObjectMapper objectMapper = new ObjectMapper();
-                    return objectMapper.readValue(json, ResultsSummary.class);
+        if (resultsSummary == null) {
+            resultsSummary = readResultsSummary();
+        }
+        return resultsSummary;
+    }
+
+    private ResultsSummary readResultsSummary() {
+        final VirtualFile report = findReport(PluginUtils.CHECKMARX_AST_RESULTS_JSON);
+        if (report != null) {
+            try (InputStream in = openReport(report)) {
+                String json = IOUtils.toString(in, UTF_8);
+                ObjectMapper objectMapper = new ObjectMapper();
+                return objectMapper.readValue(json, ResultsSummary.class);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not read the Checkmarx results summary of " + run.getFullDisplayName(), e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the current user can fetch the reports of the completed scan again.
+     */
+    public boolean canRefetch() {
+        return run != null && !run.isBuilding() && scanId != null && run.getParent().hasPermission(Item.BUILD);
+    }
+
+    public boolean isRefetching() {
+        return refetching;
+    }
+
+    public boolean hasRefetchLog() {
+        return getRefetchLogFile().isFile();
+    }
+
+    /**
+     * Fetches the reports of the scan again in the background and archives them in place of the current ones.
+     */
+    @RequirePOST
+    public synchronized HttpResponse doRefetch() {
+        run.getParent().checkPermission(Item.BUILD);
+        if (!canRefetch()) {
+            return HttpResponses.error(HttpServletResponse.SC_CONFLICT, "The build has no completed Checkmarx scan.");
+        }
+        if (!refetching) {
+            refetching = true;
+            Timer.get().submit(() -> {
+                try (ACLContext ignored = ACL.as(ACL.SYSTEM);
+                     StreamTaskListener listener = new StreamTaskListener(getRefetchLogFile(), UTF_8)) {
+                    try {
+                        ReportRefetch.refetch(run, listener);
+                    } catch (IOException | CheckmarxException e) {
+                        listener.error(e.getMessage());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
                 } catch (IOException e) {
-                    e.printStackTrace();
+                    LOGGER.log(Level.WARNING, "Could not fetch the Checkmarx reports of " + run.getFullDisplayName() + " again", e);
+                } finally {
+                    refetching = false;
                 }
+            });
+        }
+        return HttpResponses.redirectToDot();
+    }
+
+    /**
+     * Serves the log of the last refetch of the reports.
+     */
+    public void doRefetchLog(final StaplerResponse response) throws IOException {
+        run.getParent().checkPermission(Item.BUILD);
+        final File file = getRefetchLogFile();
+        if (!file.isFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType("text/plain;charset=UTF-8");
+        Files.copy(file.toPath(), response.getOutputStream());
+    }
+
+    private File getRefetchLogFile() {
+        return new File(run.getRootDir(), REFETCH_LOG);
+    }
+
+    public boolean hasReport() {
+        return findReport(PluginUtils.CHECKMARX_AST_RESULTS_HTML) != null;
+    }
+
+    /**
+     * Serves the HTML report. A compressed report is sent as is to the clients accepting gzip and decompressed on the
+     * fly for the others.
+     */
+    public void doReport(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        run.checkPermission(Run.ARTIFACTS);
+        final VirtualFile report = findReport(PluginUtils.CHECKMARX_AST_RESULTS_HTML);
+        if (report == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        final boolean compressed = isCompressed(report);
+        final String acceptEncoding = request.getHeader("Accept-Encoding");
+        final boolean sendCompressed = compressed && acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ENGLISH).contains("gzip");
+
+        response.setContentType("text/html;charset=UTF-8");
+        response.setHeader("Vary", "Accept-Encoding");
+        response.setHeader("Content-Security-Policy", REPORT_CSP);
+        // revalidated, as the report changes when it is compacted or fetched again
+        final String version = getVersion();
+        if (version != null) {
+            final String identityEtag = CachedApi.etag(version, request.getRequestURI(), null);
+            final String etag = sendCompressed ? CachedApi.encodedEtag(identityEtag, "gzip") : identityEtag;
+            response.setHeader("ETag", etag);
+            response.setHeader("Cache-Control", CachedApi.REVALIDATE_CACHE_CONTROL);
+            if (CachedApi.matches(request.getHeader("If-None-Match"), etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        if (sendCompressed) {
+            response.setHeader("Content-Encoding", "gzip");
+            response.setContentLengthLong(report.length());
+        } else if (!compressed) {
+            response.setContentLengthLong(report.length());
+        }
+        try (InputStream in = sendCompressed ? report.open() : openReport(report)) {
+            IOUtils.copy(in, response.getOutputStream());
+        }
+    }
+
+    /**
+     * Returns the path of the archived report with the given name among the artifacts of the build, or null when
+     * the build has no such report.
+     */
+    public String getReportArtifact(final String name) {
+        final VirtualFile report = findReport(name);
+        if (report == null) {
+            return null;
+        }
+        for (Run.Artifact artifact : run.getArtifacts()) {
+            if (artifact.getFileName().equals(report.getName())) {
+                return artifact.relativePath;
             }
         }
         return null;
     }
-}
 
+    /**
+     * Returns the archived report with the given name, preferring the compressed report to the uncompressed one that
+     * the builds archived before the reports were compressed.
+     */
+    private VirtualFile findReport(final String name) {
+        VirtualFile uncompressed = null;
+        for (Run.Artifact artifact : run.getArtifacts()) {
+            if (artifact.getFileName().endsWith(name + PluginUtils.GZIP_EXTENSION)) {
+                return run.getArtifactManager().root().child(artifact.relativePath);
+            }
+            if (uncompressed == null && artifact.getFileName().endsWith(name)) {
+                uncompressed = run.getArtifactManager().root().child(artifact.relativePath);
+            }
+        }
+        return uncompressed;
+    }
 
+    private static boolean isCompressed(final VirtualFile report) {
+        return report.getName().endsWith(PluginUtils.GZIP_EXTENSION);
+    }
+
+    private static InputStream openReport(final VirtualFile report) throws IOException {
+        final InputStream in = report.open();
+        return isCompressed(report) ? new GZIPInputStream(in) : in;
+    }
+}
@@ -0,0 +1,92 @@
+package com.checkmarx.jenkins;
+
+import com.checkmarx.jenkins.model.ScanHandle;
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.jenkinsci.plugins.workflow.steps.SynchronousNonBlockingStepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Pipeline step submitting a Checkmarx scan configured like the build step and returning a {@link ScanHandle} as
+ * soon as the sources are uploaded, so that the pipeline can run other stages while the server scans:
+ * <pre>
+ * def scan = checkmarxScanStart checkmarxASTScanner(projectName: 'app')
+ * // build and test
+ * def result = checkmarxScanWait scan
+ * </pre>
+ */
+public class CheckmarxScanStartStep extends Step {
+
+    private final CheckmarxScanBuilder scanner;
+
+    @DataBoundConstructor
+    public CheckmarxScanStartStep(final CheckmarxScanBuilder scanner) {
+        this.scanner = scanner;
+    }
+
+    public CheckmarxScanBuilder getScanner() {
+        return scanner;
+    }
+
+    @Override
+    public StepExecution start(final StepContext context) {
+        return new Execution(this, context);
+    }
+
+    private static class Execution extends SynchronousNonBlockingStepExecution<ScanHandle> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient CheckmarxScanStartStep step;
+
+        Execution(final CheckmarxScanStartStep step, final StepContext context) {
+            super(context);
+            this.step = step;
+        }
+
+        @Override
+        protected ScanHandle run() throws Exception {
+            final ScanHandle handle = step.scanner.startScan(getContext().get(Run.class), getContext().get(FilePath.class),
+                    getContext().get(EnvVars.class), getContext().get(Launcher.class), getContext().get(TaskListener.class));
+            if (handle == null) {
+                throw new AbortException("The Checkmarx scan was not submitted, see the log above.");
+            }
+            return handle;
+        }
+    }
+
+    @Extension
+    public static class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(Run.class, FilePath.class, EnvVars.class, Launcher.class, TaskListener.class)));
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "checkmarxScanStart";
+        }
+
+        @Nonnull
+        @Override
+        public String getDisplayName() {
+            return "Submit a Checkmarx scan without waiting for it";
+        }
+    }
+}
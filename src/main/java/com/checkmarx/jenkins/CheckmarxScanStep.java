@@ -0,0 +1,97 @@
+package com.checkmarx.jenkins;
+
+import com.checkmarx.jenkins.model.ScanResult;
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.jenkinsci.plugins.workflow.steps.SynchronousNonBlockingStepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Pipeline step running a Checkmarx scan configured like the build step and returning its {@link ScanResult}, so
+ * that pipelines can gate on the counts without reading the reports:
+ * <pre>
+ * def result = checkmarxScan checkmarxASTScanner(projectName: 'app')
+ * if (result.high &gt; 0) { ... }
+ * </pre>
+ */
+public class CheckmarxScanStep extends Step {
+
+    private final CheckmarxScanBuilder scanner;
+
+    @DataBoundConstructor
+    public CheckmarxScanStep(final CheckmarxScanBuilder scanner) {
+        this.scanner = scanner;
+    }
+
+    public CheckmarxScanBuilder getScanner() {
+        return scanner;
+    }
+
+    @Override
+    public StepExecution start(final StepContext context) {
+        return new Execution(this, context);
+    }
+
+    private static class Execution extends SynchronousNonBlockingStepExecution<ScanResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient CheckmarxScanStep step;
+
+        Execution(final CheckmarxScanStep step, final StepContext context) {
+            super(context);
+            this.step = step;
+        }
+
+        @Override
+        protected ScanResult run() throws Exception {
+            final Run<?, ?> run = getContext().get(Run.class);
+            final CheckmarxScanResultsAction previous = run.getAction(CheckmarxScanResultsAction.class);
+            final long previousArchivedAt = previous == null ? 0 : previous.getArchivedAt();
+
+            step.scanner.perform(run, getContext().get(FilePath.class), getContext().get(EnvVars.class),
+                    getContext().get(Launcher.class), getContext().get(TaskListener.class));
+
+            final CheckmarxScanResultsAction action = run.getAction(CheckmarxScanResultsAction.class);
+            if (action == null || action.getArchivedAt() == previousArchivedAt) {
+                throw new AbortException("The Checkmarx scan did not complete, see the log above.");
+            }
+            return action.toScanResult();
+        }
+    }
+
+    @Extension
+    public static class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(Run.class, FilePath.class, EnvVars.class, Launcher.class, TaskListener.class)));
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "checkmarxScan";
+        }
+
+        @Nonnull
+        @Override
+        public String getDisplayName() {
+            return "Run a Checkmarx scan and return its results";
+        }
+    }
+}
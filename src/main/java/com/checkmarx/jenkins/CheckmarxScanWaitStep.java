@@ -0,0 +1,109 @@
+package com.checkmarx.jenkins;
+
+import com.checkmarx.jenkins.model.ScanHandle;
+import com.checkmarx.jenkins.model.ScanResult;
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.jenkinsci.plugins.workflow.steps.SynchronousNonBlockingStepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Pipeline step waiting for a scan submitted by {@link CheckmarxScanStartStep}, then fetching, checking and
+ * archiving its reports like the build step and returning its {@link ScanResult}.
+ */
+public class CheckmarxScanWaitStep extends Step {
+
+    private final ScanHandle handle;
+
+    @DataBoundConstructor
+    public CheckmarxScanWaitStep(final ScanHandle handle) {
+        this.handle = handle;
+    }
+
+    public ScanHandle getHandle() {
+        return handle;
+    }
+
+    @Override
+    public StepExecution start(final StepContext context) {
+        return new Execution(this, context);
+    }
+
+    private static class Execution extends SynchronousNonBlockingStepExecution<ScanResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient CheckmarxScanWaitStep step;
+
+        Execution(final CheckmarxScanWaitStep step, final StepContext context) {
+            super(context);
+            this.step = step;
+        }
+
+        @Override
+        protected ScanResult run() throws Exception {
+            if (step.handle == null || step.handle.getScanId() == null) {
+                throw new AbortException("No Checkmarx scan to wait for, pass the result of checkmarxScanStart.");
+            }
+            final Run<?, ?> run = getContext().get(Run.class);
+            final CheckmarxScanResultsAction previous = run.getAction(CheckmarxScanResultsAction.class);
+            final long previousArchivedAt = previous == null ? 0 : previous.getArchivedAt();
+
+            // the quality gate and the log level are the ones of the starting step
+            final CheckmarxScanBuilder scanner = new CheckmarxScanBuilder();
+            scanner.setLogLevel(step.handle.getLogLevel());
+            scanner.setMaxHighFindings(step.handle.getMaxHighFindings());
+            scanner.setMaxMediumFindings(step.handle.getMaxMediumFindings());
+            scanner.setMaxNewFindings(step.handle.getMaxNewFindings());
+            scanner.finishScan(run, getContext().get(FilePath.class), getContext().get(EnvVars.class),
+                    getContext().get(Launcher.class), getContext().get(TaskListener.class), step.handle);
+
+            final CheckmarxScanResultsAction action = run.getAction(CheckmarxScanResultsAction.class);
+            if (action == null || action.getArchivedAt() == previousArchivedAt) {
+                throw new AbortException("The Checkmarx scan did not complete, see the log above.");
+            }
+            return action.toScanResult();
+        }
+    }
+
+    @Extension
+    public static class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(Run.class, FilePath.class, EnvVars.class, Launcher.class, TaskListener.class)));
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "checkmarxScanWait";
+        }
+
+        @Nonnull
+        @Override
+        public String getDisplayName() {
+            return "Wait for a Checkmarx scan and return its results";
+        }
+
+        // the handle is only returned by checkmarxScanStart, so the step has no snippet
+        @Override
+        public boolean isAdvanced() {
+            return true;
+        }
+    }
+}
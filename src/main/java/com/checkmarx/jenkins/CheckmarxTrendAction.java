@@ -0,0 +1,106 @@
+package com.checkmarx.jenkins;
+
+import com.checkmarx.jenkins.history.ScanHistory;
+import com.checkmarx.jenkins.history.ScanSummary;
+import com.checkmarx.jenkins.history.TrendChart;
+import hudson.Extension;
+import hudson.model.Action;
+import hudson.model.Api;
+import hudson.model.Job;
+import jenkins.model.TransientActionFactory;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Severity trend of the Checkmarx scans of a job, read from the job scan history. Its remote API exports the summary
+ * of the latest scan.
+ */
+@ExportedBean
+public class CheckmarxTrendAction implements Action {
+
+    private static final int TREND_BUILDS = 50;
+
+    private final Job<?, ?> job;
+
+    public CheckmarxTrendAction(final Job<?, ?> job) {
+        this.job = job;
+    }
+
+    public Job<?, ?> getJob() {
+        return job;
+    }
+
+    @Override
+    public String getIconFileName() {
+        return "/plugin/checkmarx-ast-scanner/images/CxIcon24x24.png";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Checkmarx Trend";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "checkmarxTrend";
+    }
+
+    /**
+     * Returns the remote API of the latest summary, whose version is the size and date of the history file so that
+     * clients can revalidate it without the history being read.
+     */
+    public Api getApi() {
+        final File history = ScanHistory.of(job).getFile();
+        return new CachedApi(this, Long.toHexString(history.length()) + '-' + Long.toHexString(history.lastModified()));
+    }
+
+    @Exported
+    public ScanSummary getLatest() throws IOException {
+        final List<ScanSummary> latest = ScanHistory.of(job).latest(1);
+        return latest.isEmpty() ? null : latest.get(0);
+    }
+
+    public List<ScanSummary> getSummaries() throws IOException {
+        return ScanHistory.of(job).latest(TREND_BUILDS);
+    }
+
+    /**
+     * Serves the trend chart.
+     */
+    public void doSvg(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        final byte[] svg = TrendChart.render(getSummaries()).getBytes(UTF_8);
+        response.setContentType("image/svg+xml;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        response.setContentLength(svg.length);
+        response.getOutputStream().write(svg);
+    }
+
+    @Extension
+    public static class Factory extends TransientActionFactory<Job> {
+
+        @Override
+        public Class<Job> type() {
+            return Job.class;
+        }
+
+        @Nonnull
+        @Override
+        public Collection<? extends Action> createFor(@Nonnull final Job target) {
+            if (!ScanHistory.of(target).getFile().isFile()) {
+                return Collections.emptyList();
+            }
+            return Collections.singletonList(new CheckmarxTrendAction(target));
+        }
+    }
+}
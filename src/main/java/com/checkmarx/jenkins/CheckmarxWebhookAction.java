@@ -0,0 +1,91 @@
+package com.checkmarx.jenkins;
+
+import com.checkmarx.jenkins.webhook.ScanCallbacks;
+import hudson.Extension;
+import hudson.model.UnprotectedRootAction;
+import hudson.security.csrf.CrumbExclusion;
+import hudson.util.Secret;
+import jenkins.model.Jenkins;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Endpoint receiving the scan completion callbacks of the server at <code>/checkmarx-webhook/</code>, waking the
+ * builds waiting for the scan instead of letting them poll its status. The endpoint is enabled by setting a webhook
+ * secret in the global settings; callbacks are not authenticated by Jenkins but by their signature.
+ */
+@Extension
+public class CheckmarxWebhookAction implements UnprotectedRootAction {
+
+    static final String URL_NAME = "checkmarx-webhook";
+    private static final Logger LOGGER = Logger.getLogger(CheckmarxWebhookAction.class.getName());
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Checkmarx Webhook";
+    }
+
+    @Override
+    public String getUrlName() {
+        return URL_NAME;
+    }
+
+    @RequirePOST
+    public HttpResponse doIndex(final StaplerRequest request) throws IOException {
+        final Secret secret = Jenkins.get().getDescriptorByType(CheckmarxScanBuilder.CheckmarxScanBuilderDescriptor.class).getWebhookSecret();
+        if (secret == null || secret.getPlainText().isEmpty()) {
+            return HttpResponses.notFound();
+        }
+        final byte[] payload = IOUtils.toByteArray(new BoundedInputStream(request.getInputStream(), ScanCallbacks.MAX_PAYLOAD_BYTES + 1L));
+        if (payload.length > ScanCallbacks.MAX_PAYLOAD_BYTES) {
+            return HttpResponses.error(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Callback too large.");
+        }
+        if (!ScanCallbacks.verify(secret.getPlainText(), payload, request.getHeader(ScanCallbacks.SIGNATURE_HEADER))) {
+            LOGGER.warning("Rejected a Checkmarx callback with an invalid signature from " + request.getRemoteAddr());
+            return HttpResponses.forbidden();
+        }
+        final String scanId;
+        try {
+            scanId = ScanCallbacks.scanId(payload);
+        } catch (IOException e) {
+            return HttpResponses.error(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+        final int waiting = ScanCallbacks.completed(scanId);
+        LOGGER.log(Level.FINE, "Checkmarx callback for scan {0} woke {1} build(s)", new Object[]{scanId, waiting});
+        return HttpResponses.ok();
+    }
+
+    /**
+     * Lets the server post callbacks without a crumb, as they are authenticated by their signature.
+     */
+    @Extension
+    public static class CallbackCrumbExclusion extends CrumbExclusion {
+
+        @Override
+        public boolean process(final HttpServletRequest request, final HttpServletResponse response, final FilterChain chain) throws IOException, ServletException {
+            final String pathInfo = request.getPathInfo();
+            if (pathInfo != null && (pathInfo.equals("/" + URL_NAME) || pathInfo.equals("/" + URL_NAME + "/"))) {
+                chain.doFilter(request, response);
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -1,24 +1,85 @@
 package com.checkmarx.jenkins;
 
 
+import jenkins.util.Timer;
 import org.slf4j.Logger;
 import org.slf4j.Marker;
 import org.slf4j.helpers.MessageFormatter;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
-public class CxLoggerAdapter implements Logger {
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class CxLoggerAdapter implements Logger, AutoCloseable {
 
     private static final String INFO_PREFIX = "[Cx-Info]: ";
     private static final String DEBUG_PREFIX = "[Cx-Debug]: ";
     private static final String ERROR_PREFIX = "[Cx-Error]: ";
     private static final String WARN_PREFIX = "[Cx-Warning]: ";
     private static final String TRACE_PREFIX = "[Cx-Trace]: ";
+    private static final int BUFFER_LIMIT = 16 * 1024;
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN, ERROR;
+
+        /**
+         * Returns the level with the given name, or the default level when the name is empty or unknown.
+         */
+        public static Level parse(String name, Level defaultLevel) {
+            if (name == null || name.trim().isEmpty()) {
+                return defaultLevel;
+            }
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                return defaultLevel;
+            }
+        }
+    }
 
     private transient PrintStream log;
+    private transient Level level;
+    private transient StringBuilder buffer;
+    private transient long lastFlush;
+    private transient ScheduledFuture<?> flushTask;
+    private transient OutputStream transcript;
+    private transient String transcriptLink;
+    private transient int headLines = -1;
+    private transient int tailLines;
+    private transient int consoleLines;
+    private transient long suppressedLines;
+    private transient Deque<String> tail;
+    private transient CheckmarxScanProgressAction progress;
+    private transient long progressIntervalMillis;
+    private transient long lastProgressLine;
 
     public CxLoggerAdapter(PrintStream log) {
+        this(log, Level.DEBUG, false);
+    }
+
+    /**
+     * @param level    the lowest level written to the log
+     * @param buffered whether lines are batched and written once the buffer is full or every second;
+     *                 a buffered logger must be closed
+     */
+    public CxLoggerAdapter(PrintStream log, Level level, boolean buffered) {
         this.log = log;
+        this.level = level;
+        if (buffered) {
+            this.buffer = new StringBuilder(BUFFER_LIMIT);
+            this.lastFlush = System.currentTimeMillis();
+            this.flushTask = Timer.get().scheduleAtFixedRate(this::tick, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
@@ -26,19 +87,183 @@ public class CxLoggerAdapter implements Logger {
         return "Checkmarx";
     }
 
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Writes the buffered lines to the log.
+     */
+    public synchronized void flush() {
+        if (buffer != null && buffer.length() > 0) {
+            log.print(buffer);
+            buffer.setLength(0);
+        }
+        log.flush();
+        lastFlush = System.currentTimeMillis();
+    }
+
+    /**
+     * Keeps only the first lines of the output, the last lines and every warning and error in the console,
+     * and writes every line to the transcript, which is closed with the logger.
+     *
+     * @param transcriptLink console link to the transcript, shown when lines are left out of the console
+     */
+    public synchronized void capConsole(int headLines, int tailLines, OutputStream transcript, String transcriptLink) {
+        this.headLines = headLines;
+        this.tailLines = tailLines;
+        this.tail = new ArrayDeque<>(tailLines);
+        this.transcript = transcript;
+        this.transcriptLink = transcriptLink;
+    }
+
+    /**
+     * Records the scan status lines of the plugin and the upload progress lines of the CLI in the progress of the build
+     * instead of the console, and writes the progress to the console at the given interval.
+     */
+    public synchronized void trackProgress(CheckmarxScanProgressAction progress, long intervalMillis) {
+        this.progress = progress;
+        this.progressIntervalMillis = intervalMillis;
+        this.lastProgressLine = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes the current progress to the console now, e.g. when the build moves to a new phase.
+     */
+    public synchronized void reportProgress() {
+        if (progress != null) {
+            lastProgressLine = System.currentTimeMillis();
+            write(INFO_PREFIX + progress.describe(), true, true);
+        }
+    }
+
+    public synchronized long getSuppressedLines() {
+        return suppressedLines;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        if (tail != null) {
+            if (suppressedLines > 0) {
+                emit(INFO_PREFIX + suppressedLines + " lines were left out of the console. Full output: " + transcriptLink);
+            }
+            while (!tail.isEmpty()) {
+                emit(tail.removeFirst());
+            }
+        }
+        closeTranscript();
+        flush();
+    }
+
+    /**
+     * Writes the line to the transcript and, when the level of the logger allows it, to the console.
+     */
+    private synchronized void write(String line, boolean pinned, boolean console) {
+        if (transcript != null) {
+            try {
+                transcript.write((line + System.lineSeparator()).getBytes(UTF_8));
+            } catch (IOException e) {
+                closeTranscript();
+                emit(WARN_PREFIX + "Stopped writing the Checkmarx CLI transcript: " + e.getMessage());
+            }
+        }
+        if (!console) {
+            return;
+        }
+        if (progress != null && !pinned && progress.update(line)) {
+            reportProgressIfDue();
+            return;
+        }
+        if (pinned) {
+            // warnings and errors are always shown and leave the head to the other lines
+            emit(line);
+            return;
+        }
+        if (tail == null || consoleLines < headLines) {
+            consoleLines++;
+            emit(line);
+            return;
+        }
+        if (consoleLines == headLines) {
+            consoleLines++;
+            emit(INFO_PREFIX + "Console output capped after " + headLines + " lines, only warnings, errors and the last "
+                    + tailLines + " lines are shown. Full output: " + transcriptLink);
+        }
+        tail.addLast(line);
+        if (tail.size() > tailLines) {
+            tail.removeFirst();
+            suppressedLines++;
+        }
+    }
+
+    private synchronized void tick() {
+        reportProgressIfDue();
+        flush();
+    }
+
+    private void reportProgressIfDue() {
+        if (progress != null && !progress.isFinished() && System.currentTimeMillis() - lastProgressLine >= progressIntervalMillis) {
+            reportProgress();
+        }
+    }
+
+    private void write(Level lineLevel, String line, Throwable throwable, boolean pinned) {
+        boolean console = level.compareTo(lineLevel) <= 0;
+        if (throwable == null) {
+            write(line, pinned, console);
+            return;
+        }
+        StringWriter stackTrace = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(stackTrace));
+        write(line + System.lineSeparator() + stackTrace.toString().trim(), pinned, console);
+    }
+
+    private void emit(String line) {
+        if (buffer == null) {
+            log.println(line);
+            return;
+        }
+        buffer.append(line).append(System.lineSeparator());
+        if (buffer.length() >= BUFFER_LIMIT || System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL_MILLIS) {
+            flush();
+        }
+    }
+
+    private void closeTranscript() {
+        if (transcript == null) {
+            return;
+        }
+        try {
+            transcript.close();
+        } catch (IOException e) {
+            emit(WARN_PREFIX + "Could not close the Checkmarx CLI transcript: " + e.getMessage());
+        }
+        transcript = null;
+    }
+
+    /**
+     * Returns whether lines of the given level are written, to the console or to the transcript, which gets every line.
+     */
+    private synchronized boolean isLogged(Level lineLevel) {
+        return level.compareTo(lineLevel) <= 0 || transcript != null;
+    }
 
     public boolean isDebugEnabled() {
-        return true;
+        return level.compareTo(Level.DEBUG) <= 0;
     }
 
     @Override
     public boolean isInfoEnabled() {
-        return true;
+        return level.compareTo(Level.INFO) <= 0;
     }
 
     @Override
     public boolean isWarnEnabled() {
-        return true;
+        return level.compareTo(Level.WARN) <= 0;
     }
 
     @Override
@@ -47,48 +272,43 @@ public class CxLoggerAdapter implements Logger {
     }
 
     public void debug(String s) {
-        log.println(DEBUG_PREFIX + s);
+        if (this.isLogged(Level.DEBUG))
+            write(Level.DEBUG, DEBUG_PREFIX + s, null, false);
     }
 
     public void debug(String s, Throwable throwable) {
-        debug(s);
-        if (throwable != null) {
-            throwable.printStackTrace(log);
-        }
+        if (this.isLogged(Level.DEBUG))
+            write(Level.DEBUG, DEBUG_PREFIX + s, throwable, false);
     }
 
     public void info(String s) {
-        log.println(INFO_PREFIX + s);
+        if (this.isLogged(Level.INFO))
+            write(Level.INFO, INFO_PREFIX + s, null, false);
     }
 
     public void info(String s, Throwable throwable) {
-        info(s);
-        if (throwable != null) {
-            throwable.printStackTrace(log);
-        }
+        if (this.isLogged(Level.INFO))
+            write(Level.INFO, INFO_PREFIX + s, throwable, false);
     }
 
     public void warn(String s) {
-        log.println(WARN_PREFIX + s);
+        if (this.isLogged(Level.WARN))
+            write(Level.WARN, WARN_PREFIX + s, null, true);
     }
 
     public void warn(String s, Throwable throwable) {
-        warn(s);
-        if (throwable != null) {
-            throwable.printStackTrace(log);
-        }
+        if (this.isLogged(Level.WARN))
+            write(Level.WARN, WARN_PREFIX + s, throwable, true);
     }
 
     public void error(String s) {
-        if (this.isErrorEnabled())
-            log.println(ERROR_PREFIX + s);
+        if (this.isLogged(Level.ERROR))
+            write(Level.ERROR, ERROR_PREFIX + s, null, true);
     }
 
     public void error(String s, Throwable throwable) {
-        log.println(ERROR_PREFIX + s);
-        if (throwable != null) {
-            throwable.printStackTrace(log);
-        }
+        if (this.isLogged(Level.ERROR))
+            write(Level.ERROR, ERROR_PREFIX + s, throwable, true);
     }
 
     public String toString() {
@@ -218,101 +438,100 @@ public class CxLoggerAdapter implements Logger {
     }
 
     public boolean isTraceEnabled() {
-        return false;
+        return level == Level.TRACE;
     }
 
     public void trace(String s) {
-        log.println(TRACE_PREFIX + s);
+        if (this.isLogged(Level.TRACE))
+            write(Level.TRACE, TRACE_PREFIX + s, null, false);
     }
 
     public void trace(String s, Object o) {
-        if (this.isTraceEnabled())
+        if (this.isLogged(Level.TRACE))
             this.trace(MessageFormatter.format(s, o).getMessage());
     }
 
     public void trace(String s, Object o, Object o1) {
-        if (this.isTraceEnabled())
+        if (this.isLogged(Level.TRACE))
             this.trace(MessageFormatter.format(s, o, o1).getMessage());
     }
 
     public void trace(String s, Object... objects) {
-        if (this.isTraceEnabled())
+        if (this.isLogged(Level.TRACE))
             this.trace(MessageFormatter.arrayFormat(s, objects).getMessage());
     }
 
     public void trace(String s, Throwable throwable) {
-        trace(s);
-        if (throwable != null) {
-            throwable.printStackTrace(log);
-        }
+        if (this.isLogged(Level.TRACE))
+            write(Level.TRACE, TRACE_PREFIX + s, throwable, false);
     }
 
     public void debug(String s, Object o) {
-        if (this.isDebugEnabled())
+        if (this.isLogged(Level.DEBUG))
             this.debug(MessageFormatter.format(s, o).getMessage());
     }
 
     public void debug(String s, Object o, Object o1) {
-        if (this.isDebugEnabled())
+        if (this.isLogged(Level.DEBUG))
             this.debug(MessageFormatter.format(s, o, o1).getMessage());
     }
 
     public void debug(String s, Object... objects) {
-        if (this.isDebugEnabled())
+        if (this.isLogged(Level.DEBUG))
             this.debug(MessageFormatter.arrayFormat(s, objects).getMessage());
     }
 
     @Override
     public void info(String format, Object arg) {
-        if (this.isInfoEnabled())
+        if (this.isLogged(Level.INFO))
             this.info(MessageFormatter.format(format, arg).getMessage());
     }
 
     @Override
     public void info(String format, Object arg1, Object arg2) {
-        if (this.isInfoEnabled())
+        if (this.isLogged(Level.INFO))
             this.info(MessageFormatter.format(format, arg1, arg2).getMessage());
     }
 
     @Override
     public void info(String format, Object... arguments) {
-        if (this.isInfoEnabled())
+        if (this.isLogged(Level.INFO))
             this.info(MessageFormatter.arrayFormat(format, arguments).getMessage());
     }
 
     @Override
     public void warn(String format, Object arg) {
-        if (this.isWarnEnabled())
+        if (this.isLogged(Level.WARN))
             this.warn(MessageFormatter.format(format, arg).getMessage());
     }
 
     @Override
     public void warn(String format, Object... arguments) {
-        if (this.isWarnEnabled())
+        if (this.isLogged(Level.WARN))
             this.warn(MessageFormatter.arrayFormat(format, arguments).getMessage());
     }
 
     @Override
     public void warn(String format, Object arg1, Object arg2) {
-        if (this.isWarnEnabled())
+        if (this.isLogged(Level.WARN))
             this.warn(MessageFormatter.format(format, arg1, arg2).getMessage());
     }
 
     @Override
     public void error(String format, Object arg) {
-        if (this.isErrorEnabled())
+        if (this.isLogged(Level.ERROR))
             this.error(MessageFormatter.format(format, arg).getMessage());
     }
 
     @Override
     public void error(String format, Object arg1, Object arg2) {
-        if (this.isErrorEnabled())
+        if (this.isLogged(Level.ERROR))
             this.error(MessageFormatter.format(format, arg1, arg2).getMessage());
     }
 
     @Override
     public void error(String format, Object... arguments) {
-        if (this.isErrorEnabled())
+        if (this.isLogged(Level.ERROR))
             this.error(MessageFormatter.arrayFormat(format, arguments).getMessage());
     }
 }
@@ -1,22 +1,43 @@
 package com.checkmarx.jenkins;
 
 import com.checkmarx.ast.results.ReportFormat;
+import com.checkmarx.ast.results.ResultsSummary;
 import com.checkmarx.ast.scan.Scan;
 import com.checkmarx.ast.wrapper.CxConfig;
 import com.checkmarx.ast.wrapper.CxConstants;
 import com.checkmarx.ast.wrapper.CxException;
 import com.checkmarx.ast.wrapper.CxWrapper;
+import com.checkmarx.jenkins.exception.CheckmarxException;
+import com.checkmarx.jenkins.exception.ScanFailedException;
 import com.checkmarx.jenkins.model.ScanConfig;
+import com.checkmarx.jenkins.scan.RetryPolicy;
 import com.checkmarx.jenkins.tools.CheckmarxInstallation;
+import com.checkmarx.jenkins.tracing.Span;
+import com.checkmarx.jenkins.tracing.Tracing;
+import com.checkmarx.jenkins.webhook.ScanCallbacks;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import hudson.FilePath;
+import hudson.util.Secret;
 import jenkins.model.Jenkins;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
 
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -24,7 +45,21 @@ public class PluginUtils {
 
     public static final String CHECKMARX_AST_RESULTS_HTML = "checkmarx-ast-results.html";
     public static final String CHECKMARX_AST_RESULTS_JSON = "checkmarx-ast-results.json";
+    public static final String GZIP_EXTENSION = ".gz";
+    public static final String CHECKMARX_AST_CLI_OUTPUT = "checkmarx-ast-cli-output.log.gz";
+    public static final String CHECKMARX_AST_RESULTS_INDEX = "checkmarx-ast-results.idx";
+    public static final String CHECKMARX_AST_FINDING_FINGERPRINTS = "checkmarx-ast-fingerprints.bin";
+    public static final String CHECKMARX_AST_DELTA_FINDING_FINGERPRINTS = "checkmarx-ast-delta-fingerprints.bin";
+    private static final String FULL_RESULTS_NAME = "checkmarx-ast-full-results";
     private static final String JENKINS = "Jenkins";
+    private static final String ASYNC = "--async";
+    private static final long SCAN_STATUS_POLL_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    // with completion callbacks, polling only covers lost callbacks
+    private static final long CALLBACK_FALLBACK_POLL_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long CANCEL_TIMEOUT_SECONDS = 60;
+    private static final long RESULTS_DOWNLOAD_TIMEOUT_MINUTES = 30;
+    private static final List<String> SUCCESSFUL_SCAN_STATUSES = Arrays.asList("completed", "partial");
+    private static final List<String> FAILED_SCAN_STATUSES = Arrays.asList("failed", "canceled");
 
     public static CheckmarxInstallation findCheckmarxInstallation(final String checkmarxInstallation) {
         final CheckmarxScanBuilder.CheckmarxScanBuilderDescriptor descriptor = Jenkins.get().getDescriptorByType(CheckmarxScanBuilder.CheckmarxScanBuilderDescriptor.class);
@@ -33,11 +68,26 @@ public class PluginUtils {
                 .findFirst().orElse(null);
     }
 
-    public static Scan submitScanDetailsToWrapper(final ScanConfig scanConfig, final String checkmarxCliExecutable, final CxLoggerAdapter log) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException {
+    public static Scan submitScanDetailsToWrapper(final ScanConfig scanConfig, final String checkmarxCliExecutable, final CxLoggerAdapter log) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
+        return submitScanDetailsToWrapper(scanConfig, scanConfig.getAdditionalOptions(), checkmarxCliExecutable, log);
+    }
+
+    /**
+     * Submits the scan without waiting for the server to finish it, so its ID is known while it runs.
+     */
+    public static Scan submitAsyncScan(final ScanConfig scanConfig, final String checkmarxCliExecutable, final CxLoggerAdapter log) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
+        final String additionalOptions = scanConfig.getAdditionalOptions() == null ? ASYNC : scanConfig.getAdditionalOptions() + " " + ASYNC;
+
+        final Scan scan = submitScanDetailsToWrapper(scanConfig, additionalOptions, checkmarxCliExecutable, log);
+        log.info("Scan " + scan.getID() + " submitted.");
+        return scan;
+    }
+
+    private static Scan submitScanDetailsToWrapper(final ScanConfig scanConfig, final String additionalOptions, final String checkmarxCliExecutable, final CxLoggerAdapter log) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
         log.info("Submitting the scan details to the CLI wrapper.");
 
         final CxConfig cxConfig = initiateWrapperObject(scanConfig, checkmarxCliExecutable);
-        cxConfig.setAdditionalParameters(scanConfig.getAdditionalOptions());
+        cxConfig.setAdditionalParameters(additionalOptions);
 
         final Map<String, String> params = new HashMap<>();
         params.put(CxConstants.AGENT, PluginUtils.JENKINS);
@@ -46,23 +96,163 @@ public class PluginUtils {
         params.put(CxConstants.BRANCH, scanConfig.getBranchName());
 
         final CxWrapper cxWrapper = new CxWrapper(cxConfig, log);
-        return cxWrapper.scanCreate(params, scanConfig.getAdditionalOptions());
+        // a repeated creation would scan twice, so it is not retried
+        return RetryPolicy.callOnce("the scan creation", scanConfig, log, () -> cxWrapper.scanCreate(params, additionalOptions));
     }
 
-    public static void generateHTMLReport(FilePath workspace, UUID scanId, final ScanConfig scanConfig, final String checkmarxCliExecutable, final CxLoggerAdapter log) throws IOException, InterruptedException, CxException, URISyntaxException, CxConfig.InvalidCLIConfigException {
-        final CxConfig cxConfig = initiateWrapperObject(scanConfig, checkmarxCliExecutable);
+    /**
+     * Polls the status of a submitted scan until the server finishes it.
+     *
+     * @throws ScanFailedException if the scan failed or was canceled
+     */
+    public static Scan waitForScanCompletion(final ScanConfig scanConfig, final String checkmarxCliExecutable, final String scanId, final CxLoggerAdapter log) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
+        final Secret webhookSecret = Jenkins.get().getDescriptorByType(CheckmarxScanBuilder.CheckmarxScanBuilderDescriptor.class).getWebhookSecret();
+        final long pollIntervalMillis = webhookSecret == null || webhookSecret.getPlainText().isEmpty()
+                ? SCAN_STATUS_POLL_INTERVAL_MILLIS : CALLBACK_FALLBACK_POLL_INTERVAL_MILLIS;
 
-        final CxWrapper cxWrapper = new CxWrapper(cxConfig, log);
-        final String summaryHtml = cxWrapper.results(scanId, ReportFormat.summaryHTML);
-        workspace.child(workspace.getName() + "_" + CHECKMARX_AST_RESULTS_HTML).write(summaryHtml, UTF_8.name());
+        String lastStatus = null;
+        // the time spent in each server status (queued, running...) is traced as a separate span
+        Span statusSpan = null;
+        try (ScanCallbacks.Waiter callbacks = ScanCallbacks.watch(scanId)) {
+            while (true) {
+                final Scan scan = RetryPolicy.callWithRetries("the status request of scan " + scanId, scanConfig, log,
+                        () -> newWrapper(scanConfig, checkmarxCliExecutable, log).scanShow(UUID.fromString(scanId)));
+                final String status = String.valueOf(scan.getStatus());
+                final String normalizedStatus = status.toLowerCase(Locale.ENGLISH);
+                if (!status.equals(lastStatus)) {
+                    log.info("Scan " + scanId + " status: " + status);
+                    lastStatus = status;
+                    if (statusSpan != null) {
+                        statusSpan.close();
+                    }
+                    statusSpan = Tracing.start("checkmarx.server." + normalizedStatus);
+                }
+
+                if (SUCCESSFUL_SCAN_STATUSES.contains(normalizedStatus)) {
+                    return scan;
+                }
+                if (FAILED_SCAN_STATUSES.contains(normalizedStatus)) {
+                    statusSpan.recordError(status);
+                    throw new ScanFailedException("Scan " + scanId + " finished with status " + status + ".");
+                }
+                if (callbacks.await(pollIntervalMillis)) {
+                    log.debug("Completion callback received for scan " + scanId + ".");
+                }
+            }
+        } finally {
+            if (statusSpan != null) {
+                statusSpan.close();
+            }
+        }
     }
 
-    public static void generateJsonReport(FilePath workspace, UUID scanId, final ScanConfig scanConfig, final String checkmarxCliExecutable, final CxLoggerAdapter log) throws IOException, InterruptedException, CxException, URISyntaxException, CxConfig.InvalidCLIConfigException {
-        final CxConfig cxConfig = initiateWrapperObject(scanConfig, checkmarxCliExecutable);
+    /**
+     * Cancels a scan on the server. Failures are only logged, as the scan may already be finished.
+     */
+    public static void cancelScan(final ScanConfig scanConfig, final String checkmarxCliExecutable, final String scanId, final CxLoggerAdapter log) throws InterruptedException {
+        try {
+            final List<String> command = cliCommand(scanConfig, checkmarxCliExecutable, "scan", "cancel", "--scan-id", scanId);
+            File output = null;
+            try {
+                output = File.createTempFile("checkmarx-cancel", ".log");
+                final Integer exitCode = runCli(command, output, CANCEL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                if (exitCode == null) {
+                    log.warn("Timed out cancelling scan " + scanId + ".");
+                } else if (exitCode != 0) {
+                    log.warn("Could not cancel scan " + scanId + ": " + FileUtils.readFileToString(output, UTF_8).trim());
+                } else {
+                    log.info("Scan " + scanId + " canceled.");
+                }
+            } finally {
+                FileUtils.deleteQuietly(output);
+            }
+        } catch (IOException e) {
+            log.warn("Could not cancel scan " + scanId + ": " + e.getMessage());
+        }
+    }
 
-        final CxWrapper cxWrapper = new CxWrapper(cxConfig, log);
-        final String summaryJson = cxWrapper.results(scanId, ReportFormat.summaryJSON);
-        workspace.child(workspace.getName() + "_" + CHECKMARX_AST_RESULTS_JSON).write(summaryJson, UTF_8.name());
+    /**
+     * Has the CLI write the full results of the scan to a JSON file in the given directory, so that they are never
+     * held in memory as a whole, and returns the file.
+     */
+    public static File downloadResults(final ScanConfig scanConfig, final String checkmarxCliExecutable, final String scanId, final File directory, final CxLoggerAdapter log) throws IOException, InterruptedException, CheckmarxException {
+        try {
+            return RetryPolicy.callWithRetries("the results download of scan " + scanId, scanConfig, log,
+                    () -> runResultsDownload(scanConfig, checkmarxCliExecutable, scanId, directory, log));
+        } catch (URISyntaxException | CxConfig.InvalidCLIConfigException | CxException e) {
+            throw new CheckmarxException(e.getMessage());
+        }
+    }
+
+    private static File runResultsDownload(final ScanConfig scanConfig, final String checkmarxCliExecutable, final String scanId, final File directory, final CxLoggerAdapter log) throws IOException, InterruptedException, CheckmarxException {
+        final List<String> command = cliCommand(scanConfig, checkmarxCliExecutable, "results", "show", "--scan-id", scanId,
+                "--report-format", "json", "--output-name", FULL_RESULTS_NAME, "--output-path", directory.getAbsolutePath());
+        final File output = File.createTempFile("checkmarx-results", ".log");
+        final Integer exitCode;
+        String lastLine = "";
+        try {
+            exitCode = runCli(command, output, RESULTS_DOWNLOAD_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+            try (BufferedReader lines = Files.newBufferedReader(output.toPath(), UTF_8)) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    log.debug(line);
+                    if (!line.trim().isEmpty()) {
+                        lastLine = line.trim();
+                    }
+                }
+            }
+        } finally {
+            FileUtils.deleteQuietly(output);
+        }
+        if (exitCode == null) {
+            throw new CheckmarxException("Timed out downloading the results of scan " + scanId + " after " + RESULTS_DOWNLOAD_TIMEOUT_MINUTES + " minutes.");
+        }
+        final File results = new File(directory, FULL_RESULTS_NAME + ".json");
+        if (exitCode != 0 || !results.isFile()) {
+            throw new CheckmarxException("Could not download the results of scan " + scanId + " (exit code " + exitCode + "): " + lastLine);
+        }
+        return results;
+    }
+
+    /**
+     * Runs a CLI command with its output written to a file, so that the timeout applies even when the CLI never closes
+     * its output, and returns its exit code, or null when it timed out and was killed.
+     */
+    private static Integer runCli(final List<String> command, final File output, final long timeout, final TimeUnit unit) throws IOException, InterruptedException {
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(output).start();
+        try {
+            return process.waitFor(timeout, unit) ? process.exitValue() : null;
+        } finally {
+            if (process.isAlive()) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    public static void generateHTMLReport(FilePath workspace, UUID scanId, final ScanConfig scanConfig, final String checkmarxCliExecutable, final CxLoggerAdapter log) throws IOException, InterruptedException, CxException, URISyntaxException, CxConfig.InvalidCLIConfigException, CheckmarxException {
+        final String summaryHtml = RetryPolicy.callWithRetries("the HTML report of scan " + scanId, scanConfig, log,
+                () -> newWrapper(scanConfig, checkmarxCliExecutable, log).results(scanId, ReportFormat.summaryHTML));
+        writeCompressed(workspace.child(workspace.getName() + "_" + CHECKMARX_AST_RESULTS_HTML + GZIP_EXTENSION), summaryHtml);
+    }
+
+    /**
+     * Writes the JSON summary of the scan to the workspace and returns it, so that its counts can be used without
+     * reading the report again.
+     */
+    public static ResultsSummary generateJsonReport(FilePath workspace, UUID scanId, final ScanConfig scanConfig, final String checkmarxCliExecutable, final CxLoggerAdapter log) throws IOException, InterruptedException, CxException, URISyntaxException, CxConfig.InvalidCLIConfigException, CheckmarxException {
+        final String summaryJson = RetryPolicy.callWithRetries("the JSON report of scan " + scanId, scanConfig, log,
+                () -> newWrapper(scanConfig, checkmarxCliExecutable, log).results(scanId, ReportFormat.summaryJSON));
+        writeCompressed(workspace.child(workspace.getName() + "_" + CHECKMARX_AST_RESULTS_JSON + GZIP_EXTENSION), summaryJson);
+        return new ObjectMapper().readValue(summaryJson, ResultsSummary.class);
+    }
+
+    /**
+     * Writes a report gzip-compressed, so that only the compressed bytes are sent to the agent and archived.
+     */
+    private static void writeCompressed(final FilePath file, final String content) throws IOException, InterruptedException {
+        try (OutputStream out = new GZIPOutputStream(file.write())) {
+            out.write(content.getBytes(UTF_8));
+        }
     }
 
     public static String authValidate(final ScanConfig scanConfig, final String checkmarxCliExecutable) throws IOException, InterruptedException, CxConfig.InvalidCLIConfigException, URISyntaxException, CxException {
@@ -72,6 +262,94 @@ public class PluginUtils {
         return cxWrapper.authValidate();
     }
 
+    /**
+     * Returns the value of the first of the given options found in the additional options, or null if none is set.
+     * Both the "--option value" and the "--option=value" forms are supported.
+     */
+    public static String getOptionValue(final String additionalOptions, final String... optionNames) {
+        final List<String> tokens = tokenizeOptions(additionalOptions);
+        for (int i = 0; i < tokens.size(); i++) {
+            final String token = tokens.get(i);
+            for (String optionName : optionNames) {
+                if (token.equals(optionName)) {
+                    return i + 1 < tokens.size() ? tokens.get(i + 1) : "";
+                }
+                if (token.startsWith(optionName + "=")) {
+                    return token.substring(optionName.length() + 1);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Splits the additional options on whitespace, keeping quoted values together and stripping the quotes.
+     */
+    public static List<String> tokenizeOptions(final String additionalOptions) {
+        final List<String> tokens = new ArrayList<>();
+        if (additionalOptions == null) {
+            return tokens;
+        }
+
+        final StringBuilder current = new StringBuilder();
+        char quote = 0;
+        for (char c : additionalOptions.toCharArray()) {
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (Character.isWhitespace(c)) {
+                if (current.length() > 0) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                }
+            } else {
+                current.append(c);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private static List<String> cliCommand(final ScanConfig scanConfig, final String checkmarxCliExecutable, final String... arguments) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add(checkmarxCliExecutable);
+        command.addAll(Arrays.asList(arguments));
+        command.addAll(Arrays.asList("--agent", JENKINS));
+        command.addAll(authArguments(scanConfig));
+        return command;
+    }
+
+    private static List<String> authArguments(final ScanConfig scanConfig) throws IOException, InterruptedException {
+        final List<String> arguments = new ArrayList<>();
+        if (StringUtils.isNotEmpty(scanConfig.getServerUrl())) {
+            arguments.addAll(Arrays.asList("--base-uri", scanConfig.getServerUrl()));
+        }
+        if (StringUtils.isNotEmpty(scanConfig.getBaseAuthUrl())) {
+            arguments.addAll(Arrays.asList("--base-auth-uri", scanConfig.getBaseAuthUrl()));
+        }
+        if (StringUtils.isNotEmpty(scanConfig.getTenantName())) {
+            arguments.addAll(Arrays.asList("--tenant", scanConfig.getTenantName()));
+        }
+        arguments.addAll(Arrays.asList("--client-id", scanConfig.getCheckmarxToken().getClientId()));
+        arguments.addAll(Arrays.asList("--client-secret", scanConfig.getCheckmarxToken().getToken().getPlainText()));
+        return arguments;
+    }
+
+    /**
+     * Creates the wrapper of a retried call for each attempt, as the client of a credentials pool is replaced when the
+     * server throttles it.
+     */
+    private static CxWrapper newWrapper(final ScanConfig scanConfig, final String checkmarxCliExecutable, final CxLoggerAdapter log) throws IOException, InterruptedException, CxConfig.InvalidCLIConfigException {
+        return new CxWrapper(initiateWrapperObject(scanConfig, checkmarxCliExecutable), log);
+    }
+
     private static CxConfig initiateWrapperObject(final ScanConfig scanConfig, final String checkmarxCliExecutable) throws IOException, InterruptedException {
         return CxConfig.builder()
                 .baseUri(scanConfig.getServerUrl())
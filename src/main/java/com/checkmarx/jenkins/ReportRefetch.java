@@ -0,0 +1,131 @@
+package com.checkmarx.jenkins;
+
+import com.checkmarx.ast.wrapper.CxConfig;
+import com.checkmarx.ast.wrapper.CxException;
+import com.checkmarx.jenkins.credentials.CheckmarxApiToken;
+import com.checkmarx.jenkins.credentials.CheckmarxApiTokenPool;
+import com.checkmarx.jenkins.dashboard.SecurityDashboard;
+import com.checkmarx.jenkins.exception.CheckmarxException;
+import com.checkmarx.jenkins.model.ScanConfig;
+import com.checkmarx.jenkins.results.FindingsDiff;
+import com.checkmarx.jenkins.tools.CheckmarxInstallation;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.Util;
+import hudson.model.BuildListener;
+import hudson.model.Run;
+import hudson.model.StreamBuildListener;
+import hudson.model.TaskListener;
+import jenkins.model.Jenkins;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.cloudbees.plugins.credentials.CredentialsProvider.findCredentialById;
+
+/**
+ * Fetches the reports of the scan of a completed build again, without scanning again, and archives them in place
+ * of the reports of the build. The reports are fetched on the controller with the server, tenant and credentials
+ * recorded by the build.
+ */
+public final class ReportRefetch {
+
+    private ReportRefetch() {
+        // squid:S1118
+    }
+
+    public static void refetch(final Run<?, ?> run, final TaskListener listener) throws IOException, InterruptedException, CheckmarxException {
+        final CheckmarxScanResultsAction action = run.getAction(CheckmarxScanResultsAction.class);
+        if (action == null || action.getScanId() == null) {
+            throw new CheckmarxException(run.getFullDisplayName() + " has no Checkmarx scan to fetch the reports of.");
+        }
+        if (run.isBuilding()) {
+            throw new CheckmarxException(run.getFullDisplayName() + " is still running.");
+        }
+        final CxLoggerAdapter log = new CxLoggerAdapter(listener.getLogger(), CxLoggerAdapter.Level.INFO, false);
+        final String scanId = action.getScanId();
+        log.info("Fetching the reports of scan " + scanId + " of " + run.getFullDisplayName() + " again.");
+
+        final ScanConfig scanConfig = new ScanConfig();
+        scanConfig.setServerUrl(action.getServerUrl());
+        scanConfig.setTenantName(action.getTenantName());
+        scanConfig.setBaseAuthUrl(action.getBaseAuthUrl());
+        scanConfig.setCredentialsId(action.getCredentialsId());
+        scanConfig.setBranchName(action.getBranchName());
+        // compared with the builds of the same scope as the first time
+        scanConfig.setDeltaScan(new File(run.getRootDir(), PluginUtils.CHECKMARX_AST_DELTA_FINDING_FINGERPRINTS).isFile());
+        CheckmarxApiToken token = findCredentialById(Util.fixNull(action.getCredentialsId()), CheckmarxApiToken.class, run);
+        if (token == null) {
+            throw new CheckmarxException("Checkmarx credentials with ID '" + action.getCredentialsId() + "' were not found.");
+        }
+        if (token instanceof CheckmarxApiTokenPool) {
+            token = ((CheckmarxApiTokenPool) token).acquire().getToken();
+        }
+        scanConfig.setCheckmarxToken(token);
+
+        final String executable = controllerExecutable(action, listener);
+        final File directory = Files.createTempDirectory("checkmarx-reports").toFile();
+        try {
+            final FilePath reports = new FilePath(directory);
+            try {
+                PluginUtils.generateHTMLReport(reports, UUID.fromString(scanId), scanConfig, executable, log);
+                PluginUtils.generateJsonReport(reports, UUID.fromString(scanId), scanConfig, executable, log);
+            } catch (CxException | URISyntaxException | CxConfig.InvalidCLIConfigException e) {
+                throw new CheckmarxException("Could not fetch the reports of scan " + scanId + ": " + e.getMessage());
+            }
+
+            // the reports replace the archived ones, or are archived under their usual names when the build has none
+            final Map<String, String> artifacts = new HashMap<>();
+            for (String name : new String[]{PluginUtils.CHECKMARX_AST_RESULTS_HTML, PluginUtils.CHECKMARX_AST_RESULTS_JSON}) {
+                final String fileName = reports.getName() + "_" + name + PluginUtils.GZIP_EXTENSION;
+                final String archived = action.getReportArtifact(name);
+                artifacts.put(archived != null && archived.endsWith(PluginUtils.GZIP_EXTENSION) ? archived : name + PluginUtils.GZIP_EXTENSION, fileName);
+            }
+            final Launcher launcher = Jenkins.get().createLauncher(listener);
+            final BuildListener buildListener = new StreamBuildListener(listener.getLogger(), StandardCharsets.UTF_8);
+            run.getArtifactManager().archive(reports, launcher, buildListener, artifacts);
+
+            final FindingsDiff findingsDiff = CheckmarxScanBuilder.indexResults(run, scanConfig, executable, scanId, log);
+            reportsRefetched(run, action, findingsDiff);
+            log.info("Archived the reports of scan " + scanId + ".");
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Records the reports fetched again with the build and refreshes the dashboard entry of the build, which the
+     * dashboard only takes from completed builds otherwise.
+     */
+    static void reportsRefetched(final Run<?, ?> run, final CheckmarxScanResultsAction action, final FindingsDiff findingsDiff) throws IOException {
+        action.setFindingsDiff(findingsDiff);
+        action.reportsArchived();
+        run.save();
+        if (action.getScanSummary() != null) {
+            SecurityDashboard.get().update(run, action.getScanSummary(), action.getBranchName());
+        }
+    }
+
+    private static String controllerExecutable(final CheckmarxScanResultsAction action, final TaskListener listener) throws IOException, InterruptedException, CheckmarxException {
+        String installationName = action.getInstallationName();
+        if (installationName == null) {
+            installationName = Jenkins.get().getDescriptorByType(CheckmarxScanBuilder.CheckmarxScanBuilderDescriptor.class).getCheckmarxInstallation();
+        }
+        final CheckmarxInstallation installation = PluginUtils.findCheckmarxInstallation(installationName);
+        if (installation == null) {
+            throw new CheckmarxException("Checkmarx installation named '" + installationName + "' was not found.");
+        }
+        final String executable = installation.forNode(Jenkins.get(), listener).getCheckmarxExecutable(Jenkins.get().createLauncher(listener));
+        if (executable == null) {
+            throw new CheckmarxException("Can't retrieve the Checkmarx executable.");
+        }
+        return executable;
+    }
+}
@@ -0,0 +1,263 @@
+package com.checkmarx.jenkins.cache;
+
+import com.checkmarx.ast.wrapper.CxConfig;
+import com.checkmarx.ast.wrapper.CxException;
+import com.checkmarx.jenkins.CxLoggerAdapter;
+import com.checkmarx.jenkins.PluginUtils;
+import com.checkmarx.jenkins.exception.CheckmarxException;
+import com.checkmarx.jenkins.model.ScanConfig;
+import hudson.EnvVars;
+import hudson.Util;
+import hudson.XmlFile;
+import jenkins.model.Jenkins;
+import org.apache.commons.lang.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Instance-wide cache of completed scans keyed by project, branch, repository, commit, filter configuration and
+ * scan types.
+ * A build that matches a completed scan reuses its ID, and a build that matches a scan still in flight joins it
+ * instead of submitting the same sources again.
+ */
+public class ScanCache {
+
+    private static final Logger LOGGER = Logger.getLogger(ScanCache.class.getName());
+    private static final String CACHE_FILE = "checkmarx-scan-cache.xml";
+    private static final String[] FILTER_OPTIONS = {"--file-filter", "-f", "--file-include", "--sast-filter", "--sca-filter", "--kics-filter"};
+    private static final String[] SCAN_TYPES_OPTIONS = {"--scan-types"};
+
+    private static ScanCache instance;
+
+    private transient File file;
+    private transient ConcurrentMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    ScanCache(final File file) {
+        this.file = file;
+    }
+
+    public static synchronized ScanCache get() {
+        if (instance == null) {
+            instance = new ScanCache(new File(Jenkins.get().getRootDir(), CACHE_FILE));
+            instance.load();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the ID of a completed scan matching the key, joins a matching scan in flight, or submits a new one.
+     */
+    public String resolve(final Key key, final long maxAgeMillis, final int maxEntries, final ScanSubmitter submitter, final CxLoggerAdapter log) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
+        String cachedScanId = lookup(key, maxAgeMillis);
+        if (cachedScanId != null) {
+            log.info("Reusing completed scan " + cachedScanId + " for " + key.getDescription());
+            return cachedScanId;
+        }
+
+        final CompletableFuture<String> pending = new CompletableFuture<>();
+        final CompletableFuture<String> running = inFlight.putIfAbsent(key.getValue(), pending);
+        if (running != null) {
+            log.info("Joining the scan in progress for " + key.getDescription());
+            try {
+                return running.get();
+            } catch (ExecutionException e) {
+                log.warn("The scan in progress failed, submitting a new scan: " + e.getCause().getMessage());
+                return submitter.submit();
+            }
+        }
+
+        try {
+            // another build may have completed the scan between the lookup and the registration
+            cachedScanId = lookup(key, maxAgeMillis);
+            final String scanId = cachedScanId != null ? cachedScanId : submitter.submit();
+            put(key, scanId, maxAgeMillis, maxEntries);
+            pending.complete(scanId);
+            return scanId;
+        } catch (Exception e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key.getValue(), pending);
+        }
+    }
+
+    synchronized String lookup(final Key key, final long maxAgeMillis) {
+        final Entry entry = entries.get(key.getValue());
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis(), maxAgeMillis)) {
+            entries.remove(key.getValue());
+            return null;
+        }
+        return entry.getScanId();
+    }
+
+    synchronized void put(final Key key, final String scanId, final long maxAgeMillis, final int maxEntries) {
+        entries.remove(key.getValue());
+        entries.put(key.getValue(), new Entry(scanId, System.currentTimeMillis()));
+        evict(System.currentTimeMillis(), maxAgeMillis, maxEntries);
+        save();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict(final long now, final long maxAgeMillis, final int maxEntries) {
+        final Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, Entry> next = iterator.next();
+            if (next.getValue().isExpired(now, maxAgeMillis) || entries.size() > maxEntries) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private synchronized void load() {
+        final XmlFile xmlFile = getXmlFile();
+        if (!xmlFile.exists()) {
+            return;
+        }
+        try {
+            xmlFile.unmarshal(this);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to load the Checkmarx scan cache, starting with an empty one", e);
+        }
+        if (entries == null) {
+            entries = new LinkedHashMap<>();
+        }
+    }
+
+    private void save() {
+        try {
+            getXmlFile().write(this);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save the Checkmarx scan cache", e);
+        }
+    }
+
+    private XmlFile getXmlFile() {
+        return new XmlFile(Jenkins.XSTREAM2, file);
+    }
+
+    private Object readResolve() {
+        inFlight = new ConcurrentHashMap<>();
+        return this;
+    }
+
+    /**
+     * Submits a new scan and returns its ID once completed.
+     */
+    @FunctionalInterface
+    public interface ScanSubmitter {
+        String submit() throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException;
+    }
+
+    public static final class Entry {
+        private final String scanId;
+        private final long createdAt;
+
+        Entry(final String scanId, final long createdAt) {
+            this.scanId = scanId;
+            this.createdAt = createdAt;
+        }
+
+        public String getScanId() {
+            return scanId;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        boolean isExpired(final long now, final long maxAgeMillis) {
+            return now - createdAt > maxAgeMillis;
+        }
+    }
+
+    public static final class Key {
+        private final String value;
+        private final String description;
+
+        Key(final String value, final String description) {
+            this.value = value;
+            this.description = description;
+        }
+
+        /**
+         * Builds the cache key of a scan, or returns null when the repository URL or the commit is unknown.
+         */
+        public static Key of(final ScanConfig scanConfig, final EnvVars envVars) {
+            final String repositoryUrl = normalizeRepositoryUrl(envVars.get("GIT_URL"));
+            final String commit = Util.fixEmptyAndTrim(envVars.get("GIT_COMMIT"));
+            if (repositoryUrl == null || commit == null) {
+                return null;
+            }
+
+            final String additionalOptions = scanConfig.getAdditionalOptions();
+            final StringBuilder filters = new StringBuilder();
+            for (String option : FILTER_OPTIONS) {
+                final String filter = PluginUtils.getOptionValue(additionalOptions, option);
+                if (filter != null) {
+                    filters.append(option).append('=').append(filter).append(';');
+                }
+            }
+            final String scanTypes = normalizeScanTypes(PluginUtils.getOptionValue(additionalOptions, SCAN_TYPES_OPTIONS));
+
+            final String value = String.join("\n",
+                    StringUtils.defaultString(scanConfig.getServerUrl()),
+                    StringUtils.defaultString(scanConfig.getTenantName()),
+                    // a reused scan belongs to the project and branch it was submitted for
+                    StringUtils.defaultString(scanConfig.getProjectName()),
+                    StringUtils.defaultString(scanConfig.getBranchName()),
+                    repositoryUrl,
+                    commit.toLowerCase(Locale.ENGLISH),
+                    filters,
+                    scanTypes);
+            return new Key(Util.getDigestOf(value), repositoryUrl + "@" + commit);
+        }
+
+        static String normalizeRepositoryUrl(final String repositoryUrl) {
+            String url = Util.fixEmptyAndTrim(repositoryUrl);
+            if (url == null) {
+                return null;
+            }
+            // drop credentials embedded in the URL and the optional .git suffix
+            url = url.replaceFirst("^([a-zA-Z][a-zA-Z0-9+.-]*://)[^@/]+@", "$1");
+            url = StringUtils.removeEnd(StringUtils.removeEnd(url, "/"), ".git");
+            return url.toLowerCase(Locale.ENGLISH);
+        }
+
+        static String normalizeScanTypes(final String scanTypes) {
+            if (Util.fixEmptyAndTrim(scanTypes) == null) {
+                return "";
+            }
+            final String[] types = scanTypes.toLowerCase(Locale.ENGLISH).replace(" ", "").split(",");
+            Arrays.sort(types);
+            return String.join(",", types);
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.checkmarx.jenkins.credentials;
+
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.impl.BaseStandardCredentials;
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import hudson.util.ListBoxModel;
+import hudson.util.Secret;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Several client IDs and secrets of the same tenant, used in turn so that the builds of the instance share the rate
+ * limits of all of them. A client throttled by the server is left aside for a while, the wait doubling when it is
+ * throttled again.
+ * <p>
+ * Outside of a scan, e.g. when testing the connection, the pool stands for its first client.
+ */
+public class CheckmarxApiTokenPool extends BaseStandardCredentials implements CheckmarxApiToken {
+
+    private static final Pattern THROTTLED_PATTERN = Pattern.compile("(?i)\\b429\\b|too many requests|rate limit");
+
+    public enum Strategy {
+        ROUND_ROBIN("Round robin"), LEAST_RECENTLY_USED("Least recently used");
+
+        private final String displayName;
+
+        Strategy(final String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    @Nonnull
+    private final List<Client> clients;
+
+    private Strategy strategy = Strategy.ROUND_ROBIN;
+
+    @DataBoundConstructor
+    public CheckmarxApiTokenPool(final CredentialsScope scope, final String id, final String description, final List<Client> clients) {
+        super(scope, id, description);
+        this.clients = clients == null ? Collections.emptyList() : new ArrayList<>(clients);
+    }
+
+    @Nonnull
+    public List<Client> getClients() {
+        return Collections.unmodifiableList(clients);
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    @DataBoundSetter
+    public void setStrategy(final Strategy strategy) {
+        this.strategy = strategy == null ? Strategy.ROUND_ROBIN : strategy;
+    }
+
+    @Nonnull
+    @Override
+    public String getClientId() {
+        return clients.isEmpty() ? "" : clients.get(0).getClientId();
+    }
+
+    @Nonnull
+    @Override
+    public Secret getToken() {
+        return clients.isEmpty() ? Secret.fromString("") : clients.get(0).getSecret();
+    }
+
+    /**
+     * Chooses the client of a scan, waiting while every client of the pool is throttled.
+     */
+    public Lease acquire() throws InterruptedException {
+        return new Lease(this, choose());
+    }
+
+    private CheckmarxApiToken choose() throws InterruptedException {
+        if (clients.isEmpty()) {
+            throw new IllegalStateException("The Checkmarx credentials pool " + getId() + " has no client.");
+        }
+        final List<String> clientIds = new ArrayList<>(clients.size());
+        for (Client client : clients) {
+            clientIds.add(client.getClientId());
+        }
+        final Client client = clients.get(ClientRotation.INSTANCE.acquire(getId(), clientIds, strategy));
+        return new DefaultCheckmarxApiToken(getScope(), getId(), getDescription(),
+                client.getClientId(), client.getSecret().getPlainText());
+    }
+
+    /**
+     * Whether the error of the CLI means that the server rejected the client for sending too many requests.
+     */
+    public static boolean isThrottled(final String message) {
+        return message != null && THROTTLED_PATTERN.matcher(message).find();
+    }
+
+    /**
+     * The client used by a scan. Reporting throttling leaves the client aside for the next scans, and the scan itself
+     * can switch to another client of the pool.
+     */
+    public static final class Lease {
+        private final CheckmarxApiTokenPool pool;
+        private volatile CheckmarxApiToken token;
+
+        Lease(final CheckmarxApiTokenPool pool, final CheckmarxApiToken token) {
+            this.pool = pool;
+            this.token = token;
+        }
+
+        public CheckmarxApiToken getToken() {
+            return token;
+        }
+
+        public String getClientId() {
+            return token.getClientId();
+        }
+
+        public void throttled() {
+            ClientRotation.INSTANCE.throttled(token.getClientId(), System.currentTimeMillis());
+        }
+
+        public void succeeded() {
+            ClientRotation.INSTANCE.succeeded(token.getClientId());
+        }
+
+        /**
+         * Switches the lease to the next client of the pool, waiting while every client is throttled.
+         */
+        public void rotate() throws InterruptedException {
+            token = pool.choose();
+        }
+    }
+
+    public static class Client extends AbstractDescribableImpl<Client> {
+
+        @Nonnull
+        private final String clientId;
+
+        @Nonnull
+        private final Secret secret;
+
+        @DataBoundConstructor
+        public Client(@Nonnull final String clientId, @Nonnull final Secret secret) {
+            this.clientId = clientId;
+            this.secret = secret;
+        }
+
+        @Nonnull
+        public String getClientId() {
+            return clientId;
+        }
+
+        @Nonnull
+        public Secret getSecret() {
+            return secret;
+        }
+
+        @Extension
+        public static class DescriptorImpl extends Descriptor<Client> {
+
+            @Nonnull
+            @Override
+            public String getDisplayName() {
+                return "Client";
+            }
+        }
+    }
+
+    @Extension
+    public static class CheckmarxApiTokenPoolDescriptor extends BaseStandardCredentials.BaseStandardCredentialsDescriptor {
+
+        @Nonnull
+        @Override
+        public String getDisplayName() {
+            return "Checkmarx Client Id and Client Secret pool";
+        }
+
+        public ListBoxModel doFillStrategyItems() {
+            final ListBoxModel items = new ListBoxModel();
+            for (Strategy strategy : Strategy.values()) {
+                items.add(strategy.getDisplayName(), strategy.name());
+            }
+            return items;
+        }
+    }
+}
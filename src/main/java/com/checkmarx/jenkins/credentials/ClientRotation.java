@@ -0,0 +1,93 @@
+package com.checkmarx.jenkins.credentials;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Usage of the clients of the credentials pools, kept in memory. The state of a client is shared by every pool
+ * holding it, since the server throttles the client whatever pool it is used through.
+ */
+final class ClientRotation {
+
+    static final ClientRotation INSTANCE = new ClientRotation();
+
+    static final long INITIAL_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private final Map<String, Usage> usages = new HashMap<>();
+    private final Map<String, Integer> nextTurns = new HashMap<>();
+
+    /**
+     * Waits until a client of the pool is not throttled and returns its index.
+     */
+    int acquire(final String poolId, final List<String> clientIds, final CheckmarxApiTokenPool.Strategy strategy) throws InterruptedException {
+        synchronized (this) {
+            while (true) {
+                final long now = System.currentTimeMillis();
+                final int chosen = choose(poolId, clientIds, strategy, now);
+                if (chosen >= 0) {
+                    return chosen;
+                }
+                long until = Long.MAX_VALUE;
+                for (String clientId : clientIds) {
+                    until = Math.min(until, usage(clientId).throttledUntil);
+                }
+                wait(Math.max(1, until - now));
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the next client of the pool, or -1 when all of them are throttled.
+     */
+    synchronized int choose(final String poolId, final List<String> clientIds, final CheckmarxApiTokenPool.Strategy strategy, final long now) {
+        int chosen = -1;
+        if (strategy == CheckmarxApiTokenPool.Strategy.LEAST_RECENTLY_USED) {
+            long oldest = Long.MAX_VALUE;
+            for (int i = 0; i < clientIds.size(); i++) {
+                final Usage usage = usage(clientIds.get(i));
+                if (usage.throttledUntil <= now && usage.lastUsed < oldest) {
+                    chosen = i;
+                    oldest = usage.lastUsed;
+                }
+            }
+        } else {
+            final int first = nextTurns.getOrDefault(poolId, 0);
+            for (int i = 0; i < clientIds.size() && chosen < 0; i++) {
+                final int candidate = (first + i) % clientIds.size();
+                if (usage(clientIds.get(candidate)).throttledUntil <= now) {
+                    chosen = candidate;
+                }
+            }
+            if (chosen >= 0) {
+                nextTurns.put(poolId, (chosen + 1) % clientIds.size());
+            }
+        }
+        if (chosen >= 0) {
+            usage(clientIds.get(chosen)).lastUsed = now;
+        }
+        return chosen;
+    }
+
+    synchronized void throttled(final String clientId, final long now) {
+        final Usage usage = usage(clientId);
+        usage.backoff = usage.backoff == 0 ? INITIAL_BACKOFF_MILLIS : Math.min(usage.backoff * 2, MAX_BACKOFF_MILLIS);
+        usage.throttledUntil = now + usage.backoff;
+    }
+
+    synchronized void succeeded(final String clientId) {
+        usage(clientId).backoff = 0;
+    }
+
+    private Usage usage(final String clientId) {
+        return usages.computeIfAbsent(clientId, key -> new Usage());
+    }
+
+    private static final class Usage {
+        private long lastUsed = Long.MIN_VALUE;
+        private long throttledUntil;
+        private long backoff;
+    }
+}
@@ -0,0 +1,102 @@
+package com.checkmarx.jenkins.dashboard;
+
+import java.util.Date;
+
+/**
+ * Latest Checkmarx scan of a job, as shown on the security dashboard.
+ */
+public class DashboardEntry {
+
+    public static final String[] RISKS = {"high", "medium", "low", "none"};
+
+    private final String jobFullName;
+    private final String jobUrl;
+    private final String folder;
+    private final String branch;
+    private final int buildNumber;
+    private final long timestamp;
+    private final int high;
+    private final int medium;
+    private final int low;
+    private final int total;
+
+    public DashboardEntry(final String jobFullName, final String jobUrl, final String folder, final String branch,
+                          final int buildNumber, final long timestamp, final int high, final int medium, final int low,
+                          final int total) {
+        this.jobFullName = jobFullName;
+        this.jobUrl = jobUrl;
+        this.folder = folder;
+        this.branch = branch;
+        this.buildNumber = buildNumber;
+        this.timestamp = timestamp;
+        this.high = high;
+        this.medium = medium;
+        this.low = low;
+        this.total = total;
+    }
+
+    DashboardEntry moveTo(final String newJobFullName, final String newJobUrl, final String newFolder) {
+        return new DashboardEntry(newJobFullName, newJobUrl, newFolder, branch, buildNumber, timestamp, high, medium, low, total);
+    }
+
+    public String getJobFullName() {
+        return jobFullName;
+    }
+
+    public String getJobUrl() {
+        return jobUrl;
+    }
+
+    public String getFolder() {
+        return folder;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    public int getBuildNumber() {
+        return buildNumber;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Date getDate() {
+        return new Date(timestamp);
+    }
+
+    public int getHigh() {
+        return high;
+    }
+
+    public int getMedium() {
+        return medium;
+    }
+
+    public int getLow() {
+        return low;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the highest severity having findings, one of {@link #RISKS}.
+     */
+    public String getRisk() {
+        return RISKS[getRiskRank()];
+    }
+
+    int getRiskRank() {
+        if (high > 0) {
+            return 0;
+        }
+        if (medium > 0) {
+            return 1;
+        }
+        return low > 0 ? 2 : 3;
+    }
+}
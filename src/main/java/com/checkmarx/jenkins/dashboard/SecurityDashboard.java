@@ -0,0 +1,349 @@
+package com.checkmarx.jenkins.dashboard;
+
+import com.checkmarx.jenkins.CheckmarxScanResultsAction;
+import com.checkmarx.jenkins.history.ScanHistory;
+import com.checkmarx.jenkins.history.ScanSummary;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import jenkins.model.Jenkins;
+import jenkins.util.Timer;
+import org.apache.commons.lang.StringUtils;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Instance-wide index of the latest Checkmarx scan of every job. It is updated one job at a time when a build with
+ * scan results completes, saved shortly after, and rebuilt in the background from the job scan histories when its
+ * file is missing.
+ */
+public class SecurityDashboard {
+
+    private static final Logger LOGGER = Logger.getLogger(SecurityDashboard.class.getName());
+    private static final String DASHBOARD_FILE = "checkmarx-dashboard.xml";
+    private static final long SAVE_DELAY_SECONDS = 5;
+
+    private static SecurityDashboard instance;
+
+    private transient File file;
+    private transient boolean saveScheduled;
+    private transient volatile boolean rebuilding;
+    private TreeMap<String, DashboardEntry> entries = new TreeMap<>();
+
+    public enum Sort {
+        RISK(Comparator.comparingInt(DashboardEntry::getRiskRank)
+                .thenComparing(Comparator.comparingInt(DashboardEntry::getHigh).reversed())
+                .thenComparing(Comparator.comparingInt(DashboardEntry::getMedium).reversed())
+                .thenComparing(Comparator.comparingInt(DashboardEntry::getLow).reversed())),
+        JOB(Comparator.comparing(DashboardEntry::getJobFullName, String.CASE_INSENSITIVE_ORDER)),
+        FOLDER(Comparator.comparing(DashboardEntry::getFolder, String.CASE_INSENSITIVE_ORDER)),
+        BRANCH(Comparator.comparing((DashboardEntry entry) -> StringUtils.defaultString(entry.getBranch()), String.CASE_INSENSITIVE_ORDER)),
+        DATE(Comparator.comparingLong(DashboardEntry::getTimestamp).reversed());
+
+        private final Comparator<DashboardEntry> comparator;
+
+        Sort(final Comparator<DashboardEntry> comparator) {
+            this.comparator = comparator.thenComparing(DashboardEntry::getJobFullName);
+        }
+    }
+
+    SecurityDashboard(final File file) {
+        this.file = file;
+    }
+
+    public static synchronized SecurityDashboard get() {
+        if (instance == null) {
+            instance = new SecurityDashboard(new File(Jenkins.get().getRootDir(), DASHBOARD_FILE));
+            if (instance.getXmlFile().exists()) {
+                instance.load();
+            } else {
+                instance.rebuildInBackground();
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Records the latest scan of the job of the build.
+     */
+    public void update(final Run<?, ?> run, final ScanSummary summary, final String branch) {
+        final Job<?, ?> job = run.getParent();
+        record(new DashboardEntry(job.getFullName(), job.getUrl(), job.getParent().getFullName(), branch,
+                run.getNumber(), summary.getTimestamp(), summary.getHigh(), summary.getMedium(), summary.getLow(),
+                summary.getTotal()));
+    }
+
+    void record(final DashboardEntry entry) {
+        synchronized (this) {
+            final DashboardEntry current = entries.get(entry.getJobFullName());
+            if (current != null && current.getBuildNumber() > entry.getBuildNumber()) {
+                return;
+            }
+            entries.put(entry.getJobFullName(), entry);
+        }
+        scheduleSave();
+    }
+
+    public void remove(final String jobFullName) {
+        synchronized (this) {
+            if (entries.remove(jobFullName) == null) {
+                return;
+            }
+        }
+        scheduleSave();
+    }
+
+    public void move(final String oldFullName, final Job<?, ?> job) {
+        move(oldFullName, job.getFullName(), job.getUrl(), job.getParent().getFullName());
+    }
+
+    void move(final String oldFullName, final String newFullName, final String newUrl, final String newFolder) {
+        synchronized (this) {
+            final DashboardEntry entry = entries.remove(oldFullName);
+            if (entry == null) {
+                return;
+            }
+            entries.put(newFullName, entry.moveTo(newFullName, newUrl, newFolder));
+        }
+        scheduleSave();
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding;
+    }
+
+    /**
+     * Returns the entries matching the filters, each filter being ignored when blank.
+     *
+     * @param folder  the folder of the jobs, including its subfolders
+     * @param visible whether the current user may see the job of an entry
+     */
+    public Page query(final String folder, final String branch, final String risk, final String text, final Sort sort,
+                      final Predicate<DashboardEntry> visible, final int offset, final int limit) {
+        final List<DashboardEntry> matching = new ArrayList<>();
+        synchronized (this) {
+            for (DashboardEntry entry : entries.values()) {
+                if (matches(entry, folder, branch, risk, text)) {
+                    matching.add(entry);
+                }
+            }
+        }
+        matching.removeIf(visible.negate());
+        matching.sort(sort.comparator);
+        final int from = Math.min(offset, matching.size());
+        final int to = Math.min(matching.size(), from + limit);
+        return new Page(new ArrayList<>(matching.subList(from, to)), matching.size(), offset, limit);
+    }
+
+    /**
+     * Returns the folders holding the jobs of the visible entries.
+     */
+    public List<String> getFolders(final Predicate<DashboardEntry> visible) {
+        final List<DashboardEntry> candidates;
+        synchronized (this) {
+            candidates = new ArrayList<>(entries.values());
+        }
+        final List<String> folders = new ArrayList<>();
+        for (DashboardEntry entry : candidates) {
+            if (!entry.getFolder().isEmpty() && !folders.contains(entry.getFolder()) && visible.test(entry)) {
+                folders.add(entry.getFolder());
+            }
+        }
+        Collections.sort(folders, String.CASE_INSENSITIVE_ORDER);
+        return folders;
+    }
+
+    private static boolean matches(final DashboardEntry entry, final String folder, final String branch, final String risk, final String text) {
+        if (StringUtils.isNotBlank(folder) && !entry.getFolder().equals(folder) && !entry.getFolder().startsWith(folder + "/")) {
+            return false;
+        }
+        if (StringUtils.isNotBlank(branch) && !branch.equals(entry.getBranch())) {
+            return false;
+        }
+        if (StringUtils.isNotBlank(risk) && !risk.equalsIgnoreCase(entry.getRisk())) {
+            return false;
+        }
+        return StringUtils.isBlank(text)
+                || entry.getJobFullName().toLowerCase(Locale.ENGLISH).contains(text.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Rebuilds the index from the scan history of every job, reading only the latest build having scan results.
+     */
+    public void rebuildInBackground() {
+        rebuilding = true;
+        Timer.get().submit(() -> {
+            try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+                rebuild();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to rebuild the Checkmarx dashboard", e);
+            } finally {
+                rebuilding = false;
+            }
+        });
+    }
+
+    void rebuild() {
+        final TreeMap<String, DashboardEntry> rebuilt = new TreeMap<>();
+        for (Job<?, ?> job : Jenkins.get().allItems(Job.class)) {
+            try {
+                final List<ScanSummary> latest = ScanHistory.of(job).latest(1);
+                if (latest.isEmpty()) {
+                    continue;
+                }
+                final ScanSummary summary = latest.get(0);
+                final Run<?, ?> run = job.getBuildByNumber(summary.getBuildNumber());
+                final CheckmarxScanResultsAction action = run == null ? null : run.getAction(CheckmarxScanResultsAction.class);
+                rebuilt.put(job.getFullName(), new DashboardEntry(job.getFullName(), job.getUrl(), job.getParent().getFullName(),
+                        action == null ? null : action.getBranchName(), summary.getBuildNumber(), summary.getTimestamp(),
+                        summary.getHigh(), summary.getMedium(), summary.getLow(), summary.getTotal()));
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Skipping the Checkmarx scan history of " + job.getFullName(), e);
+            }
+        }
+        synchronized (this) {
+            // builds completed during the rebuild are kept
+            for (DashboardEntry entry : entries.values()) {
+                final DashboardEntry rebuiltEntry = rebuilt.get(entry.getJobFullName());
+                if (rebuiltEntry == null || rebuiltEntry.getBuildNumber() < entry.getBuildNumber()) {
+                    rebuilt.put(entry.getJobFullName(), entry);
+                }
+            }
+            entries = rebuilt;
+        }
+        save();
+        LOGGER.log(Level.INFO, "Rebuilt the Checkmarx dashboard with {0} jobs", rebuilt.size());
+    }
+
+    private void scheduleSave() {
+        synchronized (this) {
+            if (saveScheduled) {
+                return;
+            }
+            saveScheduled = true;
+        }
+        Timer.get().schedule(() -> {
+            synchronized (this) {
+                saveScheduled = false;
+            }
+            save();
+        }, SAVE_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private synchronized void load() {
+        try {
+            getXmlFile().unmarshal(this);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to load the Checkmarx dashboard, rebuilding it", e);
+            rebuildInBackground();
+        }
+        if (entries == null) {
+            entries = new TreeMap<>();
+        }
+    }
+
+    private synchronized void save() {
+        try {
+            getXmlFile().write(this);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save the Checkmarx dashboard", e);
+        }
+    }
+
+    private XmlFile getXmlFile() {
+        return new XmlFile(Jenkins.XSTREAM2, file);
+    }
+
+    public static class Page {
+        private final List<DashboardEntry> entries;
+        private final int total;
+        private final int offset;
+        private final int limit;
+
+        Page(final List<DashboardEntry> entries, final int total, final int offset, final int limit) {
+            this.entries = Collections.unmodifiableList(entries);
+            this.total = total;
+            this.offset = offset;
+            this.limit = limit;
+        }
+
+        public List<DashboardEntry> getEntries() {
+            return entries;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public boolean hasPrevious() {
+            return offset > 0;
+        }
+
+        public boolean hasNext() {
+            return offset + (long) limit < total;
+        }
+
+        public int getPreviousOffset() {
+            return Math.max(0, offset - limit);
+        }
+
+        public int getNextOffset() {
+            return offset + limit;
+        }
+    }
+
+    /**
+     * Records the scan of each completed build having scan results.
+     */
+    @Extension
+    public static class CompletedBuilds extends RunListener<Run<?, ?>> {
+
+        @Override
+        public void onCompleted(final Run<?, ?> run, @Nonnull final TaskListener listener) {
+            final CheckmarxScanResultsAction action = run.getAction(CheckmarxScanResultsAction.class);
+            if (action != null && action.getScanSummary() != null) {
+                get().update(run, action.getScanSummary(), action.getBranchName());
+            }
+        }
+    }
+
+    /**
+     * Follows the jobs being deleted, renamed or moved.
+     */
+    @Extension
+    public static class Jobs extends ItemListener {
+
+        @Override
+        public void onDeleted(final Item item) {
+            if (item instanceof Job) {
+                get().remove(item.getFullName());
+            }
+        }
+
+        @Override
+        public void onLocationChanged(final Item item, final String oldFullName, final String newFullName) {
+            if (item instanceof Job) {
+                get().move(oldFullName, (Job<?, ?>) item);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.checkmarx.jenkins.exception;
+
+/**
+ * Thrown when the server finished a scan without completing it, i.e. the scan failed or was canceled.
+ */
+public class ScanFailedException extends CheckmarxException {
+
+    public ScanFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,115 @@
+package com.checkmarx.jenkins.history;
+
+import hudson.model.Job;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only history of the scan summaries of a job, one fixed-size record per build, so that the latest builds can
+ * be read from the end of the file without loading any build or artifact.
+ */
+public class ScanHistory {
+
+    public static final String HISTORY_FILE = "checkmarx-history.bin";
+
+    private static final int MAGIC = 0x43584853;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    static final int RECORD_SIZE = 40;
+
+    private final File file;
+
+    public ScanHistory(final File file) {
+        this.file = file;
+    }
+
+    public static ScanHistory of(final Job<?, ?> job) {
+        return new ScanHistory(new File(job.getRootDir(), HISTORY_FILE));
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Appends the summary of a build, dropping a record left incomplete by an interrupted write.
+     */
+    public void append(final ScanSummary summary) throws IOException {
+        synchronized (ScanHistory.class) {
+            try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+                if (out.length() < HEADER_SIZE) {
+                    out.setLength(0);
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                } else {
+                    checkHeader(out);
+                }
+                final long end = HEADER_SIZE + recordCount(out) * RECORD_SIZE;
+                out.setLength(end);
+                out.seek(end);
+                out.writeInt(summary.getBuildNumber());
+                out.writeLong(summary.getTimestamp());
+                out.writeInt(summary.getTotal());
+                out.writeInt(summary.getHigh());
+                out.writeInt(summary.getMedium());
+                out.writeInt(summary.getLow());
+                out.writeInt(summary.getSast());
+                out.writeInt(summary.getSca());
+                out.writeInt(summary.getKics());
+            }
+        }
+    }
+
+    /**
+     * Returns the summaries of the latest builds in build order, a build appended several times counting once with
+     * its last record.
+     *
+     * @param maxBuilds the number of records read from the end of the history
+     */
+    public List<ScanSummary> latest(final int maxBuilds) throws IOException {
+        if (!file.isFile()) {
+            return new ArrayList<>();
+        }
+        final Map<Integer, ScanSummary> summaries = new LinkedHashMap<>();
+        synchronized (ScanHistory.class) {
+            try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+                checkHeader(in);
+                final long count = recordCount(in);
+                final long first = Math.max(0, count - maxBuilds);
+                in.seek(HEADER_SIZE + first * RECORD_SIZE);
+                for (long i = first; i < count; i++) {
+                    final ScanSummary summary = read(in);
+                    summaries.remove(summary.getBuildNumber());
+                    summaries.put(summary.getBuildNumber(), summary);
+                }
+            }
+        }
+        // concurrent builds may complete out of order
+        final List<ScanSummary> latest = new ArrayList<>(summaries.values());
+        latest.sort(Comparator.comparingInt(ScanSummary::getBuildNumber));
+        return latest;
+    }
+
+    private static ScanSummary read(final RandomAccessFile in) throws IOException {
+        return new ScanSummary(in.readInt(), in.readLong(), in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                in.readInt(), in.readInt(), in.readInt());
+    }
+
+    private void checkHeader(final RandomAccessFile in) throws IOException {
+        in.seek(0);
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a Checkmarx scan history: " + file);
+        }
+    }
+
+    private static long recordCount(final RandomAccessFile in) throws IOException {
+        return (in.length() - HEADER_SIZE) / RECORD_SIZE;
+    }
+}
@@ -0,0 +1,111 @@
+package com.checkmarx.jenkins.history;
+
+import com.checkmarx.ast.results.ResultsSummary;
+import hudson.model.Run;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Severity and engine counts of the scan of a build, small enough to be kept with the build and in the job history.
+ */
+@ExportedBean
+public class ScanSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int buildNumber;
+    private final long timestamp;
+    private final int total;
+    private final int high;
+    private final int medium;
+    private final int low;
+    private final int sast;
+    private final int sca;
+    private final int kics;
+
+    public ScanSummary(final int buildNumber, final long timestamp, final int total, final int high, final int medium,
+                       final int low, final int sast, final int sca, final int kics) {
+        this.buildNumber = buildNumber;
+        this.timestamp = timestamp;
+        this.total = total;
+        this.high = high;
+        this.medium = medium;
+        this.low = low;
+        this.sast = sast;
+        this.sca = sca;
+        this.kics = kics;
+    }
+
+    public static ScanSummary of(final Run<?, ?> run, final ResultsSummary results) {
+        return new ScanSummary(run.getNumber(), run.getTimeInMillis(), results.getTotalIssues(), results.getHighIssues(),
+                results.getMediumIssues(), results.getLowIssues(), results.getSastIssues(), results.getScaIssues(),
+                results.getKicsIssues());
+    }
+
+    @Exported
+    public int getBuildNumber() {
+        return buildNumber;
+    }
+
+    @Exported
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Exported
+    public int getTotal() {
+        return total;
+    }
+
+    @Exported
+    public int getHigh() {
+        return high;
+    }
+
+    @Exported
+    public int getMedium() {
+        return medium;
+    }
+
+    @Exported
+    public int getLow() {
+        return low;
+    }
+
+    @Exported
+    public int getSast() {
+        return sast;
+    }
+
+    @Exported
+    public int getSca() {
+        return sca;
+    }
+
+    @Exported
+    public int getKics() {
+        return kics;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ScanSummary)) {
+            return false;
+        }
+        final ScanSummary other = (ScanSummary) o;
+        return buildNumber == other.buildNumber && timestamp == other.timestamp && total == other.total
+                && high == other.high && medium == other.medium && low == other.low
+                && sast == other.sast && sca == other.sca && kics == other.kics;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(buildNumber, timestamp, total, high, medium, low, sast, sca, kics);
+    }
+}
@@ -0,0 +1,66 @@
+package com.checkmarx.jenkins.history;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToIntFunction;
+
+/**
+ * Renders the high, medium and low severity counts of the latest builds as an SVG line chart.
+ */
+public final class TrendChart {
+
+    private static final int WIDTH = 500;
+    private static final int HEIGHT = 200;
+    private static final int MARGIN = 30;
+
+    private TrendChart() {
+        // squid:S1118
+    }
+
+    public static String render(final List<ScanSummary> summaries) {
+        final StringBuilder svg = new StringBuilder(4096);
+        svg.append(String.format(Locale.ENGLISH,
+                "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" viewBox=\"0 0 %d %d\" font-family=\"sans-serif\" font-size=\"10\">",
+                WIDTH, HEIGHT, WIDTH, HEIGHT));
+        if (summaries.isEmpty()) {
+            svg.append(String.format(Locale.ENGLISH, "<text x=\"%d\" y=\"%d\" text-anchor=\"middle\" fill=\"#95939b\">No Checkmarx scans yet</text>",
+                    WIDTH / 2, HEIGHT / 2));
+            return svg.append("</svg>").toString();
+        }
+
+        int max = 1;
+        for (ScanSummary summary : summaries) {
+            max = Math.max(max, Math.max(summary.getHigh(), Math.max(summary.getMedium(), summary.getLow())));
+        }
+
+        // axes, with the maximum count and the first and last build numbers as labels
+        final int bottom = HEIGHT - MARGIN;
+        final int right = WIDTH - MARGIN / 3;
+        svg.append(String.format(Locale.ENGLISH, "<path d=\"M%d %d V%d H%d\" fill=\"none\" stroke=\"#dad8dc\"/>", MARGIN, MARGIN / 3, bottom, right));
+        svg.append(String.format(Locale.ENGLISH, "<text x=\"%d\" y=\"%d\" text-anchor=\"end\" fill=\"#565360\">%d</text>", MARGIN - 4, MARGIN / 3 + 8, max));
+        svg.append(String.format(Locale.ENGLISH, "<text x=\"%d\" y=\"%d\" text-anchor=\"end\" fill=\"#565360\">0</text>", MARGIN - 4, bottom));
+        svg.append(String.format(Locale.ENGLISH, "<text x=\"%d\" y=\"%d\" fill=\"#565360\">#%d</text>", MARGIN, bottom + 14, summaries.get(0).getBuildNumber()));
+        svg.append(String.format(Locale.ENGLISH, "<text x=\"%d\" y=\"%d\" text-anchor=\"end\" fill=\"#565360\">#%d</text>", right, bottom + 14,
+                summaries.get(summaries.size() - 1).getBuildNumber()));
+
+        appendLine(svg, summaries, ScanSummary::getLow, max, "#bdbdbd");
+        appendLine(svg, summaries, ScanSummary::getMedium, max, "#f9ae4d");
+        appendLine(svg, summaries, ScanSummary::getHigh, max, "#f1605d");
+        return svg.append("</svg>").toString();
+    }
+
+    private static void appendLine(final StringBuilder svg, final List<ScanSummary> summaries, final ToIntFunction<ScanSummary> count,
+                                   final int max, final String color) {
+        final double plotWidth = WIDTH - MARGIN / 3.0 - MARGIN;
+        final double plotHeight = HEIGHT - MARGIN - MARGIN / 3.0;
+        final double step = summaries.size() > 1 ? plotWidth / (summaries.size() - 1) : 0;
+
+        svg.append("<polyline fill=\"none\" stroke-width=\"2\" stroke=\"").append(color).append("\" points=\"");
+        for (int i = 0; i < summaries.size(); i++) {
+            final double x = MARGIN + i * step;
+            final double y = HEIGHT - MARGIN - plotHeight * count.applyAsInt(summaries.get(i)) / max;
+            svg.append(String.format(Locale.ENGLISH, "%.1f,%.1f ", x, y));
+        }
+        svg.append("\"/>");
+    }
+}
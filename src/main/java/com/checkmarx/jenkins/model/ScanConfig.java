@@ -1,6 +1,7 @@
 package com.checkmarx.jenkins.model;
 
 import com.checkmarx.jenkins.credentials.CheckmarxApiToken;
+import com.checkmarx.jenkins.credentials.CheckmarxApiTokenPool;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -16,8 +17,13 @@ public class ScanConfig implements Serializable {
     private String baseAuthUrl;
     private String tenantName;
     private CheckmarxApiToken checkmarxToken;
+    // the client of the credentials pool the token was taken from, if any
+    private transient CheckmarxApiTokenPool.Lease client;
+    private String credentialsId;
     private String projectName;
     private String branchName;
     private String additionalOptions;
     private String sourceDirectory;
+    // only the files changed by the pull request are scanned
+    private boolean deltaScan;
 }
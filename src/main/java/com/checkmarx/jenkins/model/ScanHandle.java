@@ -0,0 +1,127 @@
+package com.checkmarx.jenkins.model;
+
+import org.jenkinsci.plugins.scriptsecurity.sandbox.whitelists.Whitelisted;
+
+import java.io.Serializable;
+
+/**
+ * Scan submitted by the <code>checkmarxScanStart</code> step, holding what the <code>checkmarxScanWait</code> step
+ * needs to wait for it and collect its results: the server the scan runs on, the credentials and CLI installation
+ * it was submitted with and the quality gate of the starting step.
+ */
+public class ScanHandle implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String scanId;
+    private final String projectName;
+    private final String branchName;
+    private final String serverUrl;
+    private final String tenantName;
+    private final String baseAuthUrl;
+    private final String credentialsId;
+    private final String installationName;
+    private final boolean deltaScan;
+    private String logLevel;
+    private Integer maxHighFindings;
+    private Integer maxMediumFindings;
+    private Integer maxNewFindings;
+
+    public ScanHandle(final String scanId, final ScanConfig scanConfig, final String installationName) {
+        this.scanId = scanId;
+        this.projectName = scanConfig.getProjectName();
+        this.branchName = scanConfig.getBranchName();
+        this.serverUrl = scanConfig.getServerUrl();
+        this.tenantName = scanConfig.getTenantName();
+        this.baseAuthUrl = scanConfig.getBaseAuthUrl();
+        this.credentialsId = scanConfig.getCredentialsId();
+        this.installationName = installationName;
+        this.deltaScan = scanConfig.isDeltaScan();
+    }
+
+    @Whitelisted
+    public String getScanId() {
+        return scanId;
+    }
+
+    @Whitelisted
+    public String getProjectName() {
+        return projectName;
+    }
+
+    @Whitelisted
+    public String getBranchName() {
+        return branchName;
+    }
+
+    public String getServerUrl() {
+        return serverUrl;
+    }
+
+    public String getTenantName() {
+        return tenantName;
+    }
+
+    public String getBaseAuthUrl() {
+        return baseAuthUrl;
+    }
+
+    public String getCredentialsId() {
+        return credentialsId;
+    }
+
+    public String getInstallationName() {
+        return installationName;
+    }
+
+    public boolean isDeltaScan() {
+        return deltaScan;
+    }
+
+    public String getLogLevel() {
+        return logLevel;
+    }
+
+    public Integer getMaxHighFindings() {
+        return maxHighFindings;
+    }
+
+    public Integer getMaxMediumFindings() {
+        return maxMediumFindings;
+    }
+
+    public Integer getMaxNewFindings() {
+        return maxNewFindings;
+    }
+
+    public void setLogLevel(final String logLevel) {
+        this.logLevel = logLevel;
+    }
+
+    public void setQualityGate(final Integer maxHighFindings, final Integer maxMediumFindings, final Integer maxNewFindings) {
+        this.maxHighFindings = maxHighFindings;
+        this.maxMediumFindings = maxMediumFindings;
+        this.maxNewFindings = maxNewFindings;
+    }
+
+    /**
+     * Returns the configuration of the scan, without its credentials, which are looked up by the waiting step.
+     */
+    public ScanConfig toScanConfig() {
+        final ScanConfig scanConfig = new ScanConfig();
+        scanConfig.setServerUrl(serverUrl);
+        scanConfig.setTenantName(tenantName);
+        scanConfig.setBaseAuthUrl(baseAuthUrl);
+        scanConfig.setCredentialsId(credentialsId);
+        scanConfig.setProjectName(projectName);
+        scanConfig.setBranchName(branchName);
+        scanConfig.setDeltaScan(deltaScan);
+        return scanConfig;
+    }
+
+    @Whitelisted
+    @Override
+    public String toString() {
+        return String.format("Scan %s of %s (%s)", scanId, projectName, branchName);
+    }
+}
@@ -0,0 +1,258 @@
+package com.checkmarx.jenkins.model;
+
+import org.jenkinsci.plugins.scriptsecurity.sandbox.whitelists.Whitelisted;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a Checkmarx scan returned to pipelines, so that they can check the counts without reading the reports.
+ */
+public class ScanResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String scanId;
+    private final String projectName;
+    private final String branchName;
+    private final String riskLevel;
+    private final int total;
+    private final int high;
+    private final int medium;
+    private final int low;
+    private final int sast;
+    private final int sca;
+    private final int kics;
+    private final int newFindings;
+    private final int fixedFindings;
+    private final int baselineBuild;
+    private final String htmlReport;
+    private final String jsonReport;
+    private final String resultsUrl;
+    private final ArrayList<String> qualityGateViolations;
+
+    private ScanResult(final Builder builder) {
+        this.scanId = builder.scanId;
+        this.projectName = builder.projectName;
+        this.branchName = builder.branchName;
+        this.riskLevel = builder.riskLevel;
+        this.total = builder.total;
+        this.high = builder.high;
+        this.medium = builder.medium;
+        this.low = builder.low;
+        this.sast = builder.sast;
+        this.sca = builder.sca;
+        this.kics = builder.kics;
+        this.newFindings = builder.newFindings;
+        this.fixedFindings = builder.fixedFindings;
+        this.baselineBuild = builder.baselineBuild;
+        this.htmlReport = builder.htmlReport;
+        this.jsonReport = builder.jsonReport;
+        this.resultsUrl = builder.resultsUrl;
+        this.qualityGateViolations = builder.qualityGateViolations;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Whitelisted
+    public String getScanId() {
+        return scanId;
+    }
+
+    @Whitelisted
+    public String getProjectName() {
+        return projectName;
+    }
+
+    @Whitelisted
+    public String getBranchName() {
+        return branchName;
+    }
+
+    /**
+     * Returns the risk level computed by the server, e.g. "High Risk".
+     */
+    @Whitelisted
+    public String getRiskLevel() {
+        return riskLevel;
+    }
+
+    @Whitelisted
+    public int getTotal() {
+        return total;
+    }
+
+    @Whitelisted
+    public int getHigh() {
+        return high;
+    }
+
+    @Whitelisted
+    public int getMedium() {
+        return medium;
+    }
+
+    @Whitelisted
+    public int getLow() {
+        return low;
+    }
+
+    @Whitelisted
+    public int getSast() {
+        return sast;
+    }
+
+    @Whitelisted
+    public int getSca() {
+        return sca;
+    }
+
+    @Whitelisted
+    public int getKics() {
+        return kics;
+    }
+
+    /**
+     * Returns the number of findings absent from the baseline build, or 0 when there is no baseline.
+     */
+    @Whitelisted
+    public int getNewFindings() {
+        return newFindings;
+    }
+
+    /**
+     * Returns the number of findings of the baseline build the scan no longer has, or 0 when there is no baseline.
+     */
+    @Whitelisted
+    public int getFixedFindings() {
+        return fixedFindings;
+    }
+
+    /**
+     * Returns the number of the build the findings were compared with, or 0 when there is none.
+     */
+    @Whitelisted
+    public int getBaselineBuild() {
+        return baselineBuild;
+    }
+
+    /**
+     * Returns the path of the archived HTML report among the artifacts of the build, or null.
+     */
+    @Whitelisted
+    public String getHtmlReport() {
+        return htmlReport;
+    }
+
+    /**
+     * Returns the path of the archived JSON report among the artifacts of the build, or null.
+     */
+    @Whitelisted
+    public String getJsonReport() {
+        return jsonReport;
+    }
+
+    /**
+     * Returns the URL of the results page of the build, relative to the Jenkins root URL.
+     */
+    @Whitelisted
+    public String getResultsUrl() {
+        return resultsUrl;
+    }
+
+    /**
+     * Returns whether the thresholds of the step passed, true when it has none.
+     */
+    @Whitelisted
+    public boolean isQualityGatePassed() {
+        return qualityGateViolations.isEmpty();
+    }
+
+    /**
+     * Returns the thresholds exceeded by the scan, empty when the quality gate passed.
+     */
+    @Whitelisted
+    public List<String> getQualityGateViolations() {
+        return Collections.unmodifiableList(qualityGateViolations);
+    }
+
+    @Whitelisted
+    @Override
+    public String toString() {
+        return String.format("Scan %s: %s, %d findings (%d high, %d medium, %d low)", scanId, riskLevel, total, high, medium, low);
+    }
+
+    public static final class Builder {
+        private String scanId;
+        private String projectName;
+        private String branchName;
+        private String riskLevel;
+        private int total;
+        private int high;
+        private int medium;
+        private int low;
+        private int sast;
+        private int sca;
+        private int kics;
+        private int newFindings;
+        private int fixedFindings;
+        private int baselineBuild;
+        private String htmlReport;
+        private String jsonReport;
+        private String resultsUrl;
+        private ArrayList<String> qualityGateViolations = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder scan(final String scanId, final String projectName, final String branchName) {
+            this.scanId = scanId;
+            this.projectName = projectName;
+            this.branchName = branchName;
+            return this;
+        }
+
+        public Builder severities(final String riskLevel, final int total, final int high, final int medium, final int low) {
+            this.riskLevel = riskLevel;
+            this.total = total;
+            this.high = high;
+            this.medium = medium;
+            this.low = low;
+            return this;
+        }
+
+        public Builder engines(final int sast, final int sca, final int kics) {
+            this.sast = sast;
+            this.sca = sca;
+            this.kics = kics;
+            return this;
+        }
+
+        public Builder comparison(final int baselineBuild, final int newFindings, final int fixedFindings) {
+            this.baselineBuild = baselineBuild;
+            this.newFindings = newFindings;
+            this.fixedFindings = fixedFindings;
+            return this;
+        }
+
+        public Builder reports(final String htmlReport, final String jsonReport, final String resultsUrl) {
+            this.htmlReport = htmlReport;
+            this.jsonReport = jsonReport;
+            this.resultsUrl = resultsUrl;
+            return this;
+        }
+
+        public Builder qualityGate(final List<String> violations) {
+            this.qualityGateViolations = new ArrayList<>(violations);
+            return this;
+        }
+
+        public ScanResult build() {
+            return new ScanResult(this);
+        }
+    }
+}
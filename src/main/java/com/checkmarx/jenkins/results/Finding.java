@@ -0,0 +1,60 @@
+package com.checkmarx.jenkins.results;
+
+/**
+ * One finding of a scan, as read back from the results index.
+ */
+public class Finding {
+
+    private final String engine;
+    private final String severity;
+    private final String state;
+    private final String status;
+    private final String queryName;
+    private final String fileName;
+    private final int line;
+    private final String similarityId;
+
+    Finding(final String engine, final String severity, final String state, final String status,
+            final String queryName, final String fileName, final int line, final String similarityId) {
+        this.engine = engine;
+        this.severity = severity;
+        this.state = state;
+        this.status = status;
+        this.queryName = queryName;
+        this.fileName = fileName;
+        this.line = line;
+        this.similarityId = similarityId;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getQueryName() {
+        return queryName;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public String getSimilarityId() {
+        return similarityId;
+    }
+}
@@ -0,0 +1,84 @@
+package com.checkmarx.jenkins.results;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Stable 64-bit fingerprints of the findings of a build, stored next to the results index as a sorted array so that
+ * two builds can be compared with a single merge pass.
+ * <p>
+ * A finding is identified by its engine and the similarity ID the server computes for it, which survives code
+ * moves; findings without a similarity ID fall back to their query and file names.
+ */
+public final class FindingFingerprints {
+
+    private static final int MAGIC = 0x43584650;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private FindingFingerprints() {
+        // squid:S1118
+    }
+
+    public static long fingerprint(final String engine, final String queryName, final String fileName, final String similarityId) {
+        long hash = hash(FNV_OFFSET_BASIS, engine);
+        if (similarityId.isEmpty()) {
+            hash = hash(hash(hash, queryName), fileName);
+        } else {
+            hash = hash(hash, similarityId);
+        }
+        return hash;
+    }
+
+    // FNV-1a over the UTF-8 bytes, each string terminated by a zero byte
+    private static long hash(long hash, final String value) {
+        for (byte b : value.getBytes(UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return hash * FNV_PRIME;
+    }
+
+    /**
+     * Sorts the first {@code count} fingerprints, drops the duplicates and writes them to the file.
+     */
+    public static void write(final long[] fingerprints, final int count, final File file) throws IOException {
+        Arrays.sort(fingerprints, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || fingerprints[i] != fingerprints[distinct - 1]) {
+                fingerprints[distinct++] = fingerprints[i];
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(distinct);
+            for (int i = 0; i < distinct; i++) {
+                out.writeLong(fingerprints[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads the sorted fingerprints of a build.
+     */
+    public static long[] read(final File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a Checkmarx fingerprints file: " + file);
+            }
+            final long[] fingerprints = new long[in.readInt()];
+            for (int i = 0; i < fingerprints.length; i++) {
+                fingerprints[i] = in.readLong();
+            }
+            return fingerprints;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.checkmarx.jenkins.results;
+
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+import java.io.Serializable;
+
+/**
+ * Findings of a build compared with those of a baseline build: new findings only exist in the build, fixed ones
+ * only in the baseline and recurring ones in both.
+ */
+@ExportedBean
+public class FindingsDiff implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int baselineBuild;
+    private final int newFindings;
+    private final int fixedFindings;
+    private final int recurringFindings;
+
+    public FindingsDiff(final int baselineBuild, final int newFindings, final int fixedFindings, final int recurringFindings) {
+        this.baselineBuild = baselineBuild;
+        this.newFindings = newFindings;
+        this.fixedFindings = fixedFindings;
+        this.recurringFindings = recurringFindings;
+    }
+
+    /**
+     * Compares two sorted arrays of distinct fingerprints in one pass.
+     */
+    public static FindingsDiff compare(final int baselineBuild, final long[] baseline, final long[] current) {
+        int added = 0;
+        int fixed = 0;
+        int recurring = 0;
+        int i = 0;
+        int j = 0;
+        while (i < baseline.length && j < current.length) {
+            if (baseline[i] == current[j]) {
+                recurring++;
+                i++;
+                j++;
+            } else if (baseline[i] < current[j]) {
+                fixed++;
+                i++;
+            } else {
+                added++;
+                j++;
+            }
+        }
+        fixed += baseline.length - i;
+        added += current.length - j;
+        return new FindingsDiff(baselineBuild, added, fixed, recurring);
+    }
+
+    @Exported
+    public int getBaselineBuild() {
+        return baselineBuild;
+    }
+
+    @Exported
+    public int getNewFindings() {
+        return newFindings;
+    }
+
+    @Exported
+    public int getFixedFindings() {
+        return fixedFindings;
+    }
+
+    @Exported
+    public int getRecurringFindings() {
+        return recurringFindings;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d new, %d fixed, %d recurring findings compared to build #%d",
+                newFindings, fixedFindings, recurringFindings, baselineBuild);
+    }
+}
@@ -0,0 +1,61 @@
+package com.checkmarx.jenkins.results;
+
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Verdict of the thresholds of a build on the counts of its scan. Only the counts are compared, so the reports
+ * never need to be read again to decide the result of the build.
+ */
+@ExportedBean
+public class QualityGate implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> violations;
+
+    private QualityGate(final List<String> violations) {
+        this.violations = violations;
+    }
+
+    /**
+     * Compares the counts of the scan with the thresholds, null thresholds being unlimited.
+     *
+     * @param diff the comparison with the baseline build, or null when there is none and new findings are not limited
+     */
+    public static QualityGate evaluate(final Integer maxHigh, final Integer maxMedium, final Integer maxNew,
+                                       final int high, final int medium, final FindingsDiff diff) {
+        final List<String> violations = new ArrayList<>();
+        if (maxHigh != null && high > maxHigh) {
+            violations.add(String.format("%d high findings, more than the %d allowed", high, maxHigh));
+        }
+        if (maxMedium != null && medium > maxMedium) {
+            violations.add(String.format("%d medium findings, more than the %d allowed", medium, maxMedium));
+        }
+        if (maxNew != null && diff != null && diff.getNewFindings() > maxNew) {
+            violations.add(String.format("%d new findings since build #%d, more than the %d allowed",
+                    diff.getNewFindings(), diff.getBaselineBuild(), maxNew));
+        }
+        return new QualityGate(violations.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(violations));
+    }
+
+    @Exported
+    public boolean isPassed() {
+        return violations.isEmpty();
+    }
+
+    @Exported
+    public List<String> getViolations() {
+        return violations;
+    }
+
+    @Override
+    public String toString() {
+        return isPassed() ? "passed" : "failed: " + String.join("; ", violations);
+    }
+}
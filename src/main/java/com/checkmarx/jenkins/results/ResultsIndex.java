@@ -0,0 +1,242 @@
+package com.checkmarx.jenkins.results;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compact per-build index of the findings of a scan.
+ * <p>
+ * The file holds a header, one fixed-width record per finding (engine, severity, state and status codes, then the
+ * query name, file name, line and similarity ID, strings being numbers in the dictionary), the dictionary strings
+ * and finally the offsets of the dictionary strings. Queries scan the records sequentially and only resolve the
+ * strings of the requested page, so their memory does not depend on the number of findings.
+ */
+public class ResultsIndex implements Closeable {
+
+    static final int MAGIC = 0x43585249;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    static final int RECORD_SIZE = 20;
+
+    // the order of the codes is the sort order, the last code stands for any unknown value
+    public static final String[] ENGINES = {"sast", "sca", "kics", "other"};
+    public static final String[] SEVERITIES = {"HIGH", "MEDIUM", "LOW", "INFO", "UNKNOWN"};
+    public static final String[] STATES = {"URGENT", "CONFIRMED", "TO_VERIFY", "PROPOSED_NOT_EXPLOITABLE", "NOT_EXPLOITABLE", "OTHER"};
+    public static final String[] STATUSES = {"NEW", "RECURRENT", "OTHER"};
+
+    public enum Column {
+        ENGINE(0, ENGINES), SEVERITY(1, SEVERITIES), STATE(2, STATES), STATUS(3, STATUSES);
+
+        private final int position;
+        private final String[] values;
+
+        Column(final int position, final String[] values) {
+            this.position = position;
+            this.values = values;
+        }
+
+        public String[] getValues() {
+            return values.clone();
+        }
+    }
+
+    private final File file;
+    private final RandomAccessFile strings;
+    private final int count;
+    private final int stringCount;
+    private final long stringTableOffset;
+
+    private ResultsIndex(final File file) throws IOException {
+        this.file = file;
+        this.strings = new RandomAccessFile(file, "r");
+        try {
+            if (strings.readInt() != MAGIC || strings.readInt() != VERSION) {
+                throw new IOException("Not a Checkmarx results index: " + file);
+            }
+            this.count = strings.readInt();
+            this.stringCount = strings.readInt();
+            this.stringTableOffset = strings.readLong();
+        } catch (IOException e) {
+            strings.close();
+            throw e;
+        }
+    }
+
+    public static ResultsIndex open(final File file) throws IOException {
+        return new ResultsIndex(file);
+    }
+
+    static int code(final String value, final String[] values) {
+        for (int i = 0; i < values.length - 1; i++) {
+            if (values[i].equalsIgnoreCase(value)) {
+                return i;
+            }
+        }
+        return values.length - 1;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the findings matching the filter, ordered by the given column, then by their order in the scan.
+     *
+     * @param filter codes required for each column, -1 matching any value
+     * @param sort   the column to order by, or null to keep the order of the scan
+     */
+    public Page query(final int[] filter, final Column sort, final int offset, final int limit) throws IOException {
+        final int sortPosition = sort == null ? -1 : sort.position;
+        final int buckets = sort == null ? 1 : sort.values.length;
+
+        // a first pass counts the matching findings of each sort value, to only scan the values holding the page
+        final long[] matching = new long[buckets];
+        final byte[] codes = new byte[4];
+        try (DataInputStream records = openRecords()) {
+            for (int i = 0; i < count; i++) {
+                readCodes(records, codes);
+                if (matches(codes, filter)) {
+                    matching[sortPosition < 0 ? 0 : codes[sortPosition]]++;
+                }
+            }
+        }
+
+        long total = 0;
+        for (long bucket : matching) {
+            total += bucket;
+        }
+
+        final List<Finding> rows = new ArrayList<>(Math.max(0, Math.min(limit, 1000)));
+        long skipped = 0;
+        for (int bucket = 0; bucket < buckets && rows.size() < limit; bucket++) {
+            if (skipped + matching[bucket] <= offset) {
+                skipped += matching[bucket];
+                continue;
+            }
+            try (DataInputStream records = openRecords()) {
+                for (int i = 0; i < count && rows.size() < limit; i++) {
+                    readCodes(records, codes);
+                    final boolean inBucket = sortPosition < 0 || codes[sortPosition] == bucket;
+                    if (!inBucket || !matches(codes, filter)) {
+                        skipRecord(records);
+                    } else if (skipped < offset) {
+                        skipped++;
+                        skipRecord(records);
+                    } else {
+                        rows.add(readFinding(records, codes));
+                    }
+                }
+            }
+        }
+        return new Page(rows, total, offset, limit);
+    }
+
+    private DataInputStream openRecords() throws IOException {
+        final InputStream in = Files.newInputStream(file.toPath());
+        final DataInputStream records = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+        records.readFully(new byte[HEADER_SIZE]);
+        return records;
+    }
+
+    private static void readCodes(final DataInputStream records, final byte[] codes) throws IOException {
+        records.readFully(codes);
+    }
+
+    private static void skipRecord(final DataInputStream records) throws IOException {
+        final int remaining = RECORD_SIZE - 4;
+        if (records.skipBytes(remaining) != remaining) {
+            throw new EOFException();
+        }
+    }
+
+    private static boolean matches(final byte[] codes, final int[] filter) {
+        if (filter == null) {
+            return true;
+        }
+        for (int i = 0; i < codes.length && i < filter.length; i++) {
+            if (filter[i] >= 0 && codes[i] != filter[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Finding readFinding(final DataInputStream records, final byte[] codes) throws IOException {
+        final int queryName = records.readInt();
+        final int fileName = records.readInt();
+        final int line = records.readInt();
+        final int similarityId = records.readInt();
+        return new Finding(ENGINES[codes[0]], SEVERITIES[codes[1]], STATES[codes[2]], STATUSES[codes[3]],
+                string(queryName), string(fileName), line, string(similarityId));
+    }
+
+    private String string(final int id) throws IOException {
+        if (id < 0 || id >= stringCount) {
+            return "";
+        }
+        strings.seek(stringTableOffset + (long) id * Long.BYTES);
+        strings.seek(strings.readLong());
+        return strings.readUTF();
+    }
+
+    @Override
+    public void close() throws IOException {
+        strings.close();
+    }
+
+    public static class Page {
+        private final List<Finding> findings;
+        private final long total;
+        private final int offset;
+        private final int limit;
+
+        Page(final List<Finding> findings, final long total, final int offset, final int limit) {
+            this.findings = Collections.unmodifiableList(findings);
+            this.total = total;
+            this.offset = offset;
+            this.limit = limit;
+        }
+
+        public List<Finding> getFindings() {
+            return findings;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public boolean hasPrevious() {
+            return offset > 0;
+        }
+
+        public boolean hasNext() {
+            return offset + (long) limit < total;
+        }
+
+        public int getPreviousOffset() {
+            return Math.max(0, offset - limit);
+        }
+
+        public int getNextOffset() {
+            return offset + limit;
+        }
+    }
+}
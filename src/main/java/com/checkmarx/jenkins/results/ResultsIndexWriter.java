@@ -0,0 +1,200 @@
+package com.checkmarx.jenkins.results;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.checkmarx.jenkins.results.ResultsIndex.*;
+
+/**
+ * Streams the full results JSON of the CLI into a results index. Only one finding is held in memory at a time;
+ * strings are written once to a dictionary and referenced by their number from the fixed-width records. The
+ * fingerprints of the findings can be collected in the same pass.
+ */
+public final class ResultsIndexWriter {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_STRING_LENGTH = 2000;
+
+    private ResultsIndexWriter() {
+        // squid:S1118
+    }
+
+    /**
+     * Indexes the results JSON file and returns the number of findings.
+     */
+    public static int write(final File resultsJson, final File indexFile) throws IOException {
+        return write(resultsJson, indexFile, null);
+    }
+
+    /**
+     * Indexes the results JSON file, writes the fingerprints of the findings unless the fingerprints file is null
+     * and returns the number of findings.
+     */
+    public static int write(final File resultsJson, final File indexFile, final File fingerprintsFile) throws IOException {
+        try (InputStream in = Files.newInputStream(resultsJson.toPath())) {
+            return write(in, indexFile, fingerprintsFile);
+        }
+    }
+
+    public static int write(final InputStream resultsJson, final File indexFile) throws IOException {
+        return write(resultsJson, indexFile, null);
+    }
+
+    public static int write(final InputStream resultsJson, final File indexFile, final File fingerprintsFile) throws IOException {
+        long[] fingerprints = new long[fingerprintsFile == null ? 0 : 1024];
+        final File temporaryFile = new File(indexFile.getPath() + ".tmp");
+        int count = 0;
+        long position = HEADER_SIZE;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)));
+             JsonParser parser = MAPPER.getFactory().createParser(resultsJson)) {
+            out.write(new byte[HEADER_SIZE]);
+
+            // records first, the dictionary is appended once every string is known
+            final Dictionary strings = new Dictionary();
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String field = parser.getCurrentName();
+                    final JsonToken value = parser.nextToken();
+                    if ("results".equals(field) && value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            final JsonNode result = parser.readValueAsTree();
+                            final long fingerprint = writeRecord(out, result, strings);
+                            if (fingerprintsFile != null) {
+                                if (count == fingerprints.length) {
+                                    fingerprints = Arrays.copyOf(fingerprints, count * 2);
+                                }
+                                fingerprints[count] = fingerprint;
+                            }
+                            count++;
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            position += (long) count * RECORD_SIZE;
+
+            final String[] ordered = strings.ordered();
+            final long[] stringOffsets = new long[ordered.length];
+            for (int i = 0; i < ordered.length; i++) {
+                stringOffsets[i] = position;
+                final int before = out.size();
+                out.writeUTF(ordered[i]);
+                position += out.size() - before;
+            }
+            final long stringTableOffset = position;
+            for (int i = 0; i < ordered.length; i++) {
+                out.writeLong(stringOffsets[i]);
+            }
+            out.flush();
+
+            try (RandomAccessFile header = new RandomAccessFile(temporaryFile, "rw")) {
+                header.writeInt(MAGIC);
+                header.writeInt(VERSION);
+                header.writeInt(count);
+                header.writeInt(ordered.length);
+                header.writeLong(stringTableOffset);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryFile.toPath());
+            throw e;
+        }
+
+        Files.deleteIfExists(indexFile.toPath());
+        if (!temporaryFile.renameTo(indexFile)) {
+            throw new IOException("Could not write the results index " + indexFile);
+        }
+        if (fingerprintsFile != null) {
+            FindingFingerprints.write(fingerprints, count, fingerprintsFile);
+        }
+        return count;
+    }
+
+    private static long writeRecord(final DataOutputStream out, final JsonNode result, final Dictionary strings) throws IOException {
+        final JsonNode data = result.path("data");
+        final JsonNode firstNode = data.path("nodes").path(0);
+
+        final String queryName = firstText(data.path("queryName"), data.path("packageIdentifier"), result.path("id"));
+        final String fileName = firstText(firstNode.path("fileName"), data.path("fileName"), data.path("filename"));
+        final int line = firstNode.path("line").asInt(data.path("line").asInt(0));
+        final String engine = normalizeEngine(result.path("type").asText(""));
+        final String similarityId = result.path("similarityId").asText("");
+
+        out.writeByte(code(engine, ENGINES));
+        out.writeByte(code(upperCase(result.path("severity").asText("")), SEVERITIES));
+        out.writeByte(code(upperCase(result.path("state").asText("")), STATES));
+        out.writeByte(code(upperCase(result.path("status").asText("")), STATUSES));
+        out.writeInt(strings.id(queryName));
+        out.writeInt(strings.id(fileName));
+        out.writeInt(line);
+        out.writeInt(strings.id(similarityId));
+        return FindingFingerprints.fingerprint(engine, queryName, fileName, similarityId);
+    }
+
+    static String normalizeEngine(final String type) {
+        final String engine = type.toLowerCase(Locale.ENGLISH);
+        if (engine.equals("sca") || engine.equals("dependency")) {
+            return "sca";
+        }
+        if (engine.equals("kics") || engine.equals("infrastructure")) {
+            return "kics";
+        }
+        return engine;
+    }
+
+    private static String upperCase(final String value) {
+        return value.trim().toUpperCase(Locale.ENGLISH).replace(' ', '_');
+    }
+
+    private static String firstText(final JsonNode... candidates) {
+        for (JsonNode candidate : candidates) {
+            if (candidate.isValueNode() && !candidate.asText().isEmpty()) {
+                return candidate.asText();
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Numbers the distinct strings in order of first appearance.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private String[] ordered = new String[256];
+
+        int id(final String value) {
+            final String truncated = value.length() > MAX_STRING_LENGTH ? value.substring(0, MAX_STRING_LENGTH) : value;
+            final Integer existing = ids.get(truncated);
+            if (existing != null) {
+                return existing;
+            }
+            final int id = ids.size();
+            if (id == ordered.length) {
+                ordered = Arrays.copyOf(ordered, id * 2);
+            }
+            ordered[id] = truncated;
+            ids.put(truncated, id);
+            return id;
+        }
+
+        String[] ordered() {
+            return Arrays.copyOf(ordered, ids.size());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.checkmarx.jenkins.retention;
+
+import com.checkmarx.jenkins.CheckmarxScanBuilder;
+import com.checkmarx.jenkins.CheckmarxScanResultsAction;
+import com.checkmarx.jenkins.PluginUtils;
+import com.checkmarx.jenkins.history.ScanHistory;
+import com.checkmarx.jenkins.history.ScanSummary;
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import jenkins.model.Jenkins;
+import jenkins.model.StandardArtifactManager;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Removes the reports, the findings index and the CLI transcript of the builds falling out of the report retention
+ * policy, keeping their summary, their finding fingerprints and their trend record. Candidates are chosen from the
+ * job scan histories, so only the builds being compacted are loaded, and the work is spread over the runs with a
+ * pause between builds.
+ */
+@Extension
+public class ReportCompaction extends AsyncPeriodicWork {
+
+    static final String MARKER_FILE = "checkmarx-compacted-through";
+    private static final int MAX_BUILDS_PER_RUN = 500;
+    private static final long PAUSE_MILLIS = 100;
+    private static final String[] COMPACTED_ARTIFACTS = {
+            PluginUtils.CHECKMARX_AST_RESULTS_HTML, PluginUtils.CHECKMARX_AST_RESULTS_HTML + PluginUtils.GZIP_EXTENSION,
+            PluginUtils.CHECKMARX_AST_RESULTS_JSON, PluginUtils.CHECKMARX_AST_RESULTS_JSON + PluginUtils.GZIP_EXTENSION,
+            PluginUtils.CHECKMARX_AST_CLI_OUTPUT
+    };
+
+    public ReportCompaction() {
+        super("Checkmarx report compaction");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return HOUR;
+    }
+
+    @Override
+    protected void execute(final TaskListener listener) throws IOException, InterruptedException {
+        final CheckmarxScanBuilder.CheckmarxScanBuilderDescriptor descriptor =
+                Jenkins.get().getDescriptorByType(CheckmarxScanBuilder.CheckmarxScanBuilderDescriptor.class);
+        final int retentionDays = descriptor.getReportRetentionDays();
+        final int retentionBuilds = descriptor.getReportRetentionBuilds();
+        if (retentionDays <= 0 && retentionBuilds <= 0) {
+            return;
+        }
+        final long oldest = retentionDays > 0 ? System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays) : Long.MIN_VALUE;
+
+        int budget = MAX_BUILDS_PER_RUN;
+        try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+            for (Job<?, ?> job : Jenkins.get().allItems(Job.class)) {
+                if (budget <= 0) {
+                    listener.getLogger().println("Compaction budget exhausted, resuming at the next run");
+                    return;
+                }
+                final ScanHistory history = ScanHistory.of(job);
+                if (history.getFile().isFile()) {
+                    budget -= compactJob(job, history, oldest, retentionBuilds, budget, listener);
+                }
+            }
+        }
+    }
+
+    private int compactJob(final Job<?, ?> job, final ScanHistory history, final long oldest, final int retentionBuilds,
+                           final int budget, final TaskListener listener) throws IOException, InterruptedException {
+        final File marker = new File(job.getRootDir(), MARKER_FILE);
+        final List<Integer> candidates = candidates(history.latest(Integer.MAX_VALUE), readMarker(marker), oldest, retentionBuilds);
+        int compacted = 0;
+        for (int buildNumber : candidates) {
+            if (compacted >= budget) {
+                break;
+            }
+            final Run<?, ?> run = job.getBuildByNumber(buildNumber);
+            if (run != null && run.isBuilding()) {
+                break;
+            }
+            if (run != null && compact(run)) {
+                listener.getLogger().println("Compacted the Checkmarx reports of " + run.getFullDisplayName());
+                Thread.sleep(PAUSE_MILLIS);
+            }
+            compacted++;
+            Files.write(marker.toPath(), Integer.toString(buildNumber).getBytes(UTF_8));
+        }
+        return compacted;
+    }
+
+    /**
+     * Returns the builds to compact, in build order: the builds after the marker that are older than the oldest
+     * timestamp kept or beyond the number of builds kept, up to the first build to keep.
+     *
+     * @param summaries the job scan history in build order
+     */
+    static List<Integer> candidates(final List<ScanSummary> summaries, final int compactedThrough, final long oldest, final int retentionBuilds) {
+        final int firstKept = retentionBuilds > 0 ? summaries.size() - retentionBuilds : 0;
+        final List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < summaries.size(); i++) {
+            final ScanSummary summary = summaries.get(i);
+            if (summary.getBuildNumber() <= compactedThrough) {
+                continue;
+            }
+            if (i >= firstKept && summary.getTimestamp() >= oldest) {
+                break;
+            }
+            candidates.add(summary.getBuildNumber());
+        }
+        return candidates;
+    }
+
+    /**
+     * Removes the heavy Checkmarx files of a build and marks its results as compacted.
+     *
+     * @return whether the build had results to compact
+     */
+    static boolean compact(final Run<?, ?> run) throws IOException {
+        final CheckmarxScanResultsAction action = run.getAction(CheckmarxScanResultsAction.class);
+        if (action == null || action.isCompacted()) {
+            return false;
+        }
+        // other artifact managers cannot delete single artifacts, their reports are kept
+        if (run.getArtifactManager() instanceof StandardArtifactManager) {
+            final File[] artifacts = run.getArtifactsDir().listFiles();
+            if (artifacts != null) {
+                for (File artifact : artifacts) {
+                    if (isCompactedArtifact(artifact.getName())) {
+                        FileUtils.forceDelete(artifact);
+                    }
+                }
+            }
+        }
+        Files.deleteIfExists(new File(run.getRootDir(), PluginUtils.CHECKMARX_AST_RESULTS_INDEX).toPath());
+        action.setCompacted(true);
+        run.save();
+        return true;
+    }
+
+    static boolean isCompactedArtifact(final String name) {
+        for (String suffix : COMPACTED_ARTIFACTS) {
+            if (name.endsWith("_" + suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int readMarker(final File marker) {
+        if (!marker.isFile()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(new String(Files.readAllBytes(marker.toPath()), UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.checkmarx.jenkins.scan;
+
+import com.checkmarx.jenkins.exception.CheckmarxException;
+import com.checkmarx.jenkins.model.ScanConfig;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops the calls to a Checkmarx server and tenant after several transient failures in a row, so that the builds
+ * fail fast instead of adding load while the tenant is degraded. Once the server had time to recover, a single call
+ * is let through: its success closes the breaker, its failure opens it again.
+ */
+public final class CircuitBreaker {
+
+    static final int FAILURE_THRESHOLD = 5;
+    static final long OPEN_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    private static final ConcurrentMap<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    private final String server;
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean trialInProgress;
+
+    CircuitBreaker(final String server) {
+        this.server = server;
+    }
+
+    /**
+     * Returns the breaker of the server and tenant of the scan.
+     */
+    public static CircuitBreaker of(final ScanConfig scanConfig) {
+        final String server = StringUtils.defaultString(scanConfig.getServerUrl())
+                + (StringUtils.isBlank(scanConfig.getTenantName()) ? "" : " (tenant " + scanConfig.getTenantName() + ")");
+        return BREAKERS.computeIfAbsent(server, CircuitBreaker::new);
+    }
+
+    /**
+     * Lets a call through, or fails when the breaker is open.
+     */
+    public void before() throws CheckmarxException {
+        before(System.currentTimeMillis());
+    }
+
+    synchronized void before(final long now) throws CheckmarxException {
+        if (consecutiveFailures < FAILURE_THRESHOLD) {
+            return;
+        }
+        if (now < openUntil || trialInProgress) {
+            throw new CheckmarxException(String.format("The Checkmarx server %s failed %d calls in a row, not calling it for %d more second(s).",
+                    server, consecutiveFailures, Math.max(1, TimeUnit.MILLISECONDS.toSeconds(openUntil - now))));
+        }
+        trialInProgress = true;
+    }
+
+    public synchronized void succeeded() {
+        consecutiveFailures = 0;
+        trialInProgress = false;
+    }
+
+    /**
+     * Records a transient failure of a call.
+     */
+    public void failed() {
+        failed(System.currentTimeMillis());
+    }
+
+    synchronized void failed(final long now) {
+        trialInProgress = false;
+        if (++consecutiveFailures >= FAILURE_THRESHOLD) {
+            openUntil = now + OPEN_MILLIS;
+        }
+    }
+
+    /**
+     * Forgets the outcome of a call that failed for a reason unrelated to the health of the server.
+     */
+    public synchronized void ignored() {
+        trialInProgress = false;
+    }
+}
@@ -0,0 +1,210 @@
+package com.checkmarx.jenkins.scan;
+
+import com.checkmarx.ast.wrapper.CxConfig;
+import com.checkmarx.ast.wrapper.CxException;
+import com.checkmarx.jenkins.CxLoggerAdapter;
+import com.checkmarx.jenkins.exception.CheckmarxException;
+import com.checkmarx.jenkins.tracing.Span;
+import com.checkmarx.jenkins.tracing.Tracing;
+import hudson.model.Computer;
+import hudson.util.ProcessTree;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs one phase of the build (installation, scan or report) on a separate thread so that the build can give up
+ * on it when it is aborted or exceeds its timeout. The CLI processes started by the phase are then killed together
+ * with their children, and the phase is given a grace period to clean up, e.g. to cancel its scan on the server.
+ * The <code>scan cancel</code> commands of the cleanup are never killed.
+ */
+public class CliCall {
+
+    private static final long CLEANUP_GRACE_SECONDS = 90;
+
+    public enum Phase {
+        INSTALL, SCAN, REPORT;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ENGLISH);
+        }
+    }
+
+    private final Phase phase;
+    private final long timeout;
+    private final TimeUnit timeoutUnit;
+    private final String executable;
+    private final CxLoggerAdapter log;
+    private final List<String> markers = new CopyOnWriteArrayList<>();
+    private volatile boolean aborted;
+
+    /**
+     * @param timeoutMinutes the phase timeout, or 0 to wait as long as the phase runs
+     * @param executable     the CLI executable whose processes are killed, or null when the phase starts none
+     */
+    public CliCall(final Phase phase, final long timeoutMinutes, final String executable, final CxLoggerAdapter log) {
+        this(phase, timeoutMinutes, TimeUnit.MINUTES, executable, log);
+    }
+
+    CliCall(final Phase phase, final long timeout, final TimeUnit timeoutUnit, final String executable, final CxLoggerAdapter log) {
+        this.phase = phase;
+        this.timeout = timeout;
+        this.timeoutUnit = timeoutUnit;
+        this.executable = executable;
+        this.log = log;
+    }
+
+    /**
+     * Marks the CLI processes having this argument (a source directory or a scan ID) as belonging to the phase.
+     */
+    public void track(final String marker) {
+        if (marker != null) {
+            markers.add(marker);
+        }
+    }
+
+    /**
+     * Tells whether the phase was given up on because the build was aborted or the phase timed out, so that the task
+     * can tell a failure caused by its killed CLI processes from a failure of the server.
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Runs the task and waits for it, in a trace span named after the phase.
+     */
+    public <T> T run(final Task<T> task) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
+        try (Span span = Tracing.start("checkmarx." + phase)) {
+            span.setAttribute("timeout.minutes", timeoutUnit.toMinutes(timeout));
+            try {
+                return runTask(task, span);
+            } catch (InterruptedException e) {
+                span.recordError("aborted");
+                throw e;
+            } catch (IOException | URISyntaxException | CxConfig.InvalidCLIConfigException | CxException | CheckmarxException | RuntimeException e) {
+                span.recordError(e.getMessage());
+                throw e;
+            }
+        }
+    }
+
+    private <T> T runTask(final Task<T> task, final Span parent) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
+        final CountDownLatch finished = new CountDownLatch(1);
+        final Future<T> future = Computer.threadPoolForRemoting.submit(() -> {
+            final Span previous = Tracing.attach(parent);
+            try {
+                return task.call();
+            } finally {
+                Tracing.attach(previous);
+                finished.countDown();
+            }
+        });
+
+        try {
+            return timeout > 0 ? future.get(timeout, timeoutUnit) : future.get();
+        } catch (ExecutionException e) {
+            return rethrow(e.getCause());
+        } catch (TimeoutException e) {
+            log.error(String.format("The %s phase did not finish within %d %s, stopping the Checkmarx CLI.", phase, timeout, unitName()));
+            abort(future, finished);
+            throw new CheckmarxException(String.format("The %s phase timed out after %d %s.", phase, timeout, unitName()));
+        } catch (InterruptedException e) {
+            log.warn(String.format("Build aborted during the %s phase, stopping the Checkmarx CLI.", phase));
+            abort(future, finished);
+            throw e;
+        }
+    }
+
+    private void abort(final Future<?> future, final CountDownLatch finished) throws InterruptedException {
+        aborted = true;
+        future.cancel(true);
+        killProcesses();
+        if (!finished.await(CLEANUP_GRACE_SECONDS, TimeUnit.SECONDS)) {
+            log.warn(String.format("The %s phase did not stop within %d seconds.", phase, CLEANUP_GRACE_SECONDS));
+        }
+    }
+
+    private void killProcesses() throws InterruptedException {
+        if (executable == null || markers.isEmpty()) {
+            return;
+        }
+        for (ProcessTree.OSProcess process : ProcessTree.get()) {
+            final List<String> arguments = process.getArguments();
+            if (!arguments.isEmpty() && arguments.get(0).equals(executable) && isTracked(arguments) && !isCancel(arguments)) {
+                log.info(String.format("Killing Checkmarx CLI process %d.", process.getPid()));
+                process.killRecursively();
+            }
+        }
+    }
+
+    private boolean isTracked(final List<String> arguments) {
+        for (String marker : markers) {
+            if (arguments.contains(marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the cancel command started by the interrupted task carries the scan ID too
+    static boolean isCancel(final List<String> arguments) {
+        final int scan = arguments.indexOf("scan");
+        return scan >= 0 && scan + 1 < arguments.size() && "cancel".equals(arguments.get(scan + 1));
+    }
+
+    // e.g. minute(s)
+    private String unitName() {
+        final String unit = timeoutUnit.name().toLowerCase(Locale.ENGLISH);
+        return unit.substring(0, unit.length() - 1) + "(s)";
+    }
+
+    /**
+     * Throws the failure of the task as it was thrown by the task, wrapping it in an IOException only when the task
+     * cannot throw it. Never returns normally.
+     */
+    private static <T> T rethrow(final Throwable cause) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        }
+        if (cause instanceof InterruptedException) {
+            throw (InterruptedException) cause;
+        }
+        if (cause instanceof URISyntaxException) {
+            throw (URISyntaxException) cause;
+        }
+        if (cause instanceof CxConfig.InvalidCLIConfigException) {
+            throw (CxConfig.InvalidCLIConfigException) cause;
+        }
+        if (cause instanceof CxException) {
+            throw (CxException) cause;
+        }
+        if (cause instanceof CheckmarxException) {
+            throw (CheckmarxException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new IOException(cause);
+    }
+
+    /**
+     * Work of a phase, run on a separate thread.
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+        T call() throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException;
+    }
+}
@@ -0,0 +1,135 @@
+package com.checkmarx.jenkins.scan;
+
+import com.checkmarx.ast.wrapper.CxConfig;
+import com.checkmarx.ast.wrapper.CxException;
+import com.checkmarx.jenkins.CxLoggerAdapter;
+import com.checkmarx.jenkins.credentials.CheckmarxApiTokenPool;
+import com.checkmarx.jenkins.exception.CheckmarxException;
+import com.checkmarx.jenkins.model.ScanConfig;
+
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Calls the Checkmarx server through its circuit breaker, retrying the calls that failed for a transient reason
+ * (throttling, server errors, network failures) after an exponential backoff with full jitter. Only calls that can
+ * be repeated safely, such as reading a scan status or its results, may be retried.
+ * <p>
+ * The server throttles a client rather than the tenant, so throttling does not count towards the circuit breaker.
+ * The throttled client of a credentials pool is left aside instead, and the next attempt uses another client.
+ */
+public final class RetryPolicy {
+
+    static final int MAX_ATTEMPTS = 4;
+    static final long BASE_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(2);
+    static final long MAX_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    private static final Pattern TRANSIENT_PATTERN = Pattern.compile(
+            "(?i)\\b(429|500|502|503|504)\\b|too many requests|rate limit|bad gateway|service unavailable|gateway time-?out"
+                    + "|internal server error|connection (reset|refused|timed out)|timeout|unexpected eof|temporarily unavailable|no such host");
+
+    private RetryPolicy() {
+        // squid:S1118
+    }
+
+    /**
+     * Calls the server once, through its circuit breaker.
+     */
+    public static <T> T callOnce(final String operation, final CircuitBreaker breaker, final CxLoggerAdapter log, final CliCall.Task<T> task) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
+        return call(operation, 1, breaker, null, log, task);
+    }
+
+    /**
+     * Calls the server of the scan once, through its circuit breaker, telling the credentials pool of the scan when
+     * its client is throttled.
+     */
+    public static <T> T callOnce(final String operation, final ScanConfig scanConfig, final CxLoggerAdapter log, final CliCall.Task<T> task) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
+        return call(operation, 1, CircuitBreaker.of(scanConfig), scanConfig, log, task);
+    }
+
+    /**
+     * Calls the server through its circuit breaker, retrying transient failures.
+     */
+    public static <T> T callWithRetries(final String operation, final CircuitBreaker breaker, final CxLoggerAdapter log, final CliCall.Task<T> task) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
+        return call(operation, MAX_ATTEMPTS, breaker, null, log, task);
+    }
+
+    /**
+     * Calls the server of the scan through its circuit breaker, retrying transient failures. A throttled client of
+     * the credentials pool of the scan is replaced by another one, which the task reads from the scan configuration.
+     */
+    public static <T> T callWithRetries(final String operation, final ScanConfig scanConfig, final CxLoggerAdapter log, final CliCall.Task<T> task) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
+        return call(operation, MAX_ATTEMPTS, CircuitBreaker.of(scanConfig), scanConfig, log, task);
+    }
+
+    /**
+     * @param scanConfig the scan configuration holding the client of a credentials pool, or null
+     */
+    private static <T> T call(final String operation, final int maxAttempts, final CircuitBreaker breaker, final ScanConfig scanConfig, final CxLoggerAdapter log, final CliCall.Task<T> task) throws IOException, InterruptedException, URISyntaxException, CxConfig.InvalidCLIConfigException, CxException, CheckmarxException {
+        for (int attempt = 1; ; attempt++) {
+            breaker.before();
+            try {
+                final T result = task.call();
+                breaker.succeeded();
+                return result;
+            } catch (IOException | CxException | CheckmarxException e) {
+                if (!isTransient(e)) {
+                    breaker.ignored();
+                    throw e;
+                }
+                final CheckmarxApiTokenPool.Lease client = scanConfig == null ? null : scanConfig.getClient();
+                final boolean throttled = CheckmarxApiTokenPool.isThrottled(e.getMessage());
+                if (throttled) {
+                    breaker.ignored();
+                    if (client != null) {
+                        client.throttled();
+                    }
+                } else {
+                    breaker.failed();
+                }
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                if (throttled && client != null) {
+                    final String throttledClientId = client.getClientId();
+                    client.rotate();
+                    scanConfig.setCheckmarxToken(client.getToken());
+                    log.warn(String.format("Client ID %s was throttled during %s, attempt %d of %d, retrying with client ID %s.",
+                            throttledClientId, operation, attempt, maxAttempts, client.getClientId()));
+                    continue;
+                }
+                final long delay = delayMillis(attempt, ThreadLocalRandom.current().nextDouble());
+                log.warn(String.format("Transient failure of %s (%s), attempt %d of %d, retrying in %d ms.",
+                        operation, e.getMessage(), attempt, maxAttempts, delay));
+                Thread.sleep(delay);
+            } catch (InterruptedException | URISyntaxException | CxConfig.InvalidCLIConfigException | RuntimeException e) {
+                breaker.ignored();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Returns the delay before the next attempt: a random part of the exponential backoff, so that the builds
+     * failing together do not retry together.
+     *
+     * @param random a random number between 0 and 1
+     */
+    static long delayMillis(final int attempt, final double random) {
+        final long backoff = Math.min(MAX_DELAY_MILLIS, BASE_DELAY_MILLIS << Math.min(attempt - 1, 20));
+        return (long) (backoff * random);
+    }
+
+    static boolean isTransient(final Exception e) {
+        if (e instanceof SocketException || e instanceof SocketTimeoutException || e instanceof UnknownHostException) {
+            return true;
+        }
+        return e.getMessage() != null && TRANSIENT_PATTERN.matcher(e.getMessage()).find();
+    }
+}
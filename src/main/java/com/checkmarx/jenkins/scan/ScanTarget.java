@@ -0,0 +1,120 @@
+package com.checkmarx.jenkins.scan;
+
+import com.checkmarx.jenkins.credentials.CheckmarxApiToken;
+import com.cloudbees.plugins.credentials.common.StandardListBoxModel;
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import hudson.security.ACL;
+import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.verb.POST;
+
+import javax.annotation.Nonnull;
+
+/**
+ * One Checkmarx AST server and tenant of the global pool, with the credentials used to scan on it, its share of the
+ * scans and its concurrency limit.
+ */
+public class ScanTarget extends AbstractDescribableImpl<ScanTarget> {
+
+    private final String name;
+    private final String serverUrl;
+    private final String tenantName;
+    private final String credentialsId;
+    private String baseAuthUrl;
+    private int weight = 1;
+    private int maxConcurrentScans;
+
+    @DataBoundConstructor
+    public ScanTarget(final String name, final String serverUrl, final String tenantName, final String credentialsId) {
+        this.name = Util.fixEmptyAndTrim(name);
+        this.serverUrl = serverUrl;
+        this.tenantName = tenantName;
+        this.credentialsId = credentialsId;
+    }
+
+    public String getName() {
+        return name == null ? serverUrl + "/" + tenantName : name;
+    }
+
+    public String getServerUrl() {
+        return serverUrl;
+    }
+
+    public String getTenantName() {
+        return tenantName;
+    }
+
+    public String getCredentialsId() {
+        return credentialsId;
+    }
+
+    public String getBaseAuthUrl() {
+        return baseAuthUrl;
+    }
+
+    @DataBoundSetter
+    public void setBaseAuthUrl(final String baseAuthUrl) {
+        this.baseAuthUrl = Util.fixEmptyAndTrim(baseAuthUrl);
+    }
+
+    public int getWeight() {
+        return Math.max(1, weight);
+    }
+
+    @DataBoundSetter
+    public void setWeight(final int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Returns the number of scans run at the same time on this target, 0 meaning no limit.
+     */
+    public int getMaxConcurrentScans() {
+        return Math.max(0, maxConcurrentScans);
+    }
+
+    @DataBoundSetter
+    public void setMaxConcurrentScans(final int maxConcurrentScans) {
+        this.maxConcurrentScans = maxConcurrentScans;
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<ScanTarget> {
+
+        @Nonnull
+        @Override
+        public String getDisplayName() {
+            return "Checkmarx scan target";
+        }
+
+        @POST
+        public FormValidation doCheckServerUrl(@QueryParameter final String value) {
+            if (Util.fixEmptyAndTrim(value) == null) {
+                return FormValidation.error("Server Url cannot be empty");
+            }
+            return FormValidation.ok();
+        }
+
+        @POST
+        public FormValidation doCheckWeight(@QueryParameter final int value) {
+            return value < 1 ? FormValidation.error("The weight must be at least 1") : FormValidation.ok();
+        }
+
+        public ListBoxModel doFillCredentialsIdItems(@QueryParameter final String credentialsId) {
+            final StandardListBoxModel result = new StandardListBoxModel();
+            if (!Jenkins.get().hasPermission(Jenkins.ADMINISTER)) {
+                return result.includeCurrentValue(credentialsId);
+            }
+            return result.includeEmptyValue()
+                    .includeAs(ACL.SYSTEM, Jenkins.get(), CheckmarxApiToken.class)
+                    .includeCurrentValue(credentialsId);
+        }
+    }
+}
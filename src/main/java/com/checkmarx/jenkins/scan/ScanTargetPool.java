@@ -0,0 +1,276 @@
+package com.checkmarx.jenkins.scan;
+
+import com.checkmarx.jenkins.CxLoggerAdapter;
+import com.checkmarx.jenkins.exception.CheckmarxException;
+import hudson.XmlFile;
+import jenkins.model.Jenkins;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Chooses the scan target of each build among the targets of the global pool.
+ * <p>
+ * A project keeps scanning on the target of its first scan so that its results stay together. Other projects go to
+ * the healthy target with the fewest scans in progress relative to its weight. A build waits when the chosen target
+ * has reached its concurrency limit. A target failing several scans in a row is taken out of rotation for a while,
+ * then given one scan to recover.
+ * <p>
+ * The lease of a scan started by <code>checkmarxScanStart</code> is held until <code>checkmarxScanWait</code> takes
+ * it over, so that the scan keeps counting toward the limit of its target while the pipeline runs other stages.
+ * A held lease nobody takes over within {@link #HOLD_MILLIS} is released, and held leases do not survive a restart
+ * of the controller, like the scans in progress of the targets.
+ */
+public class ScanTargetPool {
+
+    private static final Logger LOGGER = Logger.getLogger(ScanTargetPool.class.getName());
+    private static final String AFFINITY_FILE = "checkmarx-scan-targets.xml";
+    static final int FAILURE_THRESHOLD = 3;
+    static final long UNHEALTHY_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long WAIT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    static final long HOLD_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+    private static ScanTargetPool instance;
+
+    private transient File file;
+    private transient Map<String, TargetState> states = new HashMap<>();
+    private transient Map<String, HeldLease> heldLeases = new HashMap<>();
+    private TreeMap<String, String> targetsByProject = new TreeMap<>();
+
+    ScanTargetPool(final File file) {
+        this.file = file;
+    }
+
+    public static synchronized ScanTargetPool get() {
+        if (instance == null) {
+            instance = new ScanTargetPool(new File(Jenkins.get().getRootDir(), AFFINITY_FILE));
+            instance.load();
+        }
+        return instance;
+    }
+
+    /**
+     * Chooses the target of a scan of the project and waits until it can take one more scan.
+     *
+     * @throws CheckmarxException when no target is healthy, or when the target of the project is not
+     */
+    public Lease acquire(final List<ScanTarget> targets, final String projectName, final CxLoggerAdapter log) throws InterruptedException, CheckmarxException {
+        boolean waiting = false;
+        synchronized (this) {
+            while (true) {
+                final long now = System.currentTimeMillis();
+                releaseExpired(now);
+                final ScanTarget target = choose(targets, projectName, now);
+                final TargetState state = state(target);
+                if (state.hasCapacity(target)) {
+                    state.outstanding++;
+                    if (!target.getName().equals(targetsByProject.put(projectName, target.getName()))) {
+                        save();
+                    }
+                    return new Lease(target, state);
+                }
+                if (!waiting) {
+                    log.info(String.format("Scan target %s runs %d scans, waiting for one to complete.", target.getName(), state.outstanding));
+                    waiting = true;
+                }
+                wait(WAIT_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Keeps the lease of a started scan, which is no longer released when closed, until {@link #resume} takes it over.
+     */
+    public void hold(final String scanId, final Lease lease) {
+        hold(scanId, lease, HOLD_MILLIS);
+    }
+
+    synchronized void hold(final String scanId, final Lease lease, final long holdMillis) {
+        lease.held = true;
+        heldLeases.put(scanId, new HeldLease(lease, System.currentTimeMillis() + holdMillis));
+    }
+
+    /**
+     * Takes over the lease held for the started scan.
+     *
+     * @return the lease, to be closed once the scan is over, or null when none is held for the scan
+     */
+    public synchronized Lease resume(final String scanId) {
+        releaseExpired(System.currentTimeMillis());
+        final HeldLease heldLease = heldLeases.remove(scanId);
+        if (heldLease == null) {
+            return null;
+        }
+        heldLease.lease.held = false;
+        return heldLease.lease;
+    }
+
+    private void releaseExpired(final long now) {
+        final Iterator<Map.Entry<String, HeldLease>> entries = heldLeases.entrySet().iterator();
+        while (entries.hasNext()) {
+            final Map.Entry<String, HeldLease> entry = entries.next();
+            if (now >= entry.getValue().expiresAt) {
+                entries.remove();
+                LOGGER.log(Level.INFO, "Releasing the scan target {0} of scan {1}, which nobody waited for.",
+                        new Object[]{entry.getValue().lease.getTarget().getName(), entry.getKey()});
+                // the outcome of the scan is unknown, so the health of the target is left as it is
+                entry.getValue().lease.closed = true;
+                release(entry.getValue().lease.state, null);
+            }
+        }
+    }
+
+    private ScanTarget choose(final List<ScanTarget> targets, final String projectName, final long now) throws CheckmarxException {
+        final String affinity = targetsByProject.get(projectName);
+        if (affinity != null) {
+            for (ScanTarget target : targets) {
+                if (target.getName().equals(affinity)) {
+                    if (!state(target).isHealthy(now)) {
+                        throw new CheckmarxException(String.format("Scan target %s of project %s is out of rotation after %d failed scans.",
+                                target.getName(), projectName, state(target).consecutiveFailures));
+                    }
+                    return target;
+                }
+            }
+        }
+
+        ScanTarget best = null;
+        double bestLoad = Double.MAX_VALUE;
+        for (ScanTarget target : targets) {
+            final TargetState state = state(target);
+            if (state.isHealthy(now)) {
+                final double load = (state.outstanding + 1.0) / target.getWeight();
+                if (load < bestLoad) {
+                    best = target;
+                    bestLoad = load;
+                }
+            }
+        }
+        if (best == null) {
+            throw new CheckmarxException("All Checkmarx scan targets are out of rotation after failed scans.");
+        }
+        return best;
+    }
+
+    private TargetState state(final ScanTarget target) {
+        return states.computeIfAbsent(target.getName(), key -> new TargetState());
+    }
+
+    private synchronized void release(final TargetState state, final Boolean succeeded) {
+        state.outstanding--;
+        if (succeeded != null) {
+            if (succeeded) {
+                state.consecutiveFailures = 0;
+                state.unhealthyUntil = 0;
+            } else if (++state.consecutiveFailures >= FAILURE_THRESHOLD) {
+                state.unhealthyUntil = System.currentTimeMillis() + UNHEALTHY_MILLIS;
+            }
+        }
+        notifyAll();
+    }
+
+    private void load() {
+        final XmlFile xmlFile = getXmlFile();
+        if (xmlFile.exists()) {
+            try {
+                xmlFile.unmarshal(this);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to load the Checkmarx scan target of the projects", e);
+            }
+        }
+        if (targetsByProject == null) {
+            targetsByProject = new TreeMap<>();
+        }
+    }
+
+    private void save() {
+        if (file == null) {
+            return;
+        }
+        try {
+            getXmlFile().write(this);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save the Checkmarx scan target of the projects", e);
+        }
+    }
+
+    private XmlFile getXmlFile() {
+        return new XmlFile(Jenkins.XSTREAM2, file);
+    }
+
+    private Object readResolve() {
+        states = new HashMap<>();
+        heldLeases = new HashMap<>();
+        return this;
+    }
+
+    private static final class TargetState {
+        private int outstanding;
+        private int consecutiveFailures;
+        private long unhealthyUntil;
+
+        boolean isHealthy(final long now) {
+            return consecutiveFailures < FAILURE_THRESHOLD || now >= unhealthyUntil;
+        }
+
+        boolean hasCapacity(final ScanTarget target) {
+            return target.getMaxConcurrentScans() == 0 || outstanding < target.getMaxConcurrentScans();
+        }
+    }
+
+    private static final class HeldLease {
+        private final Lease lease;
+        private final long expiresAt;
+
+        HeldLease(final Lease lease, final long expiresAt) {
+            this.lease = lease;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A scan running on a target. The outcome recorded before closing updates the health of the target.
+     */
+    public final class Lease implements AutoCloseable {
+        private final ScanTarget target;
+        private final TargetState state;
+        private Boolean succeeded;
+        private boolean closed;
+        private boolean held;
+
+        Lease(final ScanTarget target, final TargetState state) {
+            this.target = target;
+            this.state = state;
+        }
+
+        public ScanTarget getTarget() {
+            return target;
+        }
+
+        public void succeeded() {
+            succeeded = Boolean.TRUE;
+        }
+
+        public void failed() {
+            succeeded = Boolean.FALSE;
+        }
+
+        @Override
+        public void close() {
+            synchronized (ScanTargetPool.this) {
+                if (!closed && !held) {
+                    closed = true;
+                    release(state, succeeded);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.checkmarx.jenkins.scan;
+
+import com.checkmarx.jenkins.CxLoggerAdapter;
+import com.checkmarx.jenkins.model.ScanConfig;
+import hudson.model.Executor;
+import hudson.model.Result;
+import hudson.model.Run;
+import jenkins.model.CauseOfInterruption;
+import jenkins.util.Timer;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tracks the latest build of each job scanning each project and branch. When a newer build of the job registers
+ * for the same project and branch, the scan of the older build is canceled on the server and the older build is
+ * aborted. An older build registering after a newer one is superseded right away, and the scans of a single build,
+ * e.g. in parallel branches of a pipeline, never supersede each other.
+ */
+public final class SupersededScans {
+
+    private static final Logger LOGGER = Logger.getLogger(SupersededScans.class.getName());
+    private static final ConcurrentMap<String, BuildTickets> LATEST = new ConcurrentHashMap<>();
+
+    private SupersededScans() {
+        // squid:S1118
+    }
+
+    /**
+     * Registers the build as the latest one of its job for its project and branch, superseding the previous build.
+     */
+    public static Ticket register(final ScanConfig scanConfig, final Run<?, ?> run, final CxLoggerAdapter log) {
+        final String key = String.join("|",
+                run.getParent().getFullName(),
+                StringUtils.defaultString(scanConfig.getServerUrl()),
+                StringUtils.defaultString(scanConfig.getTenantName()),
+                StringUtils.defaultString(scanConfig.getProjectName()),
+                StringUtils.defaultString(scanConfig.getBranchName()));
+        return register(key, run.getNumber(), run.getFullDisplayName(), cause -> {
+            final Executor executor = run.getExecutor();
+            if (executor == null) {
+                return false;
+            }
+            executor.interrupt(Result.ABORTED, cause);
+            return true;
+        }, log);
+    }
+
+    static Ticket register(final String key, final int buildNumber, final String displayName, final Interrupter interrupter, final CxLoggerAdapter log) {
+        final Ticket ticket = new Ticket(key, displayName, interrupter);
+        final List<Ticket> superseded = new ArrayList<>();
+        final BuildTickets[] latest = new BuildTickets[1];
+        LATEST.compute(key, (k, previous) -> {
+            if (previous == null || previous.buildNumber < buildNumber) {
+                if (previous != null) {
+                    superseded.addAll(previous.tickets);
+                }
+                latest[0] = new BuildTickets(buildNumber, displayName);
+            } else {
+                latest[0] = previous;
+            }
+            if (latest[0].buildNumber == buildNumber) {
+                latest[0].tickets.add(ticket);
+            }
+            return latest[0];
+        });
+
+        if (latest[0].buildNumber > buildNumber) {
+            log.info("A newer build already scans the same project and branch, this scan is superseded.");
+            ticket.supersede(latest[0].displayName, log);
+        }
+        for (Ticket previous : superseded) {
+            log.info("Superseding the scan of " + previous.getRunDisplayName() + " for the same project and branch.");
+            previous.supersede(displayName, log);
+        }
+        return ticket;
+    }
+
+    /**
+     * Forgets the scan once it is over.
+     */
+    public static void release(final Ticket ticket) {
+        LATEST.computeIfPresent(ticket.key, (k, latest) -> {
+            latest.tickets.remove(ticket);
+            return latest.tickets.isEmpty() ? null : latest;
+        });
+    }
+
+    /**
+     * Cancels a submitted scan on the server.
+     */
+    @FunctionalInterface
+    public interface ScanCanceller {
+        void cancel(String scanId) throws InterruptedException;
+    }
+
+    /**
+     * Aborts a superseded build, returning false when the build is not running on an executor.
+     */
+    @FunctionalInterface
+    interface Interrupter {
+        boolean interrupt(SupersededCause cause);
+    }
+
+    private static final class BuildTickets {
+        private final int buildNumber;
+        private final String displayName;
+        // only read and changed while the map updates the entry
+        private final List<Ticket> tickets = new ArrayList<>();
+
+        BuildTickets(final int buildNumber, final String displayName) {
+            this.buildNumber = buildNumber;
+            this.displayName = displayName;
+        }
+    }
+
+    public static final class Ticket {
+        private final String key;
+        private final String displayName;
+        private final Interrupter interrupter;
+        private String scanId;
+        private ScanCanceller canceller;
+        private String supersededBy;
+
+        Ticket(final String key, final String displayName, final Interrupter interrupter) {
+            this.key = key;
+            this.displayName = displayName;
+            this.interrupter = interrupter;
+        }
+
+        public synchronized boolean isSuperseded() {
+            return supersededBy != null;
+        }
+
+        public synchronized String getSupersededBy() {
+            return supersededBy;
+        }
+
+        String getRunDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * Records the submitted scan. If the build was superseded in the meantime, the scan is canceled right away.
+         */
+        public void scanSubmitted(final String scanId, final ScanCanceller canceller) throws InterruptedException {
+            final boolean superseded;
+            synchronized (this) {
+                this.scanId = scanId;
+                this.canceller = canceller;
+                superseded = supersededBy != null;
+            }
+            if (superseded) {
+                canceller.cancel(scanId);
+            }
+        }
+
+        /**
+         * Aborts the build, which cancels its own scan on the server. The scan is only canceled here, in the
+         * background, when the build is not running on an executor any more.
+         */
+        private void supersede(final String newerBuild, final CxLoggerAdapter log) {
+            final String submittedScanId;
+            final ScanCanceller submittedCanceller;
+            synchronized (this) {
+                if (supersededBy != null) {
+                    return;
+                }
+                supersededBy = newerBuild;
+                submittedScanId = scanId;
+                submittedCanceller = canceller;
+            }
+
+            if (!interrupter.interrupt(new SupersededCause(newerBuild)) && submittedScanId != null) {
+                log.info("Canceling scan " + submittedScanId + " of " + displayName + ".");
+                Timer.get().submit(() -> {
+                    try {
+                        submittedCanceller.cancel(submittedScanId);
+                    } catch (InterruptedException e) {
+                        LOGGER.log(Level.FINE, "Interrupted while canceling scan " + submittedScanId, e);
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Explains in the aborted build which build superseded it.
+     */
+    public static final class SupersededCause extends CauseOfInterruption {
+        private static final long serialVersionUID = 1L;
+
+        private final String newerBuild;
+
+        SupersededCause(final String newerBuild) {
+            this.newerBuild = newerBuild;
+        }
+
+        @Override
+        public String getShortDescription() {
+            return "Checkmarx scan superseded by " + newerBuild;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.checkmarx.jenkins.tools;
 
 import com.checkmarx.jenkins.CxLoggerAdapter;
 import com.checkmarx.jenkins.tools.internal.DownloadService;
+import com.checkmarx.jenkins.tracing.Span;
+import com.checkmarx.jenkins.tracing.Tracing;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Functions;
@@ -55,15 +57,21 @@ public class CheckmarxInstaller extends ToolInstaller {
     public FilePath performInstallation(ToolInstallation toolInstallation, Node node, TaskListener taskListener) throws IOException, InterruptedException {
         log = new CxLoggerAdapter(taskListener.getLogger());
 
-        FilePath expected = preferredLocation(toolInstallation, node);
+        try (Span span = Tracing.start("checkmarx.cli.install")) {
+            span.setAttribute("cli.version", fixEmptyAndTrim(version))
+                    .setAttribute("jenkins.node", node.getDisplayName());
+            FilePath expected = preferredLocation(toolInstallation, node);
 
-        if (isUpToDate(expected, log)) {
-            log.info("Checkmarx installation is UP-TO-DATE");
-            return expected;
-        }
-        log.info("Installing Checkmarx AST CLI tool (version '" + fixEmptyAndTrim(version) + "')");
+            boolean upToDate = isUpToDate(expected, log);
+            span.setAttribute("cli.up_to_date", upToDate);
+            if (upToDate) {
+                log.info("Checkmarx installation is UP-TO-DATE");
+                return expected;
+            }
+            log.info("Installing Checkmarx AST CLI tool (version '" + fixEmptyAndTrim(version) + "')");
 
-        return installCheckmarxCliAsSingleBinary(expected, node, taskListener);
+            return installCheckmarxCliAsSingleBinary(expected, node, taskListener);
+        }
     }
 
     private boolean isUpToDate(FilePath expectedLocation, CxLoggerAdapter log) throws IOException, InterruptedException {
@@ -103,10 +111,13 @@ public class CheckmarxInstaller extends ToolInstaller {
             URL checkmarxDownloadUrl = DownloadService.getDownloadUrlForCli(version, platform);
 
             expected.mkdirs();
-            nodeChannel.call(new Downloader(checkmarxDownloadUrl,
+            long downloadedBytes = nodeChannel.call(new Downloader(checkmarxDownloadUrl,
                     expected.child(DownloadService.buildFileName(version, platform)),
                     expected.child(platform.checkmarxWrapperFileName)
             ));
+            Tracing.current()
+                    .setAttribute("cli.platform", platform.name())
+                    .setAttribute("download.bytes", downloadedBytes);
 
             expected.child(INSTALLED_FROM).write(checkmarxDownloadUrl.toString(), UTF_8.name());
             expected.child(TIMESTAMP_FILE).write(valueOf(Instant.now().toEpochMilli()), UTF_8.name());
@@ -159,7 +170,7 @@ public class CheckmarxInstaller extends ToolInstaller {
         }
     }
 
-    private static class Downloader extends MasterToSlaveCallable<Void, IOException> {
+    private static class Downloader extends MasterToSlaveCallable<Long, IOException> {
         private static final long serialVersionUID = 1L;
 
         private final URL downloadUrl;
@@ -173,9 +184,10 @@ public class CheckmarxInstaller extends ToolInstaller {
         }
 
         @Override
-        public Void call() throws IOException {
+        public Long call() throws IOException {
             final File downloadedFile = new File(output.getRemote());
             FileUtils.copyURLToFile(downloadUrl, downloadedFile, 10000, 10000);
+            final long downloadedBytes = downloadedFile.length();
 
             try {
                 extract(downloadedFile.getAbsolutePath(), downloadedFile.getParent());
@@ -192,7 +204,7 @@ public class CheckmarxInstaller extends ToolInstaller {
                     throw new IOException(format("Could not set executable flag for the file: %s", downloadedFile.getAbsolutePath()));
                 }
             }
-            return null;
+            return downloadedBytes;
         }
 
         public static void extract(String srcFile, String dest) throws ArchiveException, IOException, CompressorException {
@@ -0,0 +1,38 @@
+package com.checkmarx.jenkins.tracing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Appends each trace to a local file as one OTLP/JSON document per line, for environments without a collector.
+ */
+public class FileSpanExporter implements SpanExporter {
+
+    private static final Object LOCK = new Object();
+
+    private final File file;
+
+    public FileSpanExporter(final File file) {
+        this.file = file;
+    }
+
+    @Override
+    public void export(final List<Span> spans) throws IOException {
+        final byte[] line = (OtlpJson.encode(spans) + "\n").getBytes(UTF_8);
+        synchronized (LOCK) {
+            final File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                Files.createDirectories(parent.toPath());
+            }
+            try (OutputStream out = Files.newOutputStream(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(line);
+            }
+        }
+    }
+}
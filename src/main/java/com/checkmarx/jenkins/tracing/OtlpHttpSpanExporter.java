@@ -0,0 +1,47 @@
+package com.checkmarx.jenkins.tracing;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Exports traces to an OTLP/HTTP collector using the JSON encoding, e.g. {@code http://collector:4318/v1/traces}.
+ */
+public class OtlpHttpSpanExporter implements SpanExporter {
+
+    private static final int TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(10);
+
+    private final String endpoint;
+
+    public OtlpHttpSpanExporter(final String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    @Override
+    public void export(final List<Span> spans) throws IOException {
+        final byte[] body = OtlpJson.encode(spans).getBytes(UTF_8);
+        final HttpURLConnection connection = (HttpURLConnection) new URL(endpoint).openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+            final int responseCode = connection.getResponseCode();
+            if (responseCode < 200 || responseCode >= 300) {
+                throw new IOException("The OTLP endpoint " + endpoint + " answered with HTTP " + responseCode);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.checkmarx.jenkins.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes spans as an OTLP/JSON {@code ExportTraceServiceRequest}.
+ */
+final class OtlpJson {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String SERVICE_NAME = "jenkins-checkmarx-ast-scanner";
+    private static final String SCOPE_NAME = "com.checkmarx.jenkins";
+    private static final int SPAN_KIND_INTERNAL = 1;
+    private static final int STATUS_CODE_OK = 1;
+    private static final int STATUS_CODE_ERROR = 2;
+
+    private OtlpJson() {
+        // squid:S1118
+    }
+
+    static String encode(final List<Span> spans) {
+        final ObjectNode request = MAPPER.createObjectNode();
+        final ObjectNode resourceSpans = request.putArray("resourceSpans").addObject();
+        addAttribute(resourceSpans.putObject("resource").putArray("attributes"), "service.name", SERVICE_NAME);
+
+        final ObjectNode scopeSpans = resourceSpans.putArray("scopeSpans").addObject();
+        scopeSpans.putObject("scope").put("name", SCOPE_NAME);
+        final ArrayNode encodedSpans = scopeSpans.putArray("spans");
+        for (Span span : spans) {
+            final ObjectNode encoded = encodedSpans.addObject();
+            encoded.put("traceId", span.getTraceId());
+            encoded.put("spanId", span.getSpanId());
+            if (span.getParentSpanId() != null) {
+                encoded.put("parentSpanId", span.getParentSpanId());
+            }
+            encoded.put("name", span.getName());
+            encoded.put("kind", SPAN_KIND_INTERNAL);
+            // 64-bit integers are encoded as strings in OTLP/JSON
+            encoded.put("startTimeUnixNano", String.valueOf(span.getStartEpochNanos()));
+            encoded.put("endTimeUnixNano", String.valueOf(span.getEndEpochNanos()));
+
+            final ArrayNode attributes = encoded.putArray("attributes");
+            for (Map.Entry<String, Object> attribute : span.getAttributes().entrySet()) {
+                addAttribute(attributes, attribute.getKey(), attribute.getValue());
+            }
+
+            final ObjectNode status = encoded.putObject("status");
+            if (span.getErrorMessage() != null) {
+                status.put("code", STATUS_CODE_ERROR);
+                status.put("message", span.getErrorMessage());
+            } else {
+                status.put("code", STATUS_CODE_OK);
+            }
+        }
+        return request.toString();
+    }
+
+    private static void addAttribute(final ArrayNode attributes, final String key, final Object value) {
+        final ObjectNode attribute = attributes.addObject();
+        attribute.put("key", key);
+        final ObjectNode encodedValue = attribute.putObject("value");
+        if (value instanceof Boolean) {
+            encodedValue.put("boolValue", (Boolean) value);
+        } else if (value instanceof Integer || value instanceof Long) {
+            encodedValue.put("intValue", String.valueOf(value));
+        } else if (value instanceof Number) {
+            encodedValue.put("doubleValue", ((Number) value).doubleValue());
+        } else {
+            encodedValue.put("stringValue", String.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.checkmarx.jenkins.tracing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A timed operation of a build, nested in the span that was current on the thread when it started.
+ * Spans are closed with try-with-resources on the thread that started them.
+ */
+public class Span implements AutoCloseable {
+
+    static final Span NOOP = new Span(null, "noop", null, null);
+
+    private final Trace trace;
+    private final String name;
+    private final String spanId;
+    private final String parentSpanId;
+    private final long startEpochNanos;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private long endEpochNanos;
+    private String errorMessage;
+    private Span previous;
+
+    Span(final Trace trace, final String name, final String spanId, final String parentSpanId) {
+        this.trace = trace;
+        this.name = name;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.startEpochNanos = Tracing.nowEpochNanos();
+    }
+
+    public boolean isRecording() {
+        return trace != null;
+    }
+
+    public synchronized Span setAttribute(final String key, final Object value) {
+        if (isRecording() && value != null) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * Marks the span as failed.
+     */
+    public synchronized void recordError(final String message) {
+        if (isRecording()) {
+            errorMessage = message == null ? "" : message;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!isRecording()) {
+            return;
+        }
+        synchronized (this) {
+            if (endEpochNanos != 0) {
+                return;
+            }
+            endEpochNanos = Tracing.nowEpochNanos();
+        }
+        Tracing.attach(previous);
+        trace.finished(this);
+    }
+
+    Trace getTrace() {
+        return trace;
+    }
+
+    void setPrevious(final Span previous) {
+        this.previous = previous;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTraceId() {
+        return trace == null ? null : trace.getTraceId();
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    public synchronized long getEndEpochNanos() {
+        return endEpochNanos;
+    }
+
+    public synchronized Map<String, Object> getAttributes() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(attributes));
+    }
+
+    public synchronized String getErrorMessage() {
+        return errorMessage;
+    }
+}
@@ -0,0 +1,12 @@
+package com.checkmarx.jenkins.tracing;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Sends the spans of a finished trace to a tracing backend.
+ */
+@FunctionalInterface
+public interface SpanExporter {
+    void export(List<Span> spans) throws IOException;
+}
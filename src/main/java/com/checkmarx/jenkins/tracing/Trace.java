@@ -0,0 +1,49 @@
+package com.checkmarx.jenkins.tracing;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects the finished spans of one build step and exports them together when the root span ends.
+ */
+class Trace {
+
+    private static final Logger LOGGER = Logger.getLogger(Trace.class.getName());
+
+    private final String traceId;
+    private final SpanExporter exporter;
+    private final List<Span> finished = new ArrayList<>();
+    private Span root;
+
+    Trace(final String traceId, final SpanExporter exporter) {
+        this.traceId = traceId;
+        this.exporter = exporter;
+    }
+
+    String getTraceId() {
+        return traceId;
+    }
+
+    synchronized void setRoot(final Span root) {
+        this.root = root;
+    }
+
+    void finished(final Span span) {
+        final List<Span> spans;
+        synchronized (this) {
+            finished.add(span);
+            if (span != root) {
+                return;
+            }
+            spans = new ArrayList<>(finished);
+        }
+        try {
+            exporter.export(spans);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to export the Checkmarx scan trace " + traceId, e);
+        }
+    }
+}
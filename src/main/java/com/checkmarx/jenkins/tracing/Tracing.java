@@ -0,0 +1,95 @@
+package com.checkmarx.jenkins.tracing;
+
+import hudson.Util;
+
+import java.io.File;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point of the build tracing. A trace is started by the build step when an exporter is configured;
+ * code running on the same thread, or on a thread the current span was attached to, then nests its spans in it.
+ * Without a trace, every span is a no-op.
+ */
+public final class Tracing {
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private Tracing() {
+        // squid:S1118
+    }
+
+    /**
+     * Returns the exporter configured by an OTLP/HTTP endpoint or a file path, or null when tracing is disabled.
+     * The endpoint takes precedence over the file.
+     */
+    public static SpanExporter exporter(final String otlpEndpoint, final String file) {
+        if (Util.fixEmptyAndTrim(otlpEndpoint) != null) {
+            return new OtlpHttpSpanExporter(otlpEndpoint.trim());
+        }
+        if (Util.fixEmptyAndTrim(file) != null) {
+            return new FileSpanExporter(new File(file.trim()));
+        }
+        return null;
+    }
+
+    /**
+     * Starts the root span of a new trace, or a no-op span when the exporter is null.
+     */
+    public static Span startTrace(final String name, final SpanExporter exporter) {
+        if (exporter == null) {
+            return Span.NOOP;
+        }
+        final Trace trace = new Trace(randomHex(16), exporter);
+        final Span root = new Span(trace, name, randomHex(8), null);
+        trace.setRoot(root);
+        root.setPrevious(attach(root));
+        return root;
+    }
+
+    /**
+     * Starts a span nested in the current span of the thread.
+     */
+    public static Span start(final String name) {
+        final Span parent = CURRENT.get();
+        if (parent == null || !parent.isRecording()) {
+            return Span.NOOP;
+        }
+        final Span span = new Span(parent.getTrace(), name, randomHex(8), parent.getSpanId());
+        span.setPrevious(attach(span));
+        return span;
+    }
+
+    /**
+     * Returns the current span of the thread, or a no-op span when no trace is running.
+     */
+    public static Span current() {
+        final Span span = CURRENT.get();
+        return span == null ? Span.NOOP : span;
+    }
+
+    /**
+     * Makes the span current on this thread and returns the span it replaces.
+     */
+    public static Span attach(final Span span) {
+        final Span previous = CURRENT.get();
+        if (span == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(span);
+        }
+        return previous;
+    }
+
+    static long nowEpochNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    }
+
+    private static String randomHex(final int bytes) {
+        final StringBuilder hex = new StringBuilder(bytes * 2);
+        for (int i = 0; i < bytes; i++) {
+            hex.append(String.format("%02x", ThreadLocalRandom.current().nextInt(256)));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package com.checkmarx.jenkins.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scan completion callbacks sent by the server. A callback is the JSON object <code>{"scanId": "..."}</code>, signed
+ * with the HMAC-SHA256 of the body keyed by the shared secret and sent hex-encoded as
+ * <code>X-Checkmarx-Signature: sha256=...</code>. A callback only wakes the builds waiting for the scan, which then
+ * ask the server for its status, so the status of a scan is never taken from a callback.
+ */
+public final class ScanCallbacks {
+
+    public static final String SIGNATURE_HEADER = "X-Checkmarx-Signature";
+    public static final int MAX_PAYLOAD_BYTES = 64 * 1024;
+
+    private static final String SIGNATURE_PREFIX = "sha256=";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ConcurrentMap<String, Set<Waiter>> WAITERS = new ConcurrentHashMap<>();
+
+    private ScanCallbacks() {
+        // squid:S1118
+    }
+
+    /**
+     * Returns the signature header value of the payload, as the server computes it.
+     */
+    public static String sign(final String secret, final byte[] payload) {
+        try {
+            final Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            final StringBuilder signature = new StringBuilder(SIGNATURE_PREFIX);
+            for (byte b : mac.doFinal(payload)) {
+                signature.append(String.format("%02x", b));
+            }
+            return signature.toString();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    /**
+     * Checks the signature header of the payload in constant time.
+     */
+    public static boolean verify(final String secret, final byte[] payload, final String signature) {
+        if (secret == null || secret.isEmpty() || signature == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(secret, payload).getBytes(StandardCharsets.US_ASCII),
+                signature.trim().toLowerCase(Locale.ENGLISH).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Returns the scan ID of the callback.
+     *
+     * @throws IOException when the payload is not a callback
+     */
+    public static String scanId(final byte[] payload) throws IOException {
+        final JsonNode scanId = MAPPER.readTree(payload).path("scanId");
+        if (!scanId.isTextual()) {
+            throw new IOException("No scanId in the callback.");
+        }
+        try {
+            return UUID.fromString(scanId.asText()).toString();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid scanId in the callback: " + scanId.asText());
+        }
+    }
+
+    /**
+     * Starts listening for the callbacks of the scan. The waiter has to be closed once the scan is over.
+     */
+    public static Waiter watch(final String scanId) {
+        final Waiter waiter = new Waiter(scanId);
+        // added within the update of the map, so that a concurrent close cannot drop the set of the waiter
+        WAITERS.compute(scanId, (id, waiters) -> {
+            final Set<Waiter> scanWaiters = waiters == null ? new CopyOnWriteArraySet<>() : waiters;
+            scanWaiters.add(waiter);
+            return scanWaiters;
+        });
+        return waiter;
+    }
+
+    /**
+     * Wakes the builds waiting for the scan.
+     *
+     * @return the number of waiting builds
+     */
+    public static int completed(final String scanId) {
+        final Set<Waiter> waiters = WAITERS.get(scanId);
+        if (waiters == null) {
+            return 0;
+        }
+        for (Waiter waiter : waiters) {
+            waiter.signal();
+        }
+        return waiters.size();
+    }
+
+    public static final class Waiter implements AutoCloseable {
+        private final String scanId;
+        private boolean signalled;
+
+        private Waiter(final String scanId) {
+            this.scanId = scanId;
+        }
+
+        /**
+         * Waits for a callback of the scan received since the previous wait, up to the given time.
+         *
+         * @return whether a callback was received
+         */
+        public synchronized boolean await(final long timeoutMillis) throws InterruptedException {
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (!signalled) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            signalled = false;
+            return true;
+        }
+
+        synchronized void signal() {
+            signalled = true;
+            notifyAll();
+        }
+
+        @Override
+        public void close() {
+            WAITERS.computeIfPresent(scanId, (id, waiters) -> {
+                waiters.remove(this);
+                return waiters.isEmpty() ? null : waiters;
+            });
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.checkmarx.jenkins.workspace;
+
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Copies the files changed against the merge base of the pull request target, plus every dependency manifest,
+ * into a staging directory that is uploaded instead of the whole workspace.
+ * Runs on the agent that holds the workspace.
+ */
+public class DeltaSourceCollector extends MasterToSlaveFileCallable<DeltaSourceCollector.Result> {
+
+    private static final long serialVersionUID = 1L;
+    private static final long GIT_TIMEOUT_SECONDS = 120;
+
+    private final String targetBranch;
+    private final String stagingDirectory;
+
+    public DeltaSourceCollector(final String targetBranch, final String stagingDirectory) {
+        this.targetBranch = targetBranch;
+        this.stagingDirectory = stagingDirectory;
+    }
+
+    @Override
+    public Result invoke(final File workspace, final VirtualChannel channel) throws IOException, InterruptedException {
+        // the SCM changeset only holds the changes since the previous build, not the whole pull request
+        final List<String> changedPaths = gitChangedPaths(workspace);
+        if (changedPaths == null) {
+            return Result.unavailable("could not compute the merge base with " + targetBranch);
+        }
+        final String origin = "git diff against the merge base with " + targetBranch;
+
+        final File staging = new File(stagingDirectory);
+        FileUtils.deleteDirectory(staging);
+        if (!staging.mkdirs()) {
+            throw new IOException(format("Could not create the delta staging directory: %s", staging.getAbsolutePath()));
+        }
+
+        final Path root = workspace.toPath();
+        final Path realRoot = root.toRealPath();
+        int changedFiles = 0;
+        for (String changedPath : changedPaths) {
+            final Path source = root.resolve(changedPath).normalize();
+            if (isInWorkspace(root, realRoot, source) && copy(root, source, staging.toPath())) {
+                changedFiles++;
+            }
+        }
+
+        int manifests = 0;
+        for (Path manifest : findManifests(root)) {
+            if (copy(root, manifest, staging.toPath())) {
+                manifests++;
+            }
+        }
+
+        return new Result(staging.getAbsolutePath(), origin, changedFiles, manifests, null);
+    }
+
+    /**
+     * Returns the paths changed between the merge base with the target branch and HEAD, or null when git cannot tell.
+     */
+    private List<String> gitChangedPaths(final File workspace) throws InterruptedException {
+        String mergeBase = runGit(workspace, "merge-base", "HEAD", "origin/" + targetBranch);
+        if (mergeBase == null) {
+            mergeBase = runGit(workspace, "merge-base", "HEAD", targetBranch);
+        }
+        if (mergeBase == null || mergeBase.trim().isEmpty()) {
+            return null;
+        }
+
+        final String diff = runGit(workspace, "diff", "--name-only", "--relative", "--diff-filter=ACMR", mergeBase.trim(), "HEAD");
+        if (diff == null) {
+            return null;
+        }
+
+        final List<String> paths = new ArrayList<>();
+        for (String line : diff.split("\\r?\\n")) {
+            if (!line.trim().isEmpty()) {
+                paths.add(line.trim());
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Tells whether the path is a regular file of the workspace, without following symbolic links out of it.
+     */
+    static boolean isInWorkspace(final Path root, final Path realRoot, final Path source) throws IOException {
+        if (!source.startsWith(root) || Files.isSymbolicLink(source) || !Files.isRegularFile(source, LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        // a symbolic link to a directory above the file could still lead out of the workspace
+        return source.toRealPath().startsWith(realRoot);
+    }
+
+    private static String runGit(final File workspace, final String... args) throws InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add("git");
+        for (String arg : args) {
+            command.add(arg);
+        }
+
+        File output = null;
+        try {
+            // written to a file, so that the timeout applies even when git never closes its output
+            output = File.createTempFile("checkmarx-git", ".out");
+            final Process process = new ProcessBuilder(command)
+                    .directory(workspace)
+                    .redirectOutput(output)
+                    .redirectError(ProcessBuilder.Redirect.appendTo(new File(File.separatorChar == '\\' ? "NUL" : "/dev/null")))
+                    .start();
+            if (!process.waitFor(GIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return null;
+            }
+            return process.exitValue() == 0 ? FileUtils.readFileToString(output, UTF_8) : null;
+        } catch (IOException e) {
+            return null;
+        } finally {
+            FileUtils.deleteQuietly(output);
+        }
+    }
+
+    private static Set<Path> findManifests(final Path root) throws IOException {
+        final Set<Path> manifests = new LinkedHashSet<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+                final Path name = dir.getFileName();
+                return name != null && !dir.equals(root) && DependencyManifests.IGNORED_DIRECTORIES.contains(name.toString())
+                        ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && DependencyManifests.isManifest(file.getFileName().toString())) {
+                    manifests.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return manifests;
+    }
+
+    private static boolean copy(final Path root, final Path source, final Path staging) throws IOException {
+        final Path target = staging.resolve(root.relativize(source).toString());
+        if (Files.exists(target)) {
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+        return true;
+    }
+
+    public static class Result implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String directory;
+        private final String origin;
+        private final int changedFiles;
+        private final int manifests;
+        private final String unavailableReason;
+
+        Result(final String directory, final String origin, final int changedFiles, final int manifests, final String unavailableReason) {
+            this.directory = directory;
+            this.origin = origin;
+            this.changedFiles = changedFiles;
+            this.manifests = manifests;
+            this.unavailableReason = unavailableReason;
+        }
+
+        static Result unavailable(final String reason) {
+            return new Result(null, null, 0, 0, reason);
+        }
+
+        public boolean isAvailable() {
+            return directory != null;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public String getOrigin() {
+            return origin;
+        }
+
+        public int getChangedFiles() {
+            return changedFiles;
+        }
+
+        public int getManifests() {
+            return manifests;
+        }
+
+        public String getUnavailableReason() {
+            return unavailableReason;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.checkmarx.jenkins.workspace;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Package manager manifests and lock files that SCA resolves dependencies from.
+ */
+public final class DependencyManifests {
+
+    private static final Set<String> FILE_NAMES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "pom.xml", "build.gradle", "build.gradle.kts", "settings.gradle", "gradle.lockfile", "build.sbt", "ivy.xml",
+            "package.json", "package-lock.json", "npm-shrinkwrap.json", "yarn.lock", "pnpm-lock.yaml", "bower.json",
+            "requirements.txt", "pipfile", "pipfile.lock", "pyproject.toml", "poetry.lock", "setup.py",
+            "go.mod", "go.sum", "gemfile", "gemfile.lock", "composer.json", "composer.lock",
+            "packages.config", "paket.dependencies", "cargo.toml", "cargo.lock",
+            "podfile", "podfile.lock", "package.swift", "pubspec.yaml", "mix.exs")));
+
+    private static final String[] EXTENSIONS = {".csproj", ".vbproj", ".fsproj", ".nuspec"};
+
+    /**
+     * Directories holding resolved dependencies or VCS metadata, never part of the scanned sources.
+     */
+    static final Set<String> IGNORED_DIRECTORIES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            ".git", ".svn", ".hg", "node_modules", "bower_components", "vendor", ".gradle", ".idea", "target")));
+
+    private DependencyManifests() {
+        // squid:S1118
+    }
+
+    public static boolean isManifest(final String fileName) {
+        final String name = fileName.toLowerCase(Locale.ENGLISH);
+        if (FILE_NAMES.contains(name)) {
+            return true;
+        }
+        for (String extension : EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
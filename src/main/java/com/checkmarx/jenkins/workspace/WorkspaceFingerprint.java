@@ -0,0 +1,113 @@
+package com.checkmarx.jenkins.workspace;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * What a workspace holds for each scan engine, collected by {@link WorkspaceFingerprinter}.
+ */
+public class WorkspaceFingerprint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String SAST = "sast";
+    public static final String SCA = "sca";
+    public static final String KICS = "kics";
+
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong manifests = new AtomicLong();
+    private final AtomicLong infrastructureFiles = new AtomicLong();
+    private final ConcurrentMap<String, AtomicLong> sourceFilesByLanguage = new ConcurrentHashMap<>();
+    private final AtomicReference<String> manifestExample = new AtomicReference<>();
+    private final AtomicReference<String> infrastructureExample = new AtomicReference<>();
+
+    void countFile() {
+        files.incrementAndGet();
+    }
+
+    void addSourceFile(final String language) {
+        sourceFilesByLanguage.computeIfAbsent(language, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    void addManifest(final String fileName) {
+        manifests.incrementAndGet();
+        manifestExample.compareAndSet(null, fileName);
+    }
+
+    void addInfrastructureFile(final String fileName) {
+        infrastructureFiles.incrementAndGet();
+        infrastructureExample.compareAndSet(null, fileName);
+    }
+
+    public long getFiles() {
+        return files.get();
+    }
+
+    public long getSourceFiles() {
+        long total = 0;
+        for (AtomicLong count : sourceFilesByLanguage.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    public long getManifests() {
+        return manifests.get();
+    }
+
+    public long getInfrastructureFiles() {
+        return infrastructureFiles.get();
+    }
+
+    /**
+     * Source file counts per language, sorted by language name.
+     */
+    public Map<String, Long> getSourceFilesByLanguage() {
+        final Map<String, Long> languages = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : sourceFilesByLanguage.entrySet()) {
+            languages.put(entry.getKey(), entry.getValue().get());
+        }
+        return languages;
+    }
+
+    /**
+     * The engines that have something to scan, in the order the CLI lists them.
+     */
+    public List<String> getScanTypes() {
+        final List<String> scanTypes = new ArrayList<>();
+        if (getSourceFiles() > 0) {
+            scanTypes.add(SAST);
+        }
+        if (getManifests() > 0) {
+            scanTypes.add(SCA);
+        }
+        if (getInfrastructureFiles() > 0) {
+            scanTypes.add(KICS);
+        }
+        return scanTypes;
+    }
+
+    /**
+     * One line per engine explaining why it is enabled or skipped.
+     */
+    public List<String> describe() {
+        final List<String> reasons = new ArrayList<>();
+        reasons.add(getSourceFiles() > 0
+                ? String.format("SAST enabled: %d source file(s) %s", getSourceFiles(), getSourceFilesByLanguage())
+                : "SAST skipped: no supported source files found");
+        reasons.add(getManifests() > 0
+                ? String.format("SCA enabled: %d dependency manifest(s), e.g. %s", getManifests(), manifestExample.get())
+                : "SCA skipped: no dependency manifests found");
+        reasons.add(getInfrastructureFiles() > 0
+                ? String.format("KICS enabled: %d infrastructure-as-code file(s), e.g. %s", getInfrastructureFiles(), infrastructureExample.get())
+                : "KICS skipped: no infrastructure-as-code files found");
+        return reasons;
+    }
+}
@@ -0,0 +1,174 @@
+package com.checkmarx.jenkins.workspace;
+
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Walks the sources in parallel on the agent and records which engines have anything to scan:
+ * source files for SAST, dependency manifests for SCA and infrastructure-as-code files for KICS.
+ */
+public class WorkspaceFingerprinter extends MasterToSlaveFileCallable<WorkspaceFingerprint> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Map<String, String> LANGUAGES_BY_EXTENSION = new HashMap<>();
+    private static final String[] IAC_EXTENSIONS = {".tf", ".tfvars", ".bicep", ".dockerfile"};
+    private static final String[] YAML_EXTENSIONS = {".yaml", ".yml"};
+    private static final String[] IAC_MARKERS = {"AWSTemplateFormatVersion", "apiVersion:", "\"apiVersion\"", "hosts:", "Resources:"};
+    private static final int SNIFF_BYTES = 4096;
+    private static final long MAX_SNIFF_FILE_SIZE = 1024 * 1024;
+
+    static {
+        language("Java", "java", "jsp");
+        language("Kotlin", "kt", "kts");
+        language("Scala", "scala");
+        language("Groovy", "groovy");
+        language("JavaScript", "js", "jsx", "mjs", "vue");
+        language("TypeScript", "ts", "tsx");
+        language("Python", "py");
+        language("Ruby", "rb", "erb");
+        language("PHP", "php");
+        language("C#", "cs", "cshtml", "aspx");
+        language("VB.NET", "vb");
+        language("Go", "go");
+        language("C/C++", "c", "cc", "cpp", "cxx", "h", "hpp");
+        language("Objective-C", "m", "mm");
+        language("Swift", "swift");
+        language("Perl", "pl", "pm");
+        language("Apex", "cls", "trigger");
+        language("Dart", "dart");
+        language("Rust", "rs");
+    }
+
+    private static void language(final String name, final String... extensions) {
+        for (String extension : extensions) {
+            LANGUAGES_BY_EXTENSION.put(extension, name);
+        }
+    }
+
+    @Override
+    public WorkspaceFingerprint invoke(final File directory, final VirtualChannel channel) throws IOException, InterruptedException {
+        final WorkspaceFingerprint fingerprint = new WorkspaceFingerprint();
+        final ForkJoinPool pool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        try {
+            pool.invoke(new DirectoryTask(directory.toPath(), fingerprint));
+        } finally {
+            pool.shutdownNow();
+        }
+        return fingerprint;
+    }
+
+    static void classify(final Path file, final WorkspaceFingerprint fingerprint) {
+        final String fileName = file.getFileName().toString();
+        final String lowerCaseName = fileName.toLowerCase(Locale.ENGLISH);
+        fingerprint.countFile();
+
+        if (DependencyManifests.isManifest(fileName)) {
+            fingerprint.addManifest(fileName);
+        }
+        if (isInfrastructureAsCode(file, lowerCaseName)) {
+            fingerprint.addInfrastructureFile(fileName);
+            return;
+        }
+
+        final int dot = lowerCaseName.lastIndexOf('.');
+        final String language = dot < 0 ? null : LANGUAGES_BY_EXTENSION.get(lowerCaseName.substring(dot + 1));
+        if (language != null) {
+            fingerprint.addSourceFile(language);
+        }
+    }
+
+    private static boolean isInfrastructureAsCode(final Path file, final String lowerCaseName) {
+        if (lowerCaseName.equals("dockerfile") || lowerCaseName.startsWith("dockerfile.") || lowerCaseName.startsWith("docker-compose")) {
+            return true;
+        }
+        for (String extension : IAC_EXTENSIONS) {
+            if (lowerCaseName.endsWith(extension)) {
+                return true;
+            }
+        }
+        for (String extension : YAML_EXTENSIONS) {
+            if (lowerCaseName.endsWith(extension)) {
+                return containsIacMarker(file);
+            }
+        }
+        return lowerCaseName.endsWith(".json") && containsIacMarker(file);
+    }
+
+    /**
+     * Reads the beginning of YAML and JSON files, which are only IaC when they hold Kubernetes, CloudFormation
+     * or Ansible definitions.
+     */
+    private static boolean containsIacMarker(final Path file) {
+        try {
+            if (Files.size(file) > MAX_SNIFF_FILE_SIZE) {
+                return false;
+            }
+            final byte[] buffer = new byte[SNIFF_BYTES];
+            int read;
+            try (InputStream in = Files.newInputStream(file)) {
+                read = in.read(buffer);
+            }
+            if (read <= 0) {
+                return false;
+            }
+            final String head = new String(buffer, 0, read, StandardCharsets.UTF_8);
+            for (String marker : IAC_MARKERS) {
+                if (head.contains(marker)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static final class DirectoryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path directory;
+        private final transient WorkspaceFingerprint fingerprint;
+
+        DirectoryTask(final Path directory, final WorkspaceFingerprint fingerprint) {
+            this.directory = directory;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        protected void compute() {
+            final List<DirectoryTask> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        if (!DependencyManifests.IGNORED_DIRECTORIES.contains(entry.getFileName().toString())) {
+                            subdirectories.add(new DirectoryTask(entry, fingerprint));
+                        }
+                    } else if (Files.isRegularFile(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        classify(entry, fingerprint);
+                    }
+                }
+            } catch (IOException e) {
+                // unreadable directories are left out of the fingerprint
+                return;
+            }
+            invokeAll(subdirectories);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.checkmarx.jenkins;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CachedApiTest {
+
+    @Test
+    public void etag_shouldDependOnVersionAndQuery() {
+        final String etag = CachedApi.etag("1f-12", "/job/app/12/scanResults/api/json", "tree=scanSummary");
+
+        assertTrue(etag.startsWith("\"1f-12-"));
+        assertTrue(etag.endsWith("\""));
+        assertEquals(etag, CachedApi.etag("1f-12", "/job/app/12/scanResults/api/json", "tree=scanSummary"));
+        assertNotEquals(etag, CachedApi.etag("1f-12", "/job/app/12/scanResults/api/json", null));
+        assertNotEquals(etag, CachedApi.etag("1f-13", "/job/app/12/scanResults/api/json", "tree=scanSummary"));
+    }
+
+    @Test
+    public void encodedEtag_shouldTellTheEncodingsApart() {
+        final String etag = CachedApi.etag("1f-12", "/job/app/12/scanResults/report", null);
+        final String gzipEtag = CachedApi.encodedEtag(etag, "gzip");
+
+        assertEquals(etag.substring(0, etag.length() - 1) + "-gzip\"", gzipEtag);
+        assertFalse(CachedApi.matches(etag, gzipEtag));
+        assertFalse(CachedApi.matches(gzipEtag, etag));
+    }
+
+    @Test
+    public void matches_shouldAcceptAnyListedTag() {
+        assertTrue(CachedApi.matches("\"a-1\", \"b-2\"", "\"b-2\""));
+        assertTrue(CachedApi.matches("*", "\"b-2\""));
+        assertFalse(CachedApi.matches("W/\"b-2\"", "\"b-2\""));
+        assertFalse(CachedApi.matches(null, "\"b-2\""));
+    }
+}
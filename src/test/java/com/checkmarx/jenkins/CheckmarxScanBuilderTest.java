@@ -1,14 +1,20 @@
 package com.checkmarx.jenkins;
 
+import com.checkmarx.jenkins.model.ScanConfig;
 import com.checkmarx.jenkins.utils.Constants;
 import hudson.model.FreeStyleBuild;
 import hudson.model.FreeStyleProject;
 import hudson.model.Result;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.logging.Logger;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
 public class CheckmarxScanBuilderTest extends CheckmarxTestBase {
 
     private static final String CX_BASE_URI_ENV_VAR = String.format("${%s}",TEST_CX_BASE_URI);
@@ -30,6 +36,22 @@ public class CheckmarxScanBuilderTest extends CheckmarxTestBase {
         runSuccessCheckmarxScan(CX_BASE_URI_ENV_VAR, CX_PROJECT_NAME_ENV_VAR, CX_TENANT_ENV_VAR, CX_BRANCH_NAME_ENV_VAR);
     }
 
+    @Test
+    public void findBaseline_shouldOnlyCompareScansOfTheSameScope() throws Exception {
+        final FreeStyleProject freeStyleProject = createSimpleProject("findBaselineOfTheSameScope");
+        final FreeStyleBuild fullScan = this.jenkins.buildAndAssertSuccess(freeStyleProject);
+        final FreeStyleBuild deltaScan = this.jenkins.buildAndAssertSuccess(freeStyleProject);
+        final FreeStyleBuild build = this.jenkins.buildAndAssertSuccess(freeStyleProject);
+        FileUtils.touch(new File(fullScan.getRootDir(), PluginUtils.CHECKMARX_AST_FINDING_FINGERPRINTS));
+        FileUtils.touch(new File(deltaScan.getRootDir(), PluginUtils.CHECKMARX_AST_DELTA_FINDING_FINGERPRINTS));
+
+        final ScanConfig scanConfig = new ScanConfig();
+        assertEquals(fullScan, CheckmarxScanBuilder.findBaseline(build, CheckmarxScanBuilder.fingerprintsName(scanConfig)));
+        scanConfig.setDeltaScan(true);
+        assertEquals(deltaScan, CheckmarxScanBuilder.findBaseline(build, CheckmarxScanBuilder.fingerprintsName(scanConfig)));
+        assertNull(CheckmarxScanBuilder.findBaseline(deltaScan, CheckmarxScanBuilder.fingerprintsName(scanConfig)));
+    }
+
     @Test
     public void failWrongPresetCheckmarxScan() throws Exception {
         log.info("failWrongPresetCheckmarxScan");
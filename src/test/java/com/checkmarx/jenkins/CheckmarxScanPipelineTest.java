@@ -29,6 +29,46 @@ public class CheckmarxScanPipelineTest extends CheckmarxTestBase {
         jenkins.assertBuildStatus(Result.SUCCESS, workflowRun);
     }
 
+    @Test
+    public void doReturnResultsFromCheckmarxScanStep() throws Exception {
+        log.info("doReturnResultsFromCheckmarxScanStep");
+
+        WorkflowJob project = jenkins.createProject(WorkflowJob.class);
+        project.setDefinition(new CpsFlowDefinition("" +
+                "node {" +
+                "  writeFile file: 'test.yml', text: 'overwrite me' \n" +
+                "  def result = checkmarxScan checkmarxASTScanner(additionalOptions: '--scan-types sast', useOwnAdditionalOptions: true, useOwnServerCredentials: true, baseAuthUrl: '" + this.astBaseAuthUrl + "', checkmarxInstallation: '" + Constants.JT_LATEST + "', credentialsId: '" + Constants.JT_TOKEN_ID + "', projectName: 'successIntegrationJenkinsScan', serverUrl: '" + this.astServerUrl + "', tenantName: '" + this.astTenantName + "') \n" +
+                "  echo \"Scan ID: ${result.scanId}, total: ${result.total}, report: ${result.jsonReport}\"" +
+                "}", true));
+
+        WorkflowRun workflowRun = project.scheduleBuild2(0).waitForStart();
+        jenkins.waitForCompletion(workflowRun);
+        jenkins.assertBuildStatus(Result.SUCCESS, workflowRun);
+        jenkins.assertLogContains("Scan ID: " + workflowRun.getAction(CheckmarxScanResultsAction.class).getScanId(), workflowRun);
+    }
+
+    @Test
+    public void doJoinStartedScanWithCheckmarxScanWait() throws Exception {
+        log.info("doJoinStartedScanWithCheckmarxScanWait");
+
+        WorkflowJob project = jenkins.createProject(WorkflowJob.class);
+        project.setDefinition(new CpsFlowDefinition("" +
+                "node {" +
+                "  writeFile file: 'test.yml', text: 'overwrite me' \n" +
+                "  def scan = checkmarxScanStart checkmarxASTScanner(additionalOptions: '--scan-types sast', useOwnAdditionalOptions: true, useOwnServerCredentials: true, baseAuthUrl: '" + this.astBaseAuthUrl + "', checkmarxInstallation: '" + Constants.JT_LATEST + "', credentialsId: '" + Constants.JT_TOKEN_ID + "', projectName: 'successIntegrationJenkinsScan', serverUrl: '" + this.astServerUrl + "', tenantName: '" + this.astTenantName + "') \n" +
+                "  echo \"Started scan: ${scan.scanId}\" \n" +
+                "  def result = checkmarxScanWait scan \n" +
+                "  echo \"Finished scan: ${result.scanId}, total: ${result.total}\"" +
+                "}", true));
+
+        WorkflowRun workflowRun = project.scheduleBuild2(0).waitForStart();
+        jenkins.waitForCompletion(workflowRun);
+        jenkins.assertBuildStatus(Result.SUCCESS, workflowRun);
+        final String scanId = workflowRun.getAction(CheckmarxScanResultsAction.class).getScanId();
+        jenkins.assertLogContains("Started scan: " + scanId, workflowRun);
+        jenkins.assertLogContains("Finished scan: " + scanId, workflowRun);
+    }
+
     @Test
     public void doFailWhenUseOwnServerCredentialButNotConfigured() throws Exception {
         log.info("doFailWhenUseOwnServerCredentialButNotConfigured");
@@ -0,0 +1,46 @@
+package com.checkmarx.jenkins;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CheckmarxScanProgressActionTest {
+
+    @Test
+    public void update_shouldRecordStatusAndPercent() {
+        CheckmarxScanProgressAction progress = new CheckmarxScanProgressAction();
+        progress.setPhase("scan");
+
+        assertTrue(progress.update("[Cx-Info]: Scan 1234 status: Running"));
+        assertTrue(progress.update("[Cx-Info]: Uploading sources 45.5 %"));
+
+        assertEquals("Running", progress.getStatus());
+        assertEquals(Integer.valueOf(45), progress.getPercent());
+        assertTrue(progress.describe().startsWith("Scan progress: scan, status Running, 45%, elapsed "));
+    }
+
+    @Test
+    public void update_shouldIgnoreOtherLines() {
+        CheckmarxScanProgressAction progress = new CheckmarxScanProgressAction();
+
+        assertFalse(progress.update("[Cx-Info]: Project Name: status-page"));
+        assertFalse(progress.update("[Cx-Info]: Authentication failed, status: Unauthorized"));
+        assertFalse(progress.update("[Cx-Info]: Additional options: --threshold \"sast-high=50%\""));
+        assertFalse(progress.update("[Cx-Info]: Threshold: 50%"));
+        assertFalse(progress.update("[Cx-Info]: Uploading 3 files, 45% of the quota used"));
+        assertFalse(progress.update("[Cx-Error]: Scan 1234 status: Failed"));
+        assertNull(progress.getStatus());
+        assertNull(progress.getPercent());
+    }
+
+    @Test
+    public void setPhase_shouldResetStatus() {
+        CheckmarxScanProgressAction progress = new CheckmarxScanProgressAction();
+        progress.update("[Cx-Info]: Scan 1234 status: Queued");
+
+        progress.setPhase("report");
+
+        assertNull(progress.getStatus());
+        assertEquals("report", progress.getPhase());
+    }
+}
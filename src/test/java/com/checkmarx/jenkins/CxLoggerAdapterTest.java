@@ -0,0 +1,115 @@
+package com.checkmarx.jenkins;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+public class CxLoggerAdapterTest {
+
+    @Test
+    public void parse_shouldFallBackToDefault_whenUnknown() {
+        assertEquals(CxLoggerAdapter.Level.WARN, CxLoggerAdapter.Level.parse("warn", CxLoggerAdapter.Level.INFO));
+        assertEquals(CxLoggerAdapter.Level.INFO, CxLoggerAdapter.Level.parse("", CxLoggerAdapter.Level.INFO));
+        assertEquals(CxLoggerAdapter.Level.INFO, CxLoggerAdapter.Level.parse("verbose", CxLoggerAdapter.Level.INFO));
+    }
+
+    @Test
+    public void log_shouldSkipMessagesBelowLevel() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CxLoggerAdapter log = new CxLoggerAdapter(new PrintStream(output), CxLoggerAdapter.Level.WARN, false);
+
+        log.debug("debug {}", 1);
+        log.info("info");
+        log.warn("warn {}", 2);
+        log.error("error");
+
+        String logged = output.toString();
+        assertFalse(logged.contains("debug"));
+        assertFalse(logged.contains("info"));
+        assertTrue(logged.contains("[Cx-Warning]: warn 2"));
+        assertTrue(logged.contains("[Cx-Error]: error"));
+    }
+
+    @Test
+    public void log_shouldWriteBufferedLines_whenClosed() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CxLoggerAdapter log = new CxLoggerAdapter(new PrintStream(output), CxLoggerAdapter.Level.INFO, true);
+
+        log.info("first");
+        log.info("second");
+        log.close();
+
+        String logged = output.toString();
+        assertTrue(logged.indexOf("[Cx-Info]: first") < logged.indexOf("[Cx-Info]: second"));
+    }
+
+    @Test
+    public void capConsole_shouldKeepHeadTailAndWarnings() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream transcript = new ByteArrayOutputStream();
+        CxLoggerAdapter log = new CxLoggerAdapter(new PrintStream(output), CxLoggerAdapter.Level.INFO, false);
+        log.capConsole(2, 2, transcript, "transcript");
+
+        for (int i = 1; i <= 10; i++) {
+            log.info("line " + i);
+            if (i == 5) {
+                log.warn("warning");
+            }
+        }
+        log.close();
+
+        String console = output.toString();
+        assertTrue(console.contains("line 1" + System.lineSeparator()));
+        assertTrue(console.contains("line 2" + System.lineSeparator()));
+        assertFalse(console.contains("line 5"));
+        assertTrue(console.contains("[Cx-Warning]: warning"));
+        assertTrue(console.contains("6 lines were left out of the console"));
+        assertTrue(console.contains("line 9"));
+        assertTrue(console.contains("line 10"));
+        assertEquals(6, log.getSuppressedLines());
+        assertTrue(transcript.toString().contains("line 5"));
+    }
+
+    @Test
+    public void capConsole_shouldWriteLinesBelowLevelToTheTranscriptOnly() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream transcript = new ByteArrayOutputStream();
+        CxLoggerAdapter log = new CxLoggerAdapter(new PrintStream(output), CxLoggerAdapter.Level.WARN, false);
+        log.capConsole(2, 2, transcript, "transcript");
+
+        log.debug("debug {}", 1);
+        log.info("info");
+        log.warn("warn");
+        log.close();
+
+        String console = output.toString();
+        assertFalse(console.contains("debug"));
+        assertFalse(console.contains("info"));
+        assertTrue(console.contains("[Cx-Warning]: warn"));
+        assertTrue(transcript.toString().contains("[Cx-Debug]: debug 1"));
+        assertTrue(transcript.toString().contains("[Cx-Info]: info"));
+    }
+
+    @Test
+    public void capConsole_shouldNotCountWarningsInTheHead() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CxLoggerAdapter log = new CxLoggerAdapter(new PrintStream(output), CxLoggerAdapter.Level.INFO, false);
+        log.capConsole(2, 0, new ByteArrayOutputStream(), "transcript");
+
+        log.warn("first warning");
+        log.error("first error");
+        log.info("line 1");
+        log.info("line 2");
+        log.info("line 3");
+        log.close();
+
+        String console = output.toString();
+        assertTrue(console.contains("line 1"));
+        assertTrue(console.contains("line 2"));
+        assertFalse(console.contains("line 3"));
+        assertEquals(1, log.getSuppressedLines());
+    }
+}
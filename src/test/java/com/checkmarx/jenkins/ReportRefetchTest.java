@@ -0,0 +1,96 @@
+package com.checkmarx.jenkins;
+
+import com.checkmarx.jenkins.dashboard.DashboardEntry;
+import com.checkmarx.jenkins.dashboard.SecurityDashboard;
+import com.checkmarx.jenkins.exception.CheckmarxException;
+import com.checkmarx.jenkins.history.ScanHistory;
+import hudson.FilePath;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.StreamBuildListener;
+import hudson.model.TaskListener;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ReportRefetchTest {
+
+    private static final String REPORT = "ws_" + PluginUtils.CHECKMARX_AST_RESULTS_JSON + PluginUtils.GZIP_EXTENSION;
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void refetch_shouldFail_whenTheBuildHasNoScan() throws Exception {
+        final FreeStyleBuild build = jenkins.buildAndAssertSuccess(jenkins.createFreeStyleProject("noScan"));
+
+        try {
+            ReportRefetch.refetch(build, TaskListener.NULL);
+            fail("The build has no scan");
+        } catch (CheckmarxException e) {
+            assertTrue(e.getMessage().contains("has no Checkmarx scan"));
+        }
+    }
+
+    @Test
+    public void reportsRefetched_shouldRecordOnlyChangedSummariesAndRefreshTheDashboard() throws Exception {
+        final SecurityDashboard dashboard = SecurityDashboard.get();
+        while (dashboard.isRebuilding()) {
+            Thread.sleep(10);
+        }
+        final FreeStyleProject project = jenkins.createFreeStyleProject("refetched");
+        final FreeStyleBuild build = jenkins.buildAndAssertSuccess(project);
+        final CheckmarxScanResultsAction action = new CheckmarxScanResultsAction();
+        action.setBranchName("main");
+        build.addAction(action);
+        final File history = ScanHistory.of(project).getFile();
+
+        archiveSummary(build, 3, 1);
+        ReportRefetch.reportsRefetched(build, action, null);
+        final long recorded = history.length();
+        assertEquals(1, action.getScanSummary().getHigh());
+        assertEquals(1, dashboardEntry(dashboard).getHigh());
+
+        // the same reports fetched again leave the history as it is
+        ReportRefetch.reportsRefetched(build, action, null);
+        assertEquals(recorded, history.length());
+
+        archiveSummary(build, 5, 4);
+        ReportRefetch.reportsRefetched(build, action, null);
+        assertTrue(history.length() > recorded);
+        assertEquals(4, ScanHistory.of(project).latest(1).get(0).getHigh());
+        assertEquals(4, dashboardEntry(dashboard).getHigh());
+        assertEquals(build.getNumber(), dashboardEntry(dashboard).getBuildNumber());
+    }
+
+    private void archiveSummary(final FreeStyleBuild build, final int total, final int high) throws Exception {
+        final File directory = folder.newFolder();
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(new File(directory, REPORT).toPath()))) {
+            out.write(("{\"TotalIssues\": " + total + ", \"HighIssues\": " + high + ", \"MediumIssues\": 0, \"LowIssues\": "
+                    + (total - high) + ", \"SastIssues\": " + total + ", \"KicsIssues\": 0, \"ScaIssues\": 0}").getBytes(StandardCharsets.UTF_8));
+        }
+        build.getArtifactManager().archive(new FilePath(directory), jenkins.createLocalLauncher(),
+                new StreamBuildListener(System.out, StandardCharsets.UTF_8), Collections.singletonMap(REPORT, REPORT));
+    }
+
+    private static DashboardEntry dashboardEntry(final SecurityDashboard dashboard) {
+        final List<DashboardEntry> entries = dashboard.query(null, null, null, "refetched", SecurityDashboard.Sort.JOB,
+                entry -> true, 0, 10).getEntries();
+        assertEquals(1, entries.size());
+        return entries.get(0);
+    }
+}
@@ -0,0 +1,66 @@
+package com.checkmarx.jenkins.credentials;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.checkmarx.jenkins.credentials.CheckmarxApiTokenPool.Strategy.LEAST_RECENTLY_USED;
+import static com.checkmarx.jenkins.credentials.CheckmarxApiTokenPool.Strategy.ROUND_ROBIN;
+import static org.junit.Assert.*;
+
+public class ClientRotationTest {
+
+    private static final List<String> CLIENTS = Arrays.asList("a", "b", "c");
+
+    @Test
+    public void choose_shouldTakeTurns() {
+        final ClientRotation rotation = new ClientRotation();
+        assertEquals(0, rotation.choose("pool", CLIENTS, ROUND_ROBIN, 1));
+        assertEquals(1, rotation.choose("pool", CLIENTS, ROUND_ROBIN, 2));
+        assertEquals(2, rotation.choose("pool", CLIENTS, ROUND_ROBIN, 3));
+        assertEquals(0, rotation.choose("pool", CLIENTS, ROUND_ROBIN, 4));
+    }
+
+    @Test
+    public void choose_shouldPreferTheLeastRecentlyUsedClient() {
+        final ClientRotation rotation = new ClientRotation();
+        assertEquals(0, rotation.choose("other", Arrays.asList("a"), ROUND_ROBIN, 5));
+        assertEquals(1, rotation.choose("pool", CLIENTS, LEAST_RECENTLY_USED, 6));
+        assertEquals(2, rotation.choose("pool", CLIENTS, LEAST_RECENTLY_USED, 7));
+        assertEquals(0, rotation.choose("pool", CLIENTS, LEAST_RECENTLY_USED, 8));
+    }
+
+    @Test
+    public void choose_shouldSkipThrottledClients() {
+        final ClientRotation rotation = new ClientRotation();
+        rotation.throttled("a", 0);
+        assertEquals(1, rotation.choose("pool", CLIENTS, ROUND_ROBIN, 1));
+        assertEquals(2, rotation.choose("pool", CLIENTS, ROUND_ROBIN, 2));
+        assertEquals(1, rotation.choose("pool", CLIENTS, ROUND_ROBIN, 3));
+        assertEquals(2, rotation.choose("pool", CLIENTS, ROUND_ROBIN, ClientRotation.INITIAL_BACKOFF_MILLIS));
+        assertEquals(0, rotation.choose("pool", CLIENTS, ROUND_ROBIN, ClientRotation.INITIAL_BACKOFF_MILLIS + 1));
+    }
+
+    @Test
+    public void throttled_shouldDoubleTheBackoff() {
+        final ClientRotation rotation = new ClientRotation();
+        final List<String> single = Arrays.asList("a");
+        rotation.throttled("a", 0);
+        rotation.throttled("a", 0);
+        assertEquals(-1, rotation.choose("pool", single, ROUND_ROBIN, ClientRotation.INITIAL_BACKOFF_MILLIS));
+        assertEquals(0, rotation.choose("pool", single, ROUND_ROBIN, 2 * ClientRotation.INITIAL_BACKOFF_MILLIS));
+
+        rotation.succeeded("a");
+        rotation.throttled("a", 0);
+        assertEquals(0, rotation.choose("pool", single, ROUND_ROBIN, ClientRotation.INITIAL_BACKOFF_MILLIS));
+    }
+
+    @Test
+    public void isThrottled_shouldRecognizeRateLimitErrors() {
+        assertTrue(CheckmarxApiTokenPool.isThrottled("Request failed with status 429"));
+        assertTrue(CheckmarxApiTokenPool.isThrottled("Too Many Requests"));
+        assertFalse(CheckmarxApiTokenPool.isThrottled("Scan failed"));
+        assertFalse(CheckmarxApiTokenPool.isThrottled(null));
+    }
+}
@@ -0,0 +1,74 @@
+package com.checkmarx.jenkins.dashboard;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class SecurityDashboardTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SecurityDashboard dashboard;
+
+    @Before
+    public void setUp() {
+        dashboard = new SecurityDashboard(new File(folder.getRoot(), "checkmarx-dashboard.xml"));
+        dashboard.record(entry("team-a/app/main", "team-a/app", "main", 3, 0, 2, 5));
+        dashboard.record(entry("team-a/app/feature", "team-a/app", "feature", 8, 1, 0, 0));
+        dashboard.record(entry("team-b/service", "team-b", "main", 2, 4, 1, 0));
+        dashboard.record(entry("tools", "", null, 1, 0, 0, 0));
+    }
+
+    @Test
+    public void query_shouldSortByRisk() {
+        final SecurityDashboard.Page page = dashboard.query(null, null, null, null, SecurityDashboard.Sort.RISK, entry -> true, 0, 10);
+
+        assertEquals(4, page.getTotal());
+        assertEquals("team-b/service", page.getEntries().get(0).getJobFullName());
+        assertEquals("team-a/app/feature", page.getEntries().get(1).getJobFullName());
+        assertEquals("medium", page.getEntries().get(2).getRisk());
+        assertEquals("none", page.getEntries().get(3).getRisk());
+    }
+
+    @Test
+    public void query_shouldFilterByFolderBranchAndVisibility() {
+        assertEquals(2, dashboard.query("team-a", null, null, null, SecurityDashboard.Sort.JOB, entry -> true, 0, 10).getTotal());
+        assertEquals(2, dashboard.query(null, "main", null, null, SecurityDashboard.Sort.JOB, entry -> true, 0, 10).getTotal());
+        assertEquals(1, dashboard.query(null, null, "high", null, SecurityDashboard.Sort.JOB, entry -> true, 0, 10).getTotal());
+        assertEquals(3, dashboard.query(null, null, null, null, SecurityDashboard.Sort.JOB,
+                entry -> !entry.getJobFullName().equals("tools"), 0, 10).getTotal());
+    }
+
+    @Test
+    public void getFolders_shouldOnlyListTheFoldersOfVisibleJobs() {
+        assertEquals(Arrays.asList("team-a/app", "team-b"), dashboard.getFolders(entry -> true));
+        assertEquals(Collections.singletonList("team-a/app"),
+                dashboard.getFolders(entry -> entry.getJobFullName().startsWith("team-a/")));
+    }
+
+    @Test
+    public void record_shouldKeepTheLatestBuildOfAJob() {
+        dashboard.record(entry("team-b/service", "team-b", "main", 1, 0, 0, 0));
+        dashboard.move("team-b/service", "team-c/service", "job/team-c/job/service/", "team-c");
+
+        final SecurityDashboard.Page page = dashboard.query("team-c", null, null, null, SecurityDashboard.Sort.JOB, entry -> true, 0, 10);
+
+        assertEquals(1, page.getTotal());
+        assertEquals(2, page.getEntries().get(0).getBuildNumber());
+        assertEquals("job/team-c/job/service/", page.getEntries().get(0).getJobUrl());
+    }
+
+    private static DashboardEntry entry(final String job, final String folder, final String branch, final int build,
+                                        final int high, final int medium, final int low) {
+        return new DashboardEntry(job, "job/" + job.replace("/", "/job/") + "/", folder, branch, build, 1000L * build,
+                high, medium, low, high + medium + low);
+    }
+}
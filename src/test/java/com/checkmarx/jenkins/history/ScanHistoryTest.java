@@ -0,0 +1,65 @@
+package com.checkmarx.jenkins.history;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ScanHistoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void latest_shouldReturnTheLastBuildsInBuildOrder() throws Exception {
+        final ScanHistory history = new ScanHistory(new File(folder.getRoot(), ScanHistory.HISTORY_FILE));
+        for (int build : new int[]{1, 2, 4, 3, 5}) {
+            history.append(summary(build, build * 10));
+        }
+
+        final List<ScanSummary> latest = history.latest(3);
+
+        assertEquals(3, latest.size());
+        assertEquals(3, latest.get(0).getBuildNumber());
+        assertEquals(4, latest.get(1).getBuildNumber());
+        assertEquals(5, latest.get(2).getBuildNumber());
+        assertEquals(50, latest.get(2).getHigh());
+    }
+
+    @Test
+    public void append_shouldDropAnIncompleteRecord() throws Exception {
+        final File file = new File(folder.getRoot(), ScanHistory.HISTORY_FILE);
+        final ScanHistory history = new ScanHistory(file);
+        history.append(summary(1, 1));
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.setLength(out.length() + ScanHistory.RECORD_SIZE / 2);
+        }
+
+        history.append(summary(2, 2));
+
+        assertEquals(2, history.latest(10).size());
+        assertEquals(2, history.latest(10).get(1).getHigh());
+    }
+
+    @Test
+    public void render_shouldDrawOneLinePerSeverity() throws Exception {
+        final ScanHistory history = new ScanHistory(new File(folder.getRoot(), ScanHistory.HISTORY_FILE));
+        history.append(summary(1, 3));
+        history.append(summary(2, 5));
+
+        final String svg = TrendChart.render(history.latest(10));
+
+        assertTrue(svg.startsWith("<svg"));
+        assertEquals(3, svg.split("<polyline").length - 1);
+        assertTrue(svg.contains("#2</text>"));
+    }
+
+    private static ScanSummary summary(final int build, final int high) {
+        return new ScanSummary(build, 1000L * build, high + 3, high, 2, 1, high, 2, 1);
+    }
+}
@@ -0,0 +1,45 @@
+package com.checkmarx.jenkins.results;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class FindingsDiffTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void compare_shouldCountNewFixedAndRecurringFindings() {
+        final FindingsDiff diff = FindingsDiff.compare(7, new long[]{-5, 1, 3, 9}, new long[]{-5, 2, 3, 10, 11});
+
+        assertEquals(7, diff.getBaselineBuild());
+        assertEquals(3, diff.getNewFindings());
+        assertEquals(2, diff.getFixedFindings());
+        assertEquals(2, diff.getRecurringFindings());
+    }
+
+    @Test
+    public void write_shouldStoreSortedDistinctFingerprints() throws Exception {
+        final String results = "{\"results\": ["
+                + "{\"type\": \"sast\", \"similarityId\": \"42\", \"data\": {\"queryName\": \"SQL_Injection\"}},"
+                + "{\"type\": \"sast\", \"similarityId\": \"42\", \"data\": {\"queryName\": \"SQL_Injection\"}},"
+                + "{\"type\": \"kics\", \"data\": {\"queryName\": \"Healthcheck Not Set\", \"fileName\": \"/Dockerfile\"}}"
+                + "]}";
+        final File fingerprintsFile = folder.newFile("fingerprints.bin");
+
+        ResultsIndexWriter.write(new ByteArrayInputStream(results.getBytes(UTF_8)), folder.newFile("results.idx"), fingerprintsFile);
+        final long[] fingerprints = FindingFingerprints.read(fingerprintsFile);
+
+        assertEquals(2, fingerprints.length);
+        assertTrue(fingerprints[0] < fingerprints[1]);
+        assertTrue(fingerprints[0] == FindingFingerprints.fingerprint("sast", "SQL_Injection", "", "42")
+                || fingerprints[1] == FindingFingerprints.fingerprint("sast", "SQL_Injection", "", "42"));
+    }
+}
@@ -0,0 +1,29 @@
+package com.checkmarx.jenkins.results;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class QualityGateTest {
+
+    @Test
+    public void evaluate_shouldPassWithinTheThresholds() {
+        final QualityGate gate = QualityGate.evaluate(0, 5, 2, 0, 5, new FindingsDiff(3, 2, 0, 10));
+        assertTrue(gate.isPassed());
+        assertTrue(gate.getViolations().isEmpty());
+    }
+
+    @Test
+    public void evaluate_shouldReportEveryExceededThreshold() {
+        final QualityGate gate = QualityGate.evaluate(0, 5, 2, 1, 6, new FindingsDiff(3, 4, 0, 10));
+        assertFalse(gate.isPassed());
+        assertEquals(3, gate.getViolations().size());
+        assertEquals("1 high findings, more than the 0 allowed", gate.getViolations().get(0));
+        assertEquals("4 new findings since build #3, more than the 2 allowed", gate.getViolations().get(2));
+    }
+
+    @Test
+    public void evaluate_shouldIgnoreMissingThresholdsAndBaseline() {
+        assertTrue(QualityGate.evaluate(null, null, 0, 100, 100, null).isPassed());
+    }
+}
@@ -0,0 +1,70 @@
+package com.checkmarx.jenkins.results;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class ResultsIndexTest {
+
+    private static final String RESULTS = "{\"totalCount\": 4, \"scanID\": \"id\", \"results\": ["
+            + "{\"type\": \"sast\", \"severity\": \"LOW\", \"state\": \"TO_VERIFY\", \"status\": \"RECURRENT\", \"similarityId\": \"1\","
+            + " \"data\": {\"queryName\": \"Log_Forging\", \"nodes\": [{\"fileName\": \"/src/A.java\", \"line\": 12}]}},"
+            + "{\"type\": \"dependency\", \"severity\": \"HIGH\", \"state\": \"TO_VERIFY\", \"status\": \"NEW\", \"similarityId\": \"2\","
+            + " \"data\": {\"packageIdentifier\": \"lodash-4.17.15\"}},"
+            + "{\"type\": \"sast\", \"severity\": \"HIGH\", \"state\": \"NOT_EXPLOITABLE\", \"status\": \"NEW\", \"similarityId\": \"3\","
+            + " \"data\": {\"queryName\": \"SQL_Injection\", \"nodes\": [{\"fileName\": \"/src/B.java\", \"line\": 40}]}},"
+            + "{\"type\": \"infrastructure\", \"severity\": \"MEDIUM\", \"state\": \"TO_VERIFY\", \"status\": \"NEW\", \"similarityId\": \"4\","
+            + " \"data\": {\"queryName\": \"Healthcheck Not Set\", \"fileName\": \"/Dockerfile\", \"line\": 1}}"
+            + "]}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File indexFile;
+
+    @Before
+    public void setUp() throws Exception {
+        indexFile = new File(folder.getRoot(), "results.idx");
+        int count = ResultsIndexWriter.write(new ByteArrayInputStream(RESULTS.getBytes(UTF_8)), indexFile);
+        assertEquals(4, count);
+    }
+
+    @Test
+    public void query_shouldSortBySeverityAndKeepScanOrder() throws Exception {
+        try (ResultsIndex index = ResultsIndex.open(indexFile)) {
+            ResultsIndex.Page page = index.query(null, ResultsIndex.Column.SEVERITY, 0, 10);
+
+            assertEquals(4, page.getTotal());
+            assertEquals("lodash-4.17.15", page.getFindings().get(0).getQueryName());
+            assertEquals("sca", page.getFindings().get(0).getEngine());
+            assertEquals("SQL_Injection", page.getFindings().get(1).getQueryName());
+            assertEquals("/src/B.java", page.getFindings().get(1).getFileName());
+            assertEquals(40, page.getFindings().get(1).getLine());
+            assertEquals("kics", page.getFindings().get(2).getEngine());
+            assertEquals("Log_Forging", page.getFindings().get(3).getQueryName());
+        }
+    }
+
+    @Test
+    public void query_shouldFilterAndPaginate() throws Exception {
+        try (ResultsIndex index = ResultsIndex.open(indexFile)) {
+            int[] newFindings = {-1, -1, -1, 0};
+            ResultsIndex.Page first = index.query(newFindings, ResultsIndex.Column.SEVERITY, 0, 2);
+            ResultsIndex.Page second = index.query(newFindings, ResultsIndex.Column.SEVERITY, 2, 2);
+
+            assertEquals(3, first.getTotal());
+            assertEquals(2, first.getFindings().size());
+            assertTrue(first.hasNext());
+            assertEquals(1, second.getFindings().size());
+            assertEquals("Healthcheck Not Set", second.getFindings().get(0).getQueryName());
+            assertFalse(second.hasNext());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.checkmarx.jenkins.retention;
+
+import com.checkmarx.jenkins.CheckmarxScanResultsAction;
+import com.checkmarx.jenkins.PluginUtils;
+import com.checkmarx.jenkins.history.ScanHistory;
+import com.checkmarx.jenkins.history.ScanSummary;
+import hudson.FilePath;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.StreamBuildListener;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ReportCompactionTest {
+
+    private static final List<ScanSummary> HISTORY = history(1, 2, 3, 5, 8);
+    private static final String HTML_REPORT = "ws_" + PluginUtils.CHECKMARX_AST_RESULTS_HTML + PluginUtils.GZIP_EXTENSION;
+    private static final String JSON_REPORT = "ws_" + PluginUtils.CHECKMARX_AST_RESULTS_JSON + PluginUtils.GZIP_EXTENSION;
+    private static final String TRANSCRIPT = "ws_" + PluginUtils.CHECKMARX_AST_CLI_OUTPUT;
+    private static final String OTHER_ARTIFACT = "app.jar";
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void candidates_shouldKeepTheLastBuilds() {
+        assertEquals(Arrays.asList(1, 2, 3), ReportCompaction.candidates(HISTORY, 0, Long.MIN_VALUE, 2));
+        assertEquals(Arrays.asList(2, 3), ReportCompaction.candidates(HISTORY, 1, Long.MIN_VALUE, 2));
+        assertEquals(Collections.emptyList(), ReportCompaction.candidates(HISTORY, 0, Long.MIN_VALUE, 10));
+    }
+
+    @Test
+    public void candidates_shouldKeepTheRecentBuilds() {
+        assertEquals(Arrays.asList(1, 2, 3), ReportCompaction.candidates(HISTORY, 0, 5000, 0));
+        assertEquals(Arrays.asList(1, 2, 3, 5), ReportCompaction.candidates(HISTORY, 0, 6000, 3));
+    }
+
+    @Test
+    public void isCompactedArtifact_shouldOnlyMatchCheckmarxFiles() {
+        assertTrue(ReportCompaction.isCompactedArtifact("ws_checkmarx-ast-results.html.gz"));
+        assertTrue(ReportCompaction.isCompactedArtifact("ws_checkmarx-ast-results.json"));
+        assertTrue(ReportCompaction.isCompactedArtifact("ws_checkmarx-ast-cli-output.log.gz"));
+        assertFalse(ReportCompaction.isCompactedArtifact("app.jar"));
+    }
+
+    @Test
+    public void compact_shouldRemoveTheReportsAndKeepTheSummaryAndFingerprints() throws Exception {
+        final FreeStyleProject project = jenkins.createFreeStyleProject("compacted");
+        final FreeStyleBuild build = jenkins.buildAndAssertSuccess(project);
+        archive(build);
+        final File index = new File(build.getRootDir(), PluginUtils.CHECKMARX_AST_RESULTS_INDEX);
+        final File fingerprints = new File(build.getRootDir(), PluginUtils.CHECKMARX_AST_FINDING_FINGERPRINTS);
+        Files.write(index.toPath(), new byte[]{1, 2, 3});
+        Files.write(fingerprints.toPath(), new byte[]{4, 5, 6});
+        final CheckmarxScanResultsAction action = new CheckmarxScanResultsAction();
+        action.setBranchName("main");
+        build.addAction(action);
+        action.reportsArchived();
+        final File history = ScanHistory.of(project).getFile();
+        final long recorded = history.length();
+
+        assertTrue(ReportCompaction.compact(build));
+
+        final File artifacts = build.getArtifactsDir();
+        assertFalse(new File(artifacts, HTML_REPORT).exists());
+        assertFalse(new File(artifacts, JSON_REPORT).exists());
+        assertFalse(new File(artifacts, TRANSCRIPT).exists());
+        assertTrue(new File(artifacts, OTHER_ARTIFACT).isFile());
+        assertFalse(index.exists());
+        assertTrue(fingerprints.isFile());
+        assertTrue(action.isCompacted());
+        assertEquals(2, action.getScanSummary().getHigh());
+        assertEquals(recorded, history.length());
+        assertEquals(2, ScanHistory.of(project).latest(1).get(0).getHigh());
+
+        // the compacted results are saved with the build and not compacted twice
+        build.reload();
+        assertTrue(build.getAction(CheckmarxScanResultsAction.class).isCompacted());
+        assertFalse(ReportCompaction.compact(build));
+    }
+
+    private void archive(final FreeStyleBuild build) throws IOException, InterruptedException {
+        final File directory = folder.newFolder();
+        writeCompressed(new File(directory, HTML_REPORT), "<html></html>");
+        writeCompressed(new File(directory, JSON_REPORT), "{\"TotalIssues\": 3, \"HighIssues\": 2, \"MediumIssues\": 0, \"LowIssues\": 1,"
+                + " \"SastIssues\": 3, \"KicsIssues\": 0, \"ScaIssues\": 0}");
+        writeCompressed(new File(directory, TRANSCRIPT), "scan submitted");
+        Files.write(new File(directory, OTHER_ARTIFACT).toPath(), new byte[]{7});
+        final Map<String, String> artifacts = new HashMap<>();
+        for (String name : Arrays.asList(HTML_REPORT, JSON_REPORT, TRANSCRIPT, OTHER_ARTIFACT)) {
+            artifacts.put(name, name);
+        }
+        build.getArtifactManager().archive(new FilePath(directory), jenkins.createLocalLauncher(),
+                new StreamBuildListener(System.out, StandardCharsets.UTF_8), artifacts);
+    }
+
+    private static void writeCompressed(final File file, final String content) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file.toPath()))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static List<ScanSummary> history(final int... builds) {
+        final List<ScanSummary> summaries = new ArrayList<>();
+        for (int build : builds) {
+            summaries.add(new ScanSummary(build, 1000L * build, 0, 0, 0, 0, 0, 0, 0));
+        }
+        return summaries;
+    }
+}
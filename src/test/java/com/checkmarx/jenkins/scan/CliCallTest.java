@@ -0,0 +1,116 @@
+package com.checkmarx.jenkins.scan;
+
+import com.checkmarx.jenkins.CxLoggerAdapter;
+import com.checkmarx.jenkins.exception.CheckmarxException;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CliCallTest {
+
+    private static final String SHELL = "/bin/sh";
+
+    // the phase runs on the remoting thread pool and kills its processes through the process tree of the controller
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    private final CxLoggerAdapter log = new CxLoggerAdapter(new PrintStream(new ByteArrayOutputStream()), CxLoggerAdapter.Level.INFO, false);
+
+    @Test
+    public void run_shouldCancelATaskExceedingItsTimeout() throws Exception {
+        final CliCall call = new CliCall(CliCall.Phase.SCAN, 200, TimeUnit.MILLISECONDS, null, log);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        final long start = System.nanoTime();
+        try {
+            call.run(() -> {
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(5));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+                return "finished";
+            });
+            fail("The task exceeded its timeout");
+        } catch (CheckmarxException e) {
+            assertEquals("The scan phase timed out after 200 millisecond(s).", e.getMessage());
+        }
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+    }
+
+    @Test
+    public void run_shouldRethrowTheFailureOfTheTask() throws Exception {
+        final CliCall call = new CliCall(CliCall.Phase.REPORT, 1, null, log);
+        final IOException ioException = new IOException("connection reset");
+        final CheckmarxException checkmarxException = new CheckmarxException("no results");
+
+        try {
+            call.run(() -> {
+                throw ioException;
+            });
+            fail("The task failed");
+        } catch (IOException e) {
+            assertSame(ioException, e);
+        }
+        try {
+            call.run(() -> {
+                throw checkmarxException;
+            });
+            fail("The task failed");
+        } catch (CheckmarxException e) {
+            assertSame(checkmarxException, e);
+        }
+        assertEquals("done", call.run(() -> "done"));
+    }
+
+    @Test
+    public void run_shouldLetTheCleanupOfAnAbortedTaskRun() throws Exception {
+        Assume.assumeTrue(new File(SHELL).canExecute());
+        final CliCall call = new CliCall(CliCall.Phase.SCAN, 200, TimeUnit.MILLISECONDS, SHELL, log);
+        call.track("scan-1");
+        final Process[] tracked = new Process[1];
+        final int[] cleanupExitCode = {-1};
+
+        try {
+            call.run(() -> {
+                // a script of several commands keeps the shell running with the arguments matched by the process tree
+                tracked[0] = new ProcessBuilder(SHELL, "-c", "sleep 60; exit 0", "scan-1").start();
+                try {
+                    return tracked[0].waitFor();
+                } catch (InterruptedException e) {
+                    assertTrue(call.isAborted());
+                    final Process cleanup = new ProcessBuilder(SHELL, "-c", "sleep 1; exit 0", "scan", "cancel", "--scan-id", "scan-1").start();
+                    cleanupExitCode[0] = cleanup.waitFor();
+                    throw e;
+                }
+            });
+            fail("The task exceeded its timeout");
+        } catch (CheckmarxException e) {
+            assertTrue(e.getMessage().contains("timed out"));
+        }
+
+        assertTrue(tracked[0].waitFor(10, TimeUnit.SECONDS));
+        assertNotEquals(0, tracked[0].exitValue());
+        assertEquals(0, cleanupExitCode[0]);
+    }
+
+    @Test
+    public void isCancel_shouldOnlyMatchScanCancelCommands() {
+        assertTrue(CliCall.isCancel(Arrays.asList("cx", "scan", "cancel", "--scan-id", "scan-1")));
+        assertFalse(CliCall.isCancel(Arrays.asList("cx", "scan", "show", "--scan-id", "scan-1")));
+        assertFalse(CliCall.isCancel(Arrays.asList("cx", "results", "show", "--scan-id", "scan-1")));
+    }
+}
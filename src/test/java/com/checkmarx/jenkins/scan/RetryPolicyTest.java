@@ -0,0 +1,134 @@
+package com.checkmarx.jenkins.scan;
+
+import com.checkmarx.jenkins.CxLoggerAdapter;
+import com.checkmarx.jenkins.credentials.CheckmarxApiTokenPool;
+import com.checkmarx.jenkins.exception.CheckmarxException;
+import com.checkmarx.jenkins.model.ScanConfig;
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import hudson.util.Secret;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RetryPolicyTest {
+
+    // the secrets of the credentials pool are encrypted with the key of the controller
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    private final CxLoggerAdapter log = new CxLoggerAdapter(new PrintStream(new ByteArrayOutputStream()), CxLoggerAdapter.Level.INFO, false);
+
+    @Test
+    public void delayMillis_shouldGrowExponentiallyUpToTheMaximum() {
+        assertEquals(RetryPolicy.BASE_DELAY_MILLIS, RetryPolicy.delayMillis(1, 1.0));
+        assertEquals(4 * RetryPolicy.BASE_DELAY_MILLIS, RetryPolicy.delayMillis(3, 1.0));
+        assertEquals(RetryPolicy.MAX_DELAY_MILLIS, RetryPolicy.delayMillis(30, 1.0));
+        assertEquals(0, RetryPolicy.delayMillis(3, 0.0));
+    }
+
+    @Test
+    public void isTransient_shouldRecognizeThrottlingAndServerErrors() {
+        assertTrue(RetryPolicy.isTransient(new CheckmarxException("request failed: 503 Service Unavailable")));
+        assertTrue(RetryPolicy.isTransient(new CheckmarxException("Too Many Requests")));
+        assertTrue(RetryPolicy.isTransient(new SocketException()));
+        assertTrue(RetryPolicy.isTransient(new IOException("read: connection reset by peer")));
+        assertFalse(RetryPolicy.isTransient(new CheckmarxException("401 Unauthorized")));
+        assertFalse(RetryPolicy.isTransient(new IOException("No space left on device")));
+    }
+
+    @Test
+    public void callWithRetries_shouldNotRetryPermanentFailures() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        try {
+            RetryPolicy.callWithRetries("test", new CircuitBreaker("server"), log, () -> {
+                calls.incrementAndGet();
+                throw new CheckmarxException("401 Unauthorized");
+            });
+            fail("The failure is permanent");
+        } catch (CheckmarxException e) {
+            assertEquals(1, calls.get());
+        }
+    }
+
+    @Test
+    public void callOnce_shouldReturnTheResult() throws Exception {
+        assertEquals("scan", RetryPolicy.callOnce("test", new CircuitBreaker("server"), log, () -> "scan"));
+    }
+
+    @Test
+    public void callWithRetries_shouldRetryAThrottledClientWithAnotherClientOfThePool() throws Exception {
+        final CheckmarxApiTokenPool pool = new CheckmarxApiTokenPool(CredentialsScope.GLOBAL, "throttled-pool", null,
+                Arrays.asList(new CheckmarxApiTokenPool.Client("throttled-a", Secret.fromString("a")),
+                        new CheckmarxApiTokenPool.Client("throttled-b", Secret.fromString("b"))));
+        final CheckmarxApiTokenPool.Lease client = pool.acquire();
+        final ScanConfig scanConfig = new ScanConfig();
+        scanConfig.setServerUrl("https://throttled.example.com");
+        scanConfig.setCheckmarxToken(client.getToken());
+        scanConfig.setClient(client);
+        assertEquals("throttled-a", client.getClientId());
+
+        // more throttled calls than the breaker tolerates failures: the server itself is healthy
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            try {
+                RetryPolicy.callOnce("test", scanConfig, log, () -> {
+                    throw new CheckmarxException("429 Too Many Requests");
+                });
+                fail("The client is throttled");
+            } catch (CheckmarxException e) {
+                assertEquals("429 Too Many Requests", e.getMessage());
+            }
+        }
+
+        final List<String> attempts = new ArrayList<>();
+        final String result = RetryPolicy.callWithRetries("test", scanConfig, log, () -> {
+            attempts.add(scanConfig.getCheckmarxToken().getClientId());
+            if (attempts.size() == 1) {
+                throw new CheckmarxException("429 Too Many Requests");
+            }
+            return "scan";
+        });
+
+        assertEquals("scan", result);
+        assertEquals(Arrays.asList("throttled-a", "throttled-b"), attempts);
+        assertEquals("throttled-b", client.getClientId());
+        // the throttled client is left aside for the next scans
+        assertEquals("throttled-b", pool.acquire().getClientId());
+    }
+
+    @Test
+    public void circuitBreaker_shouldOpenAfterConsecutiveFailures() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker("server");
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            breaker.before(0);
+            breaker.failed(0);
+        }
+        try {
+            breaker.before(1);
+            fail("The breaker is open");
+        } catch (CheckmarxException e) {
+            assertTrue(e.getMessage().contains("server"));
+        }
+
+        // a single trial call once the server had time to recover
+        breaker.before(CircuitBreaker.OPEN_MILLIS);
+        try {
+            breaker.before(CircuitBreaker.OPEN_MILLIS);
+            fail("The trial call is in progress");
+        } catch (CheckmarxException e) {
+            // expected
+        }
+        breaker.succeeded();
+        breaker.before(CircuitBreaker.OPEN_MILLIS);
+    }
+}
@@ -0,0 +1,136 @@
+package com.checkmarx.jenkins.scan;
+
+import com.checkmarx.jenkins.CxLoggerAdapter;
+import com.checkmarx.jenkins.exception.CheckmarxException;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ScanTargetPoolTest {
+
+    private final CxLoggerAdapter log = new CxLoggerAdapter(new PrintStream(new ByteArrayOutputStream()), CxLoggerAdapter.Level.INFO, false);
+
+    @Test
+    public void acquire_shouldSpreadProjectsByWeight() throws Exception {
+        final ScanTarget heavy = target("heavy", 2, 0);
+        final ScanTarget light = target("light", 1, 0);
+        final List<ScanTarget> targets = Arrays.asList(heavy, light);
+        final ScanTargetPool pool = new ScanTargetPool(null);
+
+        assertSame(heavy, pool.acquire(targets, "a", log).getTarget());
+        assertSame(heavy, pool.acquire(targets, "b", log).getTarget());
+        assertSame(light, pool.acquire(targets, "c", log).getTarget());
+    }
+
+    @Test
+    public void acquire_shouldKeepTheTargetOfAProject() throws Exception {
+        final ScanTarget first = target("first", 1, 0);
+        final ScanTarget second = target("second", 1, 0);
+        final List<ScanTarget> targets = Arrays.asList(first, second);
+        final ScanTargetPool pool = new ScanTargetPool(null);
+
+        pool.acquire(targets, "a", log);
+        assertSame(first, pool.acquire(targets, "a", log).getTarget());
+        assertSame(second, pool.acquire(targets, "b", log).getTarget());
+    }
+
+    @Test
+    public void acquire_shouldWaitForCapacity() throws Exception {
+        final ScanTarget target = target("single", 1, 1);
+        final List<ScanTarget> targets = Arrays.asList(target);
+        final ScanTargetPool pool = new ScanTargetPool(null);
+        final ScanTargetPool.Lease lease = pool.acquire(targets, "a", log);
+
+        final ScanTargetPool.Lease[] second = new ScanTargetPool.Lease[1];
+        final Thread waiting = new Thread(() -> {
+            try {
+                second[0] = pool.acquire(targets, "a", log);
+            } catch (InterruptedException | CheckmarxException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        waiting.start();
+        waiting.join(200);
+        assertTrue(waiting.isAlive());
+
+        lease.close();
+        waiting.join(5000);
+        assertFalse(waiting.isAlive());
+        assertSame(target, second[0].getTarget());
+    }
+
+    @Test
+    public void acquire_shouldTakeFailingTargetsOutOfRotation() throws Exception {
+        final ScanTarget failing = target("failing", 1, 0);
+        final ScanTarget healthy = target("healthy", 1, 0);
+        final List<ScanTarget> targets = Arrays.asList(failing, healthy);
+        final ScanTargetPool pool = new ScanTargetPool(null);
+
+        for (int i = 0; i < ScanTargetPool.FAILURE_THRESHOLD; i++) {
+            try (ScanTargetPool.Lease lease = pool.acquire(targets, "a", log)) {
+                assertSame(failing, lease.getTarget());
+                lease.failed();
+            }
+        }
+        assertSame(healthy, pool.acquire(targets, "b", log).getTarget());
+        try {
+            pool.acquire(targets, "a", log);
+            fail("The target of the project is out of rotation");
+        } catch (CheckmarxException e) {
+            assertTrue(e.getMessage().contains("failing"));
+        }
+    }
+
+    @Test
+    public void hold_shouldKeepTheCapacityOfAStartedScanUntilItIsResumed() throws Exception {
+        final ScanTarget target = target("single", 1, 1);
+        final List<ScanTarget> targets = Arrays.asList(target);
+        final ScanTargetPool pool = new ScanTargetPool(null);
+        final ScanTargetPool.Lease lease = pool.acquire(targets, "a", log);
+        pool.hold("scan-1", lease);
+        lease.close();
+
+        final Thread waiting = new Thread(() -> {
+            try {
+                pool.acquire(targets, "a", log).close();
+            } catch (InterruptedException | CheckmarxException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        waiting.start();
+        waiting.join(200);
+        assertTrue(waiting.isAlive());
+
+        final ScanTargetPool.Lease resumed = pool.resume("scan-1");
+        assertSame(lease, resumed);
+        assertNull(pool.resume("scan-1"));
+        resumed.close();
+        waiting.join(5000);
+        assertFalse(waiting.isAlive());
+    }
+
+    @Test
+    public void acquire_shouldReleaseHeldLeasesNobodyResumed() throws Exception {
+        final ScanTarget target = target("single", 1, 1);
+        final List<ScanTarget> targets = Arrays.asList(target);
+        final ScanTargetPool pool = new ScanTargetPool(null);
+        pool.hold("scan-1", pool.acquire(targets, "a", log), 0);
+
+        try (ScanTargetPool.Lease lease = pool.acquire(targets, "a", log)) {
+            assertSame(target, lease.getTarget());
+        }
+        assertNull(pool.resume("scan-1"));
+    }
+
+    private static ScanTarget target(final String name, final int weight, final int maxConcurrentScans) {
+        final ScanTarget target = new ScanTarget(name, "https://" + name + ".example.com", "tenant", "credentials");
+        target.setWeight(weight);
+        target.setMaxConcurrentScans(maxConcurrentScans);
+        return target;
+    }
+}
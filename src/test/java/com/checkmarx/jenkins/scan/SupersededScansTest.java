@@ -0,0 +1,91 @@
+package com.checkmarx.jenkins.scan;
+
+import com.checkmarx.jenkins.CxLoggerAdapter;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class SupersededScansTest {
+
+    private final CxLoggerAdapter log = new CxLoggerAdapter(new PrintStream(new ByteArrayOutputStream()), CxLoggerAdapter.Level.INFO, false);
+    private final String key = "job|" + UUID.randomUUID();
+    private final List<String> interrupted = new ArrayList<>();
+
+    private SupersededScans.Ticket register(final int buildNumber) {
+        final String displayName = "job #" + buildNumber;
+        return SupersededScans.register(key, buildNumber, displayName, cause -> {
+            interrupted.add(displayName + ": " + cause.getShortDescription());
+            return true;
+        }, log);
+    }
+
+    @Test
+    public void register_shouldSupersedeAnOlderBuild() {
+        final SupersededScans.Ticket older = register(1);
+        final SupersededScans.Ticket newer = register(2);
+
+        assertTrue(older.isSuperseded());
+        assertEquals("job #2", older.getSupersededBy());
+        assertFalse(newer.isSuperseded());
+        assertEquals(1, interrupted.size());
+        assertEquals("job #1: Checkmarx scan superseded by job #2", interrupted.get(0));
+    }
+
+    @Test
+    public void register_shouldSupersedeAnOlderBuildRegisteringLate() {
+        final SupersededScans.Ticket newer = register(5);
+        final SupersededScans.Ticket older = register(4);
+
+        assertFalse(newer.isSuperseded());
+        assertTrue(older.isSuperseded());
+        assertEquals("job #5", older.getSupersededBy());
+        assertEquals(1, interrupted.size());
+        assertTrue(interrupted.get(0).startsWith("job #4:"));
+    }
+
+    @Test
+    public void register_shouldNotSupersedeTheScansOfTheSameBuild() {
+        final SupersededScans.Ticket first = register(3);
+        final SupersededScans.Ticket second = register(3);
+
+        assertFalse(first.isSuperseded());
+        assertFalse(second.isSuperseded());
+        assertTrue(interrupted.isEmpty());
+
+        // both scans of the build are superseded by the next build
+        register(4);
+        assertTrue(first.isSuperseded());
+        assertTrue(second.isSuperseded());
+        assertEquals(2, interrupted.size());
+    }
+
+    @Test
+    public void release_shouldForgetTheBuildOnceItsScansAreOver() {
+        final SupersededScans.Ticket first = register(7);
+        final SupersededScans.Ticket second = register(7);
+        SupersededScans.release(first);
+        register(6);
+        assertEquals(1, interrupted.size());
+
+        SupersededScans.release(second);
+        final SupersededScans.Ticket older = register(6);
+        assertFalse(older.isSuperseded());
+    }
+
+    @Test
+    public void scanSubmitted_shouldCancelTheScanOfASupersededBuild() throws InterruptedException {
+        final SupersededScans.Ticket older = register(1);
+        register(2);
+
+        final List<String> canceled = new ArrayList<>();
+        older.scanSubmitted("scan-1", canceled::add);
+        assertEquals(1, canceled.size());
+        assertEquals("scan-1", canceled.get(0));
+    }
+}
@@ -0,0 +1,56 @@
+package com.checkmarx.jenkins.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class TracingTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void start_shouldBeNoop_withoutTrace() {
+        try (Span span = Tracing.start("orphan")) {
+            assertFalse(span.isRecording());
+        }
+    }
+
+    @Test
+    public void startTrace_shouldExportNestedSpansToFile() throws Exception {
+        File file = new File(folder.getRoot(), "traces/spans.jsonl");
+
+        try (Span root = Tracing.startTrace("root", Tracing.exporter(null, file.getPath()))) {
+            root.setAttribute("checkmarx.project", "project");
+            try (Span child = Tracing.start("child")) {
+                child.setAttribute("download.bytes", 42L);
+                child.recordError("failed");
+            }
+            assertSame(root, Tracing.current());
+        }
+
+        assertFalse(Tracing.current().isRecording());
+        List<String> lines = Files.readAllLines(file.toPath(), UTF_8);
+        assertEquals(1, lines.size());
+
+        JsonNode spans = new ObjectMapper().readTree(lines.get(0)).at("/resourceSpans/0/scopeSpans/0/spans");
+        assertEquals(2, spans.size());
+        JsonNode child = spans.get(0);
+        JsonNode root = spans.get(1);
+        assertEquals("child", child.get("name").asText());
+        assertEquals(root.get("spanId").asText(), child.get("parentSpanId").asText());
+        assertEquals(root.get("traceId").asText(), child.get("traceId").asText());
+        assertEquals("42", child.at("/attributes/0/value/intValue").asText());
+        assertEquals(2, child.at("/status/code").asInt());
+        assertFalse(root.has("parentSpanId"));
+    }
+}
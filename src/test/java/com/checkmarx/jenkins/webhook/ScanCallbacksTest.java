@@ -0,0 +1,82 @@
+package com.checkmarx.jenkins.webhook;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class ScanCallbacksTest {
+
+    private static final String SECRET = "shared-secret";
+
+    // body of a callback, as posted by the server
+    private static String payload(final String scanId) {
+        return "{\"scanId\": \"" + scanId + "\", \"status\": \"Completed\"}";
+    }
+
+    @Test
+    public void verify_shouldAcceptOnlyTheSignatureOfTheSender() {
+        final byte[] payload = payload(UUID.randomUUID().toString()).getBytes(StandardCharsets.UTF_8);
+        final String signature = ScanCallbacks.sign(SECRET, payload);
+
+        assertTrue(signature.startsWith("sha256="));
+        assertTrue(ScanCallbacks.verify(SECRET, payload, signature));
+        assertTrue(ScanCallbacks.verify(SECRET, payload, signature.toUpperCase().replace("SHA256=", "sha256=")));
+        assertFalse(ScanCallbacks.verify("other-secret", payload, signature));
+        assertFalse(ScanCallbacks.verify(SECRET, payload(UUID.randomUUID().toString()).getBytes(StandardCharsets.UTF_8), signature));
+        assertFalse(ScanCallbacks.verify(SECRET, payload, null));
+        assertFalse(ScanCallbacks.verify("", payload, signature));
+    }
+
+    @Test
+    public void scanId_shouldRejectPayloadsWithoutAScanId() throws IOException {
+        final String scanId = UUID.randomUUID().toString();
+        assertEquals(scanId, ScanCallbacks.scanId(payload(scanId).getBytes(StandardCharsets.UTF_8)));
+        for (String body : new String[]{"{}", "{\"scanId\": 42}", payload("../../job"), "not json"}) {
+            try {
+                ScanCallbacks.scanId(body.getBytes(StandardCharsets.UTF_8));
+                fail("Accepted " + body);
+            } catch (IOException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void completed_shouldWakeTheWaitersOfTheScanOnly() throws Exception {
+        final String scanId = UUID.randomUUID().toString();
+        try (ScanCallbacks.Waiter waiter = ScanCallbacks.watch(scanId);
+             ScanCallbacks.Waiter other = ScanCallbacks.watch(UUID.randomUUID().toString())) {
+            final Thread sender = new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                ScanCallbacks.completed(scanId);
+            });
+            sender.start();
+
+            final long start = System.nanoTime();
+            assertTrue(waiter.await(60_000));
+            assertTrue(System.nanoTime() - start < 30_000_000_000L);
+            sender.join();
+            assertFalse(other.await(50));
+            // each callback wakes a single wait
+            assertFalse(waiter.await(50));
+        }
+        assertEquals(0, ScanCallbacks.completed(scanId));
+    }
+
+    @Test
+    public void await_shouldReturnACallbackReceivedBeforeTheWait() throws Exception {
+        final String scanId = UUID.randomUUID().toString();
+        try (ScanCallbacks.Waiter waiter = ScanCallbacks.watch(scanId)) {
+            assertEquals(1, ScanCallbacks.completed(scanId));
+            assertTrue(waiter.await(0));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.checkmarx.jenkins.workspace;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DeltaSourceCollectorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File workspace;
+    private File staging;
+
+    @Before
+    public void createRepository() throws Exception {
+        workspace = folder.newFolder("workspace");
+        staging = new File(folder.getRoot(), "staging");
+        Assume.assumeTrue("git is not available", git("init", "-q"));
+        assertTrue(git("symbolic-ref", "HEAD", "refs/heads/main"));
+        write("src/Unchanged.java", "class Unchanged {}");
+        write("src/Removed.java", "class Removed {}");
+        write("pom.xml", "<project/>");
+        commit("base");
+        assertTrue(git("checkout", "-q", "-b", "feature"));
+    }
+
+    @Test
+    public void invoke_shouldStageTheFilesChangedAgainstTheMergeBaseAndTheManifests() throws Exception {
+        write("src/Changed.java", "class Changed {}");
+        commit("first push");
+        write("src/Later.java", "class Later {}");
+        Files.delete(new File(workspace, "src/Removed.java").toPath());
+        commit("second push");
+
+        final DeltaSourceCollector.Result result = new DeltaSourceCollector("main", staging.getAbsolutePath()).invoke(workspace, null);
+
+        assertTrue(result.isAvailable());
+        // both pushes of the pull request are part of the delta
+        assertEquals(2, result.getChangedFiles());
+        assertEquals(1, result.getManifests());
+        assertTrue(new File(staging, "src/Changed.java").isFile());
+        assertTrue(new File(staging, "src/Later.java").isFile());
+        assertTrue(new File(staging, "pom.xml").isFile());
+        assertFalse(new File(staging, "src/Unchanged.java").exists());
+        assertFalse(new File(staging, "src/Removed.java").exists());
+        assertEquals("class Changed {}", new String(Files.readAllBytes(new File(staging, "src/Changed.java").toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void invoke_shouldBeUnavailable_whenTheMergeBaseIsUnknown() throws Exception {
+        write("src/Changed.java", "class Changed {}");
+        commit("change");
+
+        final DeltaSourceCollector.Result result = new DeltaSourceCollector("missing", staging.getAbsolutePath()).invoke(workspace, null);
+
+        assertFalse(result.isAvailable());
+        assertTrue(result.getUnavailableReason().contains("missing"));
+        assertFalse(staging.exists());
+    }
+
+    @Test
+    public void invoke_shouldNotFollowChangedSymbolicLinksOutOfTheWorkspace() throws Exception {
+        final File secret = folder.newFile("credentials.txt");
+        Files.write(secret.toPath(), "secret".getBytes(StandardCharsets.UTF_8));
+        final Path link = new File(workspace, "src/link.txt").toPath();
+        try {
+            Files.createSymbolicLink(link, secret.toPath());
+        } catch (UnsupportedOperationException | IOException e) {
+            Assume.assumeNoException(e);
+        }
+        write("src/Changed.java", "class Changed {}");
+        commit("link");
+
+        final DeltaSourceCollector.Result result = new DeltaSourceCollector("main", staging.getAbsolutePath()).invoke(workspace, null);
+
+        assertEquals(1, result.getChangedFiles());
+        assertFalse(new File(staging, "src/link.txt").exists());
+    }
+
+    @Test
+    public void isInWorkspace_shouldRejectPathsLeavingTheWorkspace() throws Exception {
+        write("src/App.java", "class App {}");
+        final File outside = folder.newFolder("outside");
+        Files.write(new File(outside, "App.java").toPath(), "class App {}".getBytes(StandardCharsets.UTF_8));
+        Files.createSymbolicLink(new File(workspace, "linked").toPath(), outside.toPath());
+
+        final Path root = workspace.toPath();
+        assertTrue(DeltaSourceCollector.isInWorkspace(root, root.toRealPath(), root.resolve("src/App.java").normalize()));
+        assertFalse(DeltaSourceCollector.isInWorkspace(root, root.toRealPath(), root.resolve("../outside/App.java").normalize()));
+        assertFalse(DeltaSourceCollector.isInWorkspace(root, root.toRealPath(), root.resolve("linked/App.java").normalize()));
+        assertFalse(DeltaSourceCollector.isInWorkspace(root, root.toRealPath(), root.resolve("src").normalize()));
+    }
+
+    private void write(final String path, final String content) throws IOException {
+        final File file = new File(workspace, path);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void commit(final String message) throws Exception {
+        assertTrue(git("add", "-A"));
+        assertTrue(git("-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", message));
+    }
+
+    private boolean git(final String... args) throws InterruptedException {
+        final String[] command = new String[args.length + 1];
+        command[0] = "git";
+        System.arraycopy(args, 0, command, 1, args.length);
+        try {
+            final Process process = new ProcessBuilder(Arrays.asList(command)).directory(workspace)
+                    .redirectErrorStream(true).redirectOutput(new File(folder.getRoot(), "git.log")).start();
+            return process.waitFor(60, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.checkmarx.jenkins.workspace;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class WorkspaceFingerprinterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void invoke_shouldEnableAllEngines_whenSourcesManifestsAndIacPresent() throws Exception {
+        write("src/main/java/App.java", "class App {}");
+        write("pom.xml", "<project/>");
+        write("deploy/main.tf", "resource \"aws_s3_bucket\" \"b\" {}");
+
+        WorkspaceFingerprint fingerprint = new WorkspaceFingerprinter().invoke(folder.getRoot(), null);
+
+        assertEquals(Arrays.asList("sast", "sca", "kics"), fingerprint.getScanTypes());
+        assertEquals(Collections.singletonMap("Java", 1L), fingerprint.getSourceFilesByLanguage());
+    }
+
+    @Test
+    public void invoke_shouldSkipScaAndKics_whenOnlySourcesPresent() throws Exception {
+        write("app.py", "print('hello')");
+        write("config/settings.yml", "debug: true");
+
+        WorkspaceFingerprint fingerprint = new WorkspaceFingerprinter().invoke(folder.getRoot(), null);
+
+        assertEquals(Collections.singletonList("sast"), fingerprint.getScanTypes());
+    }
+
+    @Test
+    public void invoke_shouldDetectKubernetesManifests_andIgnoreDependencyFolders() throws Exception {
+        write("k8s/deployment.yaml", "apiVersion: apps/v1\nkind: Deployment");
+        write("node_modules/lib/index.js", "module.exports = {}");
+        write("node_modules/lib/package.json", "{}");
+
+        WorkspaceFingerprint fingerprint = new WorkspaceFingerprinter().invoke(folder.getRoot(), null);
+
+        assertEquals(Collections.singletonList("kics"), fingerprint.getScanTypes());
+        assertEquals(1, fingerprint.getFiles());
+    }
+
+    private void write(String path, String content) throws IOException {
+        File file = new File(folder.getRoot(), path);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}